@@ -0,0 +1,57 @@
+package com.collibra.codechallenge.graph;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closer than queries from all nodes per second. Scaling is measured by rerunning with
+ * -jvmArgsAppend -Dgraph.parallelism=N.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BatchCloserThanBenchmark {
+
+    private static final long SEED = 42L;
+
+    @Param({"RANDOM", "GRID"})
+    private GraphGenerator generator;
+
+    @Param({"100000"})
+    private int nodes;
+
+    @Param({"10", "50"})
+    private int radius;
+
+    private Graph<String> graph;
+
+    @Setup
+    public void createGraph() {
+        CompactGraphStore store = new CompactGraphStore();
+        graph = generator.populate(new CompactDirectedWeightedGraph(store,
+                new CompressedSparseRowDijkstraShortestPathResolver(store)), nodes, SEED);
+        store.compact();
+    }
+
+    @Benchmark
+    public long closerThanFromAll() {
+        LongAdder resolved = new LongAdder();
+        graph.closerThanFromAll(radius, (initial, closerThan) -> resolved.add(closerThan.length()));
+        return resolved.sum();
+    }
+}
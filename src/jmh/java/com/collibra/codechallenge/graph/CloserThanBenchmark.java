@@ -0,0 +1,86 @@
+package com.collibra.codechallenge.graph;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CloserThanBenchmark {
+
+    private static final int AVERAGE_DEGREE = 4;
+    private static final int MAXIMUM_WEIGHT = 10;
+
+    @Param({"10000"})
+    private int nodes;
+
+    @Param({"1", "5", "10", "25", "50", "100", "1000"})
+    private int radius;
+
+    private GraphSnapshot snapshot;
+    private ShortestPathResolver<String> dijkstraAlgorithm;
+    private int initial;
+
+    @Setup
+    public void createRandomGraph() {
+        Random random = new Random(nodes);
+        CompactGraphStore store = new CompactGraphStore();
+        Map<String, Map<String, List<Integer>>> adjacency = Maps.newHashMap();
+        for (int node = 0; node < nodes; node++) {
+            store.update(GraphMutation.addNode("node" + node));
+            adjacency.put("node" + node, Maps.newHashMap());
+        }
+        for (int edge = 0; edge < nodes * AVERAGE_DEGREE; edge++) {
+            String initialNode = "node" + random.nextInt(nodes);
+            String terminalNode = "node" + random.nextInt(nodes);
+            int weight = 1 + random.nextInt(MAXIMUM_WEIGHT);
+            store.update(GraphMutation.addEdge(initialNode, terminalNode, weight));
+            adjacency.get(initialNode).computeIfAbsent(terminalNode, node -> Lists.newArrayList()).add(weight);
+        }
+        store.compact();
+        snapshot = store.snapshot();
+        dijkstraAlgorithm = new DijkstraAlgorithmShortestPathResolver(adjacency);
+        initial = snapshot.existingId("node0");
+    }
+
+    @Benchmark
+    public List<String> dijkstraAlgorithm() {
+        return dijkstraAlgorithm.closerThan(radius, "node0");
+    }
+
+    @Benchmark
+    public List<String> fullShortestPathTree() {
+        int[] distances = new CompressedSparseRowDijkstraAlgorithm(snapshot).distances(initial);
+        List<String> closerThan = Lists.newArrayList();
+        for (int node = 0; node < distances.length; node++) {
+            if (node != initial && distances[node] < radius) {
+                closerThan.add(snapshot.name(node));
+            }
+        }
+        return closerThan;
+    }
+
+    @Benchmark
+    public List<String> boundedRadius() {
+        return new BoundedRadiusDijkstraAlgorithm(snapshot).closerThan(radius, initial);
+    }
+}
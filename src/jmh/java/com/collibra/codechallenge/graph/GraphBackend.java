@@ -0,0 +1,36 @@
+package com.collibra.codechallenge.graph;
+
+import com.google.common.collect.Maps;
+
+import java.util.List;
+import java.util.Map;
+
+public enum GraphBackend {
+
+    DIJKSTRA_ALGORITHM {
+        @Override
+        public Graph<String> create() {
+            Map<String, Map<String, List<Integer>>> nodes = Maps.newConcurrentMap();
+            return new DirectedWeightedGraph(nodes, new DijkstraAlgorithmShortestPathResolver(nodes));
+        }
+    },
+
+    DIRECTED_WEIGHTED_GRAPH {
+        @Override
+        public Graph<String> create() {
+            Map<String, Map<String, List<Integer>>> nodes = Maps.newConcurrentMap();
+            return new DirectedWeightedGraph(nodes, new BinaryHeapDijkstraShortestPathResolver(nodes));
+        }
+    },
+
+    COMPACT_DIRECTED_WEIGHTED_GRAPH {
+        @Override
+        public Graph<String> create() {
+            CompactGraphStore store = new CompactGraphStore();
+            return new CompactDirectedWeightedGraph(store, new CachedShortestPathTreeResolver(store));
+        }
+    },
+    ;
+
+    public abstract Graph<String> create();
+}
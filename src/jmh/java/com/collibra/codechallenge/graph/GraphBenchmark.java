@@ -0,0 +1,99 @@
+package com.collibra.codechallenge.graph;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class GraphBenchmark {
+
+    private static final long SEED = 42L;
+    private static final int QUERIES = 1024;
+    private static final int RADIUS = 20;
+
+    private static final String ADDED_NODE = "benchmark";
+    private static final String ADDED_EDGE_INITIAL = "benchmark-initial";
+    private static final String ADDED_EDGE_TERMINAL = "benchmark-terminal";
+
+    @Param({"COMPACT_DIRECTED_WEIGHTED_GRAPH", "DIRECTED_WEIGHTED_GRAPH"})
+    private GraphBackend backend;
+
+    @Param({"RANDOM", "SCALE_FREE", "GRID"})
+    private GraphGenerator generator;
+
+    @Param({"1000", "100000", "1000000"})
+    private int nodes;
+
+    private Graph<String> graph;
+    private String[] initials;
+    private String[] terminals;
+    private int query;
+
+    @Setup
+    public void createGraph() {
+        graph = generator.populate(backend.create(), nodes, SEED);
+        graph.addNode(ADDED_EDGE_INITIAL);
+        graph.addNode(ADDED_EDGE_TERMINAL);
+
+        Random random = new Random(SEED);
+        initials = new String[QUERIES];
+        terminals = new String[QUERIES];
+        for (int index = 0; index < QUERIES; index++) {
+            initials[index] = GraphGenerator.name(random.nextInt(nodes));
+            terminals[index] = GraphGenerator.name(random.nextInt(nodes));
+        }
+    }
+
+    @Benchmark
+    public void addAndRemoveNode() {
+        graph.addNode(ADDED_NODE);
+        graph.removeNode(ADDED_NODE);
+    }
+
+    @Benchmark
+    public void addAndRemoveConnectedNode() {
+        int index = nextQuery();
+        graph.addNode(ADDED_NODE);
+        graph.addEdge(initials[index], ADDED_NODE, 1);
+        graph.addEdge(ADDED_NODE, terminals[index], 1);
+        graph.removeNode(ADDED_NODE);
+    }
+
+    @Benchmark
+    public void addAndRemoveEdge() {
+        graph.addEdge(ADDED_EDGE_INITIAL, ADDED_EDGE_TERMINAL, 1);
+        graph.removeEdges(ADDED_EDGE_INITIAL, ADDED_EDGE_TERMINAL);
+    }
+
+    @Benchmark
+    public Integer shortestPath() {
+        int index = nextQuery();
+        return graph.shortestPath(initials[index], terminals[index]);
+    }
+
+    @Benchmark
+    public String closerThan() {
+        return graph.closerThan(initials[nextQuery()], RADIUS);
+    }
+
+    private int nextQuery() {
+        query = (query + 1) & (QUERIES - 1);
+        return query;
+    }
+}
@@ -0,0 +1,73 @@
+package com.collibra.codechallenge.graph;
+
+import java.util.Random;
+
+public enum GraphGenerator {
+
+    RANDOM {
+        @Override
+        void addEdges(Graph<String> graph, int nodes, Random random) {
+            for (int edge = 0; edge < nodes * AVERAGE_DEGREE; edge++) {
+                addEdge(graph, random.nextInt(nodes), random.nextInt(nodes), random);
+            }
+        }
+    },
+
+    SCALE_FREE {
+        @Override
+        void addEdges(Graph<String> graph, int nodes, Random random) {
+            int[] endpoints = new int[nodes * AVERAGE_DEGREE];
+            int size = 0;
+            for (int node = 1; node < nodes; node++) {
+                for (int edge = 0; edge < AVERAGE_DEGREE / 2; edge++) {
+                    int target = size == 0 ? 0 : endpoints[random.nextInt(size)];
+                    addEdge(graph, node, target, random);
+                    addEdge(graph, target, node, random);
+                    endpoints[size++] = node;
+                    endpoints[size++] = target;
+                }
+            }
+        }
+    },
+
+    GRID {
+        @Override
+        void addEdges(Graph<String> graph, int nodes, Random random) {
+            int width = (int) Math.ceil(Math.sqrt(nodes));
+            for (int node = 0; node < nodes; node++) {
+                int right = node + 1;
+                int down = node + width;
+                if (right % width != 0 && right < nodes) {
+                    addEdge(graph, node, right, random);
+                    addEdge(graph, right, node, random);
+                }
+                if (down < nodes) {
+                    addEdge(graph, node, down, random);
+                    addEdge(graph, down, node, random);
+                }
+            }
+        }
+    },
+    ;
+
+    private static final int AVERAGE_DEGREE = 4;
+    private static final int MAXIMUM_WEIGHT = 10;
+
+    public static String name(int node) {
+        return "node" + node;
+    }
+
+    public Graph<String> populate(Graph<String> graph, int nodes, long seed) {
+        for (int node = 0; node < nodes; node++) {
+            graph.addNode(name(node));
+        }
+        addEdges(graph, nodes, new Random(seed));
+        return graph;
+    }
+
+    abstract void addEdges(Graph<String> graph, int nodes, Random random);
+
+    private static void addEdge(Graph<String> graph, int initial, int terminal, Random random) {
+        graph.addEdge(name(initial), name(terminal), 1 + random.nextInt(MAXIMUM_WEIGHT));
+    }
+}
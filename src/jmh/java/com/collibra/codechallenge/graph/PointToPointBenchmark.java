@@ -0,0 +1,84 @@
+package com.collibra.codechallenge.graph;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PointToPointBenchmark {
+
+    private static final long SEED = 42L;
+    private static final int QUERIES = 1024;
+
+    public enum Search {
+        DIJKSTRA,
+        BIDIRECTIONAL,
+        ALT,
+        DELTA_STEPPING
+    }
+
+    @Param({"DIJKSTRA", "BIDIRECTIONAL", "ALT", "DELTA_STEPPING"})
+    private Search search;
+
+    @Param({"RANDOM", "GRID"})
+    private GraphGenerator generator;
+
+    @Param({"100000", "1000000"})
+    private int nodes;
+
+    @Param({"16"})
+    private int landmarks;
+
+    private Graph<String> graph;
+    private String[] initials;
+    private String[] terminals;
+    private int query;
+
+    @Setup
+    public void createGraph() {
+        CompactGraphStore store = new CompactGraphStore();
+        ShortestPathResolver<String> resolver;
+        if (search == Search.DIJKSTRA) {
+            resolver = new CompressedSparseRowDijkstraShortestPathResolver(store);
+        } else if (search == Search.DELTA_STEPPING) {
+            resolver = new DeltaSteppingShortestPathResolver(store);
+        } else {
+            resolver = new BidirectionalDijkstraShortestPathResolver(store, search == Search.ALT ? landmarks : 0);
+        }
+        graph = generator.populate(new CompactDirectedWeightedGraph(store, resolver), nodes, SEED);
+        store.compact();
+        if (resolver instanceof BidirectionalDijkstraShortestPathResolver) {
+            ((BidirectionalDijkstraShortestPathResolver) resolver).refreshLandmarks();
+        }
+
+        Random random = new Random(SEED);
+        initials = new String[QUERIES];
+        terminals = new String[QUERIES];
+        for (int index = 0; index < QUERIES; index++) {
+            initials[index] = GraphGenerator.name(random.nextInt(nodes));
+            terminals[index] = GraphGenerator.name(random.nextInt(nodes));
+        }
+    }
+
+    @Benchmark
+    public Integer shortestPath() {
+        query = (query + 1) & (QUERIES - 1);
+        return graph.shortestPath(initials[query], terminals[query]);
+    }
+}
@@ -0,0 +1,97 @@
+package com.collibra.codechallenge.protocol;
+
+import com.collibra.codechallenge.graph.GraphBackend;
+import com.collibra.codechallenge.graph.GraphGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.CharBuffer;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class GraphMessagesProtocolBenchmark {
+
+    private static final long SEED = 42L;
+    private static final String SESSION_TIME = "1000";
+
+    private static final String HI_I_AM = "HI, I AM benchmark-client";
+    private static final String BYE_MATE = "BYE MATE!";
+    private static final String UNKNOWN = "HOW ARE YOU?";
+    private static final String ADD_NODE = "ADD NODE benchmark";
+    private static final String REMOVE_NODE = "REMOVE NODE benchmark";
+    private static final String ADD_EDGE = "ADD EDGE node0 node1 5";
+    private static final String REMOVE_EDGE = "REMOVE EDGE node0 node1";
+    private static final String SHORTEST_PATH = "SHORTEST PATH node0 node1";
+    private static final String CLOSER_THAN = "CLOSER THAN 20 node0";
+
+    @Param({"COMPACT_DIRECTED_WEIGHTED_GRAPH", "DIRECTED_WEIGHTED_GRAPH"})
+    private GraphBackend backend;
+
+    @Param({"1000"})
+    private int nodes;
+
+    private Protocol protocol;
+
+    @Setup
+    public void createProtocol() {
+        protocol = new GraphMessagesProtocol(GraphGenerator.RANDOM.populate(backend.create(), nodes, SEED));
+    }
+
+    @Benchmark
+    public String hiIAm() {
+        return protocol.processMessage(frame(HI_I_AM), SESSION_TIME);
+    }
+
+    @Benchmark
+    public String byeMate() {
+        return protocol.processMessage(frame(BYE_MATE), SESSION_TIME);
+    }
+
+    @Benchmark
+    public String unknown() {
+        return protocol.processMessage(frame(UNKNOWN), SESSION_TIME);
+    }
+
+    @Benchmark
+    public String addAndRemoveNode() {
+        protocol.processMessage(frame(ADD_NODE), SESSION_TIME);
+        return protocol.processMessage(frame(REMOVE_NODE), SESSION_TIME);
+    }
+
+    @Benchmark
+    public String addAndRemoveEdge() {
+        protocol.processMessage(frame(ADD_EDGE), SESSION_TIME);
+        return protocol.processMessage(frame(REMOVE_EDGE), SESSION_TIME);
+    }
+
+    @Benchmark
+    public String shortestPath() {
+        return protocol.processMessage(frame(SHORTEST_PATH), SESSION_TIME);
+    }
+
+    @Benchmark
+    public String closerThan() {
+        return protocol.processMessage(frame(CLOSER_THAN), SESSION_TIME);
+    }
+
+    /**
+     * New message for every call, as server decodes every frame anew, so that each call parses its message.
+     */
+    private static CharSequence frame(String message) {
+        return CharBuffer.wrap(message);
+    }
+}
@@ -0,0 +1,139 @@
+package com.collibra.codechallenge.server;
+
+import com.collibra.codechallenge.ioc.Configuration;
+import com.google.common.collect.Lists;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class LoadTest {
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final int CONNECT_ATTEMPTS = 50;
+
+    private final String host;
+    private final int port;
+    private final int connections;
+    private final int nodesPerConnection;
+
+    private LoadTest(String host, int port, int connections, int nodesPerConnection) {
+        this.host = host;
+        this.port = port;
+        this.connections = connections;
+        this.nodesPerConnection = nodesPerConnection;
+    }
+
+    // usage: LoadTest [connections] [nodesPerConnection] [host]
+    // without host the server is started in this JVM, configured by the same server.* system properties
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int nodesPerConnection = args.length > 1 ? Integer.parseInt(args[1]) : 50000;
+        String host = args.length > 2 ? args[2] : "localhost";
+        int port = Integer.getInteger("server.port", 50000);
+
+        if (args.length <= 2) {
+            Logger.getRootLogger().setLevel(Level.toLevel(System.getProperty("loadTest.logLevel"), Level.WARN));
+            Thread server = new Thread(() -> Configuration.server().start(), "server");
+            server.setDaemon(true);
+            server.start();
+        }
+
+        new LoadTest(host, port, connections, nodesPerConnection).run();
+        System.exit(0);
+    }
+
+    private void run() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(connections);
+        List<Future<Long>> replies = Lists.newArrayList();
+        long start = System.nanoTime();
+        for (int connection = 0; connection < connections; connection++) {
+            int client = connection;
+            replies.add(executor.submit(() -> load(client)));
+        }
+        long commands = 0;
+        for (Future<Long> reply : replies) {
+            commands += reply.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+
+        System.out.printf("transport=%s connections=%d commands=%d time=%dms throughput=%.0f commands/s%n",
+                System.getProperty("server.transport", "default"),
+                connections,
+                commands,
+                TimeUnit.NANOSECONDS.toMillis(elapsed),
+                commands * 1e9 / elapsed);
+    }
+
+    private long load(int client) throws Exception {
+        try (Socket socket = connect()) {
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            readLines(in, 1);
+
+            long commands = 2L * nodesPerConnection - 1;
+            Thread writer = new Thread(() -> writeCommands(socket, client), "load-writer-" + client);
+            writer.start();
+            readLines(in, commands);
+            writer.join();
+            return commands;
+        }
+    }
+
+    private void writeCommands(Socket socket, int client) {
+        try {
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream(), 64 * 1024);
+            for (int node = 0; node < nodesPerConnection; node++) {
+                write(out, "ADD NODE c" + client + "-" + node);
+            }
+            for (int node = 1; node < nodesPerConnection; node++) {
+                write(out, "ADD EDGE c" + client + "-" + (node - 1) + " c" + client + "-" + node + " " + node % 10);
+            }
+            out.flush();
+        } catch (IOException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private Socket connect() throws Exception {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return new Socket(host, port);
+            } catch (ConnectException exception) {
+                if (attempt == CONNECT_ATTEMPTS) {
+                    throw exception;
+                }
+                Thread.sleep(100);
+            }
+        }
+    }
+
+    private static void write(OutputStream out, String command) throws IOException {
+        out.write((command + LINE_SEPARATOR).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static void readLines(InputStream in, long lines) throws IOException {
+        int last = LINE_SEPARATOR.charAt(LINE_SEPARATOR.length() - 1);
+        for (long read = 0; read < lines; ) {
+            int character = in.read();
+            if (character < 0) {
+                throw new IOException("Connection closed after " + read + " of " + lines + " replies");
+            }
+            if (character == last) {
+                read++;
+            }
+        }
+    }
+}
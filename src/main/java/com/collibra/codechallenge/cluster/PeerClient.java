@@ -0,0 +1,134 @@
+package com.collibra.codechallenge.cluster;
+
+import com.google.common.collect.Maps;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.LineBasedFrameDecoder;
+import io.netty.handler.codec.string.StringDecoder;
+import io.netty.handler.codec.string.StringEncoder;
+
+import java.net.InetSocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Sends requests to {@link PeerServer} of another member over single connection shared by all callers, replies are
+ * matched to waiting callers by request id. Connection is opened on first request and reopened by the first request
+ * after it is lost, requests in flight on lost connection fail.
+ */
+public class PeerClient implements Function<String, String> {
+
+    private final InetSocketAddress address;
+    private final long requestTimeout;
+    private final Bootstrap bootstrap;
+    private final AtomicLong ids = new AtomicLong();
+    private final ConcurrentMap<Long, CompletableFuture<String>> pendingReplies = Maps.newConcurrentMap();
+
+    private Channel channel;
+
+    public PeerClient(InetSocketAddress address, EventLoopGroup group, long requestTimeout) {
+        this.address = address;
+        this.requestTimeout = requestTimeout;
+        this.bootstrap = new Bootstrap()
+                .group(group)
+                .channel(NioSocketChannel.class)
+                .option(ChannelOption.TCP_NODELAY, true)
+                .handler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(Channel channel) {
+                        channel.pipeline()
+                                .addLast("framer", new LineBasedFrameDecoder(PeerServer.MAXIMUM_FRAME_LENGTH))
+                                .addLast("decoder", new StringDecoder(StandardCharsets.US_ASCII))
+                                .addLast("encoder", new StringEncoder(StandardCharsets.US_ASCII))
+                                .addLast("handler", new ReplyHandler());
+                    }
+                });
+    }
+
+    /**
+     * Sends request and waits for its reply.
+     *
+     * @throws IllegalStateException when member cannot be reached or does not reply in time
+     */
+    @Override
+    public String apply(String request) {
+        long id = ids.incrementAndGet();
+        CompletableFuture<String> reply = new CompletableFuture<>();
+        pendingReplies.put(id, reply);
+        try {
+            channel().writeAndFlush(id + String.valueOf(PeerServer.ID_SEPARATOR) + request + PeerServer.LINE_SEPARATOR)
+                    .addListener(written -> {
+                        if (!written.isSuccess()) {
+                            reply.completeExceptionally(written.cause());
+                        }
+                    });
+            return reply.get(requestTimeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for " + address, exception);
+        } catch (ExecutionException | TimeoutException exception) {
+            throw new IllegalStateException("Request to " + address + " failed", exception);
+        } finally {
+            pendingReplies.remove(id);
+        }
+    }
+
+    public void close() {
+        Channel current;
+        synchronized (this) {
+            current = channel;
+            channel = null;
+        }
+        if (current != null) {
+            current.close().syncUninterruptibly();
+        }
+    }
+
+    private synchronized Channel channel() {
+        if (channel == null || !channel.isActive()) {
+            ChannelFuture connected = bootstrap.connect(address).awaitUninterruptibly();
+            if (!connected.isSuccess()) {
+                throw new IllegalStateException("Cannot connect to " + address, connected.cause());
+            }
+            channel = connected.channel();
+        }
+        return channel;
+    }
+
+    private class ReplyHandler extends SimpleChannelInboundHandler<String> {
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, String line) {
+            int separator = line.indexOf(PeerServer.ID_SEPARATOR);
+            CompletableFuture<String> reply = pendingReplies.remove(Long.parseLong(line.substring(0, separator)));
+            if (reply != null) {
+                reply.complete(line.substring(separator + 1));
+            }
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            pendingReplies.values().forEach(reply -> reply.completeExceptionally(new ClosedChannelException()));
+            super.channelInactive(ctx);
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            ctx.close();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.collibra.codechallenge.cluster;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.LineBasedFrameDecoder;
+import io.netty.handler.codec.string.StringDecoder;
+import io.netty.handler.codec.string.StringEncoder;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import org.apache.log4j.Logger;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Serves partition requests of other members. Every line is request id followed by request, reply is written with
+ * the same id as soon as it is ready, so replies of one connection may come in any order. Requests are handled on
+ * worker threads rather than event loop, superstep blocks until its messages are delivered to other members, which
+ * may be running superstep as well.
+ */
+public class PeerServer {
+
+    private static final Logger log = Logger.getLogger(PeerServer.class);
+
+    static final String LINE_SEPARATOR = System.lineSeparator();
+
+    static final char ID_SEPARATOR = ' ';
+
+    static final int MAXIMUM_FRAME_LENGTH = Integer.getInteger("cluster.maximumFrameLength", 64 * 1024 * 1024);
+
+    private final InetSocketAddress address;
+    private final Function<String, String> requests;
+    private final EventLoopGroup group = new NioEventLoopGroup(1, new DefaultThreadFactory("peer-server", true));
+    private final ExecutorService workers = Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("peer-request-%d").setDaemon(true).build());
+
+    private Channel channel;
+
+    public PeerServer(InetSocketAddress address, Function<String, String> requests) {
+        this.address = address;
+        this.requests = requests;
+    }
+
+    public void start() {
+        ServerBootstrap bootstrap = new ServerBootstrap()
+                .group(group)
+                .channel(NioServerSocketChannel.class)
+                .childOption(ChannelOption.TCP_NODELAY, true)
+                .childHandler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(Channel channel) {
+                        channel.pipeline()
+                                .addLast("framer", new LineBasedFrameDecoder(MAXIMUM_FRAME_LENGTH))
+                                .addLast("decoder", new StringDecoder(StandardCharsets.US_ASCII))
+                                .addLast("encoder", new StringEncoder(StandardCharsets.US_ASCII))
+                                .addLast("handler", new RequestHandler());
+                    }
+                });
+        channel = bootstrap.bind(address).syncUninterruptibly().channel();
+        log.info("Peer server started on " + channel.localAddress());
+    }
+
+    public void stop() {
+        if (channel != null && channel.isOpen()) {
+            channel.close().syncUninterruptibly();
+        }
+        group.shutdownGracefully();
+        workers.shutdown();
+    }
+
+    public int port() {
+        return ((InetSocketAddress) channel.localAddress()).getPort();
+    }
+
+    @ChannelHandler.Sharable
+    private class RequestHandler extends SimpleChannelInboundHandler<String> {
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, String line) {
+            int separator = line.indexOf(ID_SEPARATOR);
+            String id = line.substring(0, separator);
+            String request = line.substring(separator + 1);
+            workers.execute(() -> ctx.writeAndFlush(id + ID_SEPARATOR + requests.apply(request) + LINE_SEPARATOR));
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            log.error("Closing peer connection " + ctx.channel().remoteAddress(), cause);
+            ctx.close();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.collibra.codechallenge.graph;
+
+/**
+ * Point-to-point search growing one Dijkstra tree forward from initial node over outgoing edges and one backward from
+ * terminal node over incoming edges, always expanding the smaller frontier, until sum of both frontiers reaches the
+ * best path found. With landmarks both searches are A* with average of forward and backward landmark lower bounds
+ * as potential, which keeps the same stopping rule valid, and nodes not lying on any path are pruned. Keys are doubled
+ * distances to keep averaged potentials integral. Labels are kept in hash maps, so cost of the query depends only on
+ * explored part of the graph.
+ */
+class BidirectionalDijkstraAlgorithm {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private static final int UNREACHABLE = Landmarks.UNREACHABLE;
+
+    private static final int PRUNED = Integer.MIN_VALUE;
+
+    private final GraphSnapshot snapshot;
+    private final Landmarks landmarks;
+    private long best = UNREACHABLE;
+    private long nodesSettled;
+    private long edgesRelaxed;
+
+    BidirectionalDijkstraAlgorithm(GraphSnapshot snapshot, Landmarks landmarks) {
+        this.snapshot = snapshot;
+        this.landmarks = landmarks;
+    }
+
+    int shortestPath(int initial, int terminal) {
+        if (initial == terminal) {
+            return 0;
+        }
+        Landmarks active = landmarks == null ? null : landmarks.activeFor(initial, terminal);
+        Search forward = new Search(snapshot.outgoing(), active, initial, terminal, 1);
+        Search backward = new Search(snapshot.incoming(), active, initial, terminal, -1);
+        forward.start(initial);
+        backward.start(terminal);
+        while (!forward.isExhausted() && !backward.isExhausted() && forward.minKey() + backward.minKey() < 2 * best) {
+            if (forward.frontierSize() <= backward.frontierSize()) {
+                forward.settleNext(backward);
+            } else {
+                backward.settleNext(forward);
+            }
+        }
+        SearchStatistics.record(nodesSettled, edgesRelaxed);
+        return (int) best;
+    }
+
+    private final class Search {
+
+        private final GraphSnapshot.EdgeCursor adjacents;
+        private final Landmarks landmarks;
+        private final int initial;
+        private final int terminal;
+        private final int direction;
+        private final IntIntHashMap labels = new IntIntHashMap(INITIAL_CAPACITY);
+        private final IntIntHashMap potentials;
+        private final LongMinHeap unsettled = new LongMinHeap(INITIAL_CAPACITY);
+
+        private Search(GraphSnapshot.EdgeCursor adjacents, Landmarks landmarks, int initial, int terminal, int direction) {
+            this.adjacents = adjacents;
+            this.landmarks = landmarks;
+            this.initial = initial;
+            this.terminal = terminal;
+            this.direction = direction;
+            this.potentials = landmarks == null ? null : new IntIntHashMap(INITIAL_CAPACITY);
+        }
+
+        private void start(int node) {
+            label(node, 0);
+        }
+
+        private boolean isExhausted() {
+            skipStale();
+            return unsettled.isEmpty();
+        }
+
+        private int frontierSize() {
+            return unsettled.size();
+        }
+
+        private long minKey() {
+            return unsettled.peek() >>> 32;
+        }
+
+        private void settleNext(Search opposite) {
+            int current = (int) unsettled.poll();
+            int distance = labels.get(current, UNREACHABLE);
+            labels.put(current, ~distance);
+            nodesSettled++;
+            adjacents.reset(current);
+            while (adjacents.next()) {
+                edgesRelaxed++;
+                int adjacent = adjacents.adjacent();
+                long candidate = (long) distance + adjacents.weight();
+                int label = labels.get(adjacent, UNREACHABLE);
+                if (candidate < label && label(adjacent, (int) candidate)) {
+                    int oppositeDistance = opposite.distance(adjacent);
+                    if (oppositeDistance != UNREACHABLE) {
+                        best = Math.min(best, candidate + oppositeDistance);
+                    }
+                }
+            }
+        }
+
+        private int distance(int node) {
+            int label = labels.get(node, UNREACHABLE);
+            return label < 0 ? ~label : label;
+        }
+
+        private boolean label(int node, int distance) {
+            int potential = potential(node);
+            if (potential == PRUNED) {
+                return false;
+            }
+            labels.put(node, distance);
+            unsettled.add(key(distance, potential) << 32 | node);
+            return true;
+        }
+
+        private long key(int distance, int potential) {
+            return Math.min(2L * distance + potential, UNREACHABLE);
+        }
+
+        private int potential(int node) {
+            if (landmarks == null) {
+                return 0;
+            }
+            int potential = potentials.get(node, PRUNED + 1);
+            if (potential == PRUNED + 1) {
+                int toTerminal = landmarks.lowerBoundTo(node, terminal);
+                int fromInitial = landmarks.lowerBoundFrom(initial, node);
+                potential = toTerminal == UNREACHABLE || fromInitial == UNREACHABLE
+                        ? PRUNED
+                        : direction * (toTerminal - fromInitial);
+                potentials.put(node, potential);
+            }
+            return potential;
+        }
+
+        private void skipStale() {
+            while (!unsettled.isEmpty()) {
+                long next = unsettled.peek();
+                int label = labels.get((int) next, UNREACHABLE);
+                if (label >= 0 && next >>> 32 == key(label, potential((int) next))) {
+                    return;
+                }
+                unsettled.poll();
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.collibra.codechallenge.graph;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.log4j.Logger;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Resolves shortest paths with bidirectional search. When graph.alt.landmarks is positive, landmarks are selected in
+ * background for current graph version and queries use them as A* lower bounds. Landmarks selected for older version
+ * are not used, so queries fall back to plain bidirectional search until refresh scheduled after mutation completes.
+ */
+class BidirectionalDijkstraShortestPathResolver implements ShortestPathResolver<String> {
+
+    private static final Logger log = Logger.getLogger(BidirectionalDijkstraShortestPathResolver.class);
+
+    private static final int LANDMARKS = Integer.getInteger("graph.alt.landmarks", 0);
+
+    private static final long REFRESH_DELAY = Long.getLong("graph.alt.refreshDelay", 1000L);
+
+    private final CompactGraphStore store;
+    private final int landmarkCount;
+    private final AtomicReference<Landmarks> landmarks = new AtomicReference<>();
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService refresher;
+
+    public BidirectionalDijkstraShortestPathResolver(CompactGraphStore store) {
+        this(store, LANDMARKS);
+    }
+
+    BidirectionalDijkstraShortestPathResolver(CompactGraphStore store, int landmarkCount) {
+        this.store = store;
+        this.landmarkCount = landmarkCount;
+        this.refresher = landmarkCount <= 0 ? null : Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("landmarks").setDaemon(true).build());
+    }
+
+    @Override
+    public Integer shortestPath(String initial, String terminal) {
+        GraphSnapshot snapshot = store.snapshot();
+        return new BidirectionalDijkstraAlgorithm(snapshot, currentLandmarks(snapshot))
+                .shortestPath(snapshot.existingId(initial), snapshot.existingId(terminal));
+    }
+
+    @Override
+    public List<String> closerThan(Integer weight, String initial) {
+        GraphSnapshot snapshot = store.snapshot();
+        return new BoundedRadiusDijkstraAlgorithm(snapshot).closerThan(weight, snapshot.existingId(initial));
+    }
+
+    void refreshLandmarks() {
+        refreshScheduled.set(false);
+        GraphSnapshot snapshot = store.snapshot();
+        Landmarks current = landmarks.get();
+        if (current == null || !current.isCurrent(snapshot)) {
+            long started = System.currentTimeMillis();
+            landmarks.set(Landmarks.select(snapshot, landmarkCount));
+            log.debug("Selected landmarks for graph version " + snapshot.version()
+                    + " in " + (System.currentTimeMillis() - started) + " ms");
+        }
+    }
+
+    private Landmarks currentLandmarks(GraphSnapshot snapshot) {
+        if (landmarkCount <= 0) {
+            return null;
+        }
+        Landmarks current = landmarks.get();
+        if (current != null && current.isCurrent(snapshot)) {
+            return current;
+        }
+        if (refreshScheduled.compareAndSet(false, true)) {
+            refresher.schedule(this::refreshLandmarks, REFRESH_DELAY, TimeUnit.MILLISECONDS);
+        }
+        return null;
+    }
+}
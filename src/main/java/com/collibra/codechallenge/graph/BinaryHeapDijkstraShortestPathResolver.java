@@ -0,0 +1,134 @@
+package com.collibra.codechallenge.graph;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+class BinaryHeapDijkstraShortestPathResolver implements ShortestPathResolver<String> {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Map<String, Map<String, List<Integer>>> nodes;
+
+    @Override
+    public Integer shortestPath(String initial, String terminal) {
+        return new BinaryHeapDijkstraAlgorithm(nodes).shortestPath(initial, terminal);
+    }
+
+    @Override
+    public List<String> closerThan(Integer weight, String initial) {
+        return new BinaryHeapDijkstraAlgorithm(nodes).closerThan(weight, initial);
+    }
+
+    private static class BinaryHeapDijkstraAlgorithm {
+
+        private final Map<String, Map<String, List<Integer>>> nodes;
+
+        private final Map<String, Integer> ids = Maps.newHashMap();
+        private final List<String> names = Lists.newArrayList();
+        private final IndexedMinHeap unsettled = new IndexedMinHeap(INITIAL_CAPACITY);
+        private final BitSet settled = new BitSet();
+
+        private int[] distances = newDistances(INITIAL_CAPACITY);
+        private int radius = Integer.MAX_VALUE;
+        private long nodesSettled;
+        private long edgesRelaxed;
+
+        BinaryHeapDijkstraAlgorithm(Map<String, Map<String, List<Integer>>> nodes) {
+            this.nodes = nodes;
+        }
+
+        Integer shortestPath(String initial, String terminal) {
+            int terminalId = intern(terminal);
+            addInitialNodeToUnsettled(initial);
+            while (!unsettled.isEmpty()) {
+                int current = settleNodeWithLowestDistanceFromSource();
+                if (current == terminalId) {
+                    break;
+                }
+                relaxAdjacents(current);
+            }
+            SearchStatistics.record(nodesSettled, edgesRelaxed);
+            return distances[terminalId];
+        }
+
+        List<String> closerThan(Integer weight, String initial) {
+            List<String> closerThan = Lists.newArrayList();
+            if (weight <= 0) {
+                return closerThan;
+            }
+            radius = weight;
+            int initialId = addInitialNodeToUnsettled(initial);
+            while (!unsettled.isEmpty()) {
+                int current = settleNodeWithLowestDistanceFromSource();
+                if (current != initialId) {
+                    closerThan.add(names.get(current));
+                }
+                relaxAdjacents(current);
+            }
+            SearchStatistics.record(nodesSettled, edgesRelaxed);
+            return closerThan;
+        }
+
+        private int addInitialNodeToUnsettled(String initial) {
+            int initialId = intern(initial);
+            distances[initialId] = 0;
+            unsettled.insertOrDecrease(initialId, 0);
+            return initialId;
+        }
+
+        private int settleNodeWithLowestDistanceFromSource() {
+            int current = unsettled.poll();
+            settled.set(current);
+            nodesSettled++;
+            return current;
+        }
+
+        private void relaxAdjacents(int current) {
+            Map<String, List<Integer>> adjacents = nodes.getOrDefault(names.get(current), Collections.emptyMap());
+            for (Map.Entry<String, List<Integer>> adjacent : adjacents.entrySet()) {
+                int adjacentId = intern(adjacent.getKey());
+                if (settled.get(adjacentId)) {
+                    continue;
+                }
+                for (Integer weight : adjacent.getValue()) {
+                    edgesRelaxed++;
+                    int distance = distances[current] + weight;
+                    if (distance < distances[adjacentId] && distance < radius) {
+                        distances[adjacentId] = distance;
+                        unsettled.insertOrDecrease(adjacentId, distance);
+                    }
+                }
+            }
+        }
+
+        private int intern(String node) {
+            Integer id = ids.get(node);
+            if (id != null) {
+                return id;
+            }
+            int newId = names.size();
+            ids.put(node, newId);
+            names.add(node);
+            if (newId == distances.length) {
+                int oldLength = distances.length;
+                distances = Arrays.copyOf(distances, oldLength * 2);
+                Arrays.fill(distances, oldLength, distances.length, Integer.MAX_VALUE);
+            }
+            return newId;
+        }
+
+        private static int[] newDistances(int capacity) {
+            int[] distances = new int[capacity];
+            Arrays.fill(distances, Integer.MAX_VALUE);
+            return distances;
+        }
+    }
+}
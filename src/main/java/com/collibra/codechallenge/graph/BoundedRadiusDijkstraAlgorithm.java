@@ -0,0 +1,59 @@
+package com.collibra.codechallenge.graph;
+
+import com.google.common.collect.Lists;
+
+import java.util.List;
+
+class BoundedRadiusDijkstraAlgorithm {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final GraphSnapshot snapshot;
+    private final GraphSnapshot.EdgeCursor adjacents;
+    private final IntIntHashMap distances = new IntIntHashMap(INITIAL_CAPACITY);
+    private final LongMinHeap unsettled = new LongMinHeap(INITIAL_CAPACITY);
+    private long nodesSettled;
+    private long edgesRelaxed;
+
+    BoundedRadiusDijkstraAlgorithm(GraphSnapshot snapshot) {
+        this.snapshot = snapshot;
+        this.adjacents = snapshot.outgoing();
+    }
+
+    List<String> closerThan(int radius, int initial) {
+        List<String> closerThan = Lists.newArrayList();
+        if (radius <= 0) {
+            return closerThan;
+        }
+        distances.put(initial, 0);
+        unsettled.add(initial);
+        while (!unsettled.isEmpty()) {
+            long next = unsettled.poll();
+            int distance = (int) (next >>> 32);
+            int current = (int) next;
+            if (distance > distances.get(current, Integer.MAX_VALUE)) {
+                continue;
+            }
+            nodesSettled++;
+            if (current != initial) {
+                closerThan.add(snapshot.name(current));
+            }
+            relaxAdjacentsWithinRadius(current, distance, radius);
+        }
+        SearchStatistics.record(nodesSettled, edgesRelaxed);
+        return closerThan;
+    }
+
+    private void relaxAdjacentsWithinRadius(int current, int distance, int radius) {
+        adjacents.reset(current);
+        while (adjacents.next()) {
+            edgesRelaxed++;
+            int adjacent = adjacents.adjacent();
+            long candidate = (long) distance + adjacents.weight();
+            if (candidate < radius && candidate < distances.get(adjacent, Integer.MAX_VALUE)) {
+                distances.put(adjacent, (int) candidate);
+                unsettled.add(candidate << 32 | adjacent);
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.collibra.codechallenge.graph;
+
+import java.util.List;
+
+class CachedShortestPathTreeResolver implements ShortestPathResolver<String>, ShortestPathCacheMXBean {
+
+    private static final long CACHE_MAXIMUM_BYTES = Long.getLong("graph.cache.maximumBytes", 64L * 1024 * 1024);
+
+    private static final int TREE_AFTER_QUERIES = Integer.getInteger("graph.cache.treeAfterQueries", 2);
+
+    private final CompactGraphStore store;
+    private final ShortestPathTreeCache cache;
+
+    public CachedShortestPathTreeResolver(CompactGraphStore store) {
+        this(store, CACHE_MAXIMUM_BYTES, TREE_AFTER_QUERIES);
+    }
+
+    CachedShortestPathTreeResolver(CompactGraphStore store, long maximumBytes, int treeAfterQueries) {
+        this.store = store;
+        this.cache = new ShortestPathTreeCache(maximumBytes, treeAfterQueries);
+    }
+
+    @Override
+    public Integer shortestPath(String initial, String terminal) {
+        GraphSnapshot snapshot = store.snapshot();
+        int terminalId = snapshot.existingId(terminal);
+        return cache.query(snapshot, initial, tree -> tree.distance(terminalId),
+                () -> new CompressedSparseRowDijkstraAlgorithm(snapshot).shortestPath(snapshot.existingId(initial), terminalId));
+    }
+
+    @Override
+    public List<String> closerThan(Integer weight, String initial) {
+        GraphSnapshot snapshot = store.snapshot();
+        return cache.query(snapshot, initial, tree -> tree.closerThan(weight),
+                () -> new BoundedRadiusDijkstraAlgorithm(snapshot).closerThan(weight, snapshot.existingId(initial)));
+    }
+
+    @Override
+    public long getHitCount() {
+        return cache.hitCount();
+    }
+
+    @Override
+    public long getMissCount() {
+        return cache.missCount();
+    }
+
+    @Override
+    public long getSize() {
+        return cache.size();
+    }
+}
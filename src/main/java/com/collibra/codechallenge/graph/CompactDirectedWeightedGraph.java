@@ -0,0 +1,135 @@
+package com.collibra.codechallenge.graph;
+
+import lombok.RequiredArgsConstructor;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+@RequiredArgsConstructor
+class CompactDirectedWeightedGraph implements SnapshotableGraph {
+
+    private final CompactGraphStore store;
+    private final ShortestPathResolver<String> shortestPathResolver;
+
+    @Override
+    public Map<String, Map<String, List<Integer>>> nodes() {
+        return store.snapshot().toNodes();
+    }
+
+    @Override
+    public List<String> nodeNames() {
+        GraphSnapshot snapshot = store.snapshot();
+        return IntStream.range(0, snapshot.idBound())
+                .filter(snapshot::contains)
+                .mapToObj(snapshot::name)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void addNode(String name) throws NodeAlreadyExistsException {
+        store.update(GraphMutation.addNode(name));
+    }
+
+    @Override
+    public void removeNode(String name) throws NodeNotFoundException {
+        store.update(GraphMutation.removeNode(name));
+    }
+
+    @Override
+    public void addEdge(String initial, String terminal, Integer weight) throws NodeNotFoundException {
+        store.update(GraphMutation.addEdge(initial, terminal, weight));
+    }
+
+    @Override
+    public void removeEdges(String initial, String terminal) throws NodeNotFoundException {
+        store.update(GraphMutation.removeEdges(initial, terminal));
+    }
+
+    @Override
+    public Integer shortestPath(String initial, String terminal) throws NodeNotFoundException {
+        validateNodeExists(initial);
+        validateNodeExists(terminal);
+
+        return shortestPathResolver.shortestPath(initial, terminal);
+    }
+
+    @Override
+    public String closerThan(String initial, Integer distance) throws NodeNotFoundException {
+        validateNodeExists(initial);
+
+        return shortestPathResolver.closerThan(distance, initial).stream()
+                .sorted()
+                .collect(Collectors.joining(","));
+    }
+
+    @Override
+    public void closerThan(Collection<String> initials, Integer distance, BiConsumer<String, String> results)
+            throws NodeNotFoundException {
+        GraphSnapshot snapshot = store.snapshot();
+        closerThan(snapshot, initials.stream().mapToInt(snapshot::existingId).toArray(), distance, results);
+    }
+
+    @Override
+    public void closerThanFromAll(Integer distance, BiConsumer<String, String> results) {
+        GraphSnapshot snapshot = store.snapshot();
+        closerThan(snapshot, IntStream.range(0, snapshot.idBound()).filter(snapshot::contains).toArray(),
+                distance, results);
+    }
+
+    private void closerThan(GraphSnapshot snapshot, int[] initials, Integer distance,
+                            BiConsumer<String, String> results) {
+        new ParallelCloserThanAlgorithm(snapshot).closerThan(distance, initials, (initial, closerThan) ->
+                results.accept(initial, closerThan.stream().sorted().collect(Collectors.joining(","))));
+    }
+
+    @Override
+    public long nodeCount() {
+        return store.snapshot().nodeCount();
+    }
+
+    @Override
+    public long edgeCount() {
+        return store.snapshot().edgeCount();
+    }
+
+    @Override
+    public void validateNodeExists(String node) {
+        if (store.snapshot().id(node) < 0) {
+            throw new NodeNotFoundException();
+        }
+    }
+
+    @Override
+    public void validateNodeNotExists(String node) {
+        if (store.snapshot().id(node) >= 0) {
+            throw new NodeAlreadyExistsException();
+        }
+    }
+
+    @Override
+    public boolean containsEdge(String initial, String terminal) {
+        GraphSnapshot snapshot = store.snapshot();
+        return snapshot.containsEdge(snapshot.id(initial), snapshot.id(terminal));
+    }
+
+    @Override
+    public Supplier<GraphImage> pinImage() {
+        GraphSnapshot snapshot = store.snapshot();
+        return () -> GraphImage.of(snapshot);
+    }
+
+    @Override
+    public void restore(GraphImage image) {
+        store.restore(image);
+    }
+
+    @Override
+    public void merge(GraphImage image) {
+        store.merge(image);
+    }
+}
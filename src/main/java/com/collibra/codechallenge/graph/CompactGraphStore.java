@@ -0,0 +1,96 @@
+package com.collibra.codechallenge.graph;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class CompactGraphStore {
+
+    private static final int MINIMUM_COMPACTION_THRESHOLD =
+            Integer.getInteger("graph.compaction.minimumThreshold", 4096);
+
+    private static final int COMPACTION_EDGES_RATIO = 16;
+
+    /**
+     * Single thread compacting deltas of all stores, so that mutating threads never compact inline.
+     */
+    private static final ExecutorService COMPACTION = Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder().setNameFormat("graph-compaction").setDaemon(true).build());
+
+    private final AtomicReference<GraphSnapshot> snapshot = new AtomicReference<>(GraphSnapshot.EMPTY);
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+
+    GraphSnapshot snapshot() {
+        return snapshot.get();
+    }
+
+    GraphSnapshot update(GraphMutation mutation) {
+        GraphSnapshot current;
+        GraphSnapshot updated;
+        do {
+            current = snapshot.get();
+            updated = current.apply(mutation);
+        } while (!snapshot.compareAndSet(current, updated));
+
+        scheduleCompaction(updated);
+        return updated;
+    }
+
+    void restore(GraphImage image) {
+        snapshot.updateAndGet(current -> current.restore(image));
+    }
+
+    void merge(GraphImage image) {
+        GraphSnapshot current;
+        GraphSnapshot merged;
+        do {
+            current = snapshot.get();
+            merged = current.restore(GraphImage.merge(GraphImage.of(current), image));
+        } while (!snapshot.compareAndSet(current, merged));
+    }
+
+    void compact() {
+        compact(snapshot.get());
+    }
+
+    /**
+     * Hands compaction over to the background thread, at most once per store until it is done. Delta grown over the
+     * threshold again meanwhile is compacted right after.
+     */
+    private void scheduleCompaction(GraphSnapshot updated) {
+        if (shouldBeCompacted(updated) && compactionScheduled.compareAndSet(false, true)) {
+            COMPACTION.execute(() -> {
+                try {
+                    compact();
+                } finally {
+                    compactionScheduled.set(false);
+                }
+                scheduleCompaction(snapshot.get());
+            });
+        }
+    }
+
+    private void compact(GraphSnapshot source) {
+        GraphSnapshot compacted = source.compact();
+        GraphSnapshot current;
+        GraphSnapshot rebased;
+        do {
+            current = snapshot.get();
+            if (!current.hasSameBaseAs(source)) {
+                return;
+            }
+            rebased = compacted;
+            for (GraphMutation mutation : current.mutationsSince(source)) {
+                rebased = rebased.apply(mutation);
+            }
+            rebased = rebased.withVersion(current.version() + 1);
+        } while (!snapshot.compareAndSet(current, rebased));
+    }
+
+    private boolean shouldBeCompacted(GraphSnapshot snapshot) {
+        return snapshot.deltaSize() > Math.max(MINIMUM_COMPACTION_THRESHOLD, snapshot.baseEdgeCount() / COMPACTION_EDGES_RATIO);
+    }
+}
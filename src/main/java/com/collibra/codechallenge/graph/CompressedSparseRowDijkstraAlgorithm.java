@@ -0,0 +1,83 @@
+package com.collibra.codechallenge.graph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+class CompressedSparseRowDijkstraAlgorithm {
+
+    private final GraphSnapshot snapshot;
+    private final GraphSnapshot.EdgeCursor adjacents;
+    private final IndexedMinHeap unsettled;
+    private final BitSet settled;
+    private final int[] distances;
+    private final int[] parents;
+    private long nodesSettled;
+    private long edgesRelaxed;
+
+    CompressedSparseRowDijkstraAlgorithm(GraphSnapshot snapshot) {
+        this(snapshot, snapshot.outgoing());
+    }
+
+    CompressedSparseRowDijkstraAlgorithm(GraphSnapshot snapshot, GraphSnapshot.EdgeCursor adjacents) {
+        this.snapshot = snapshot;
+        this.adjacents = adjacents;
+        this.unsettled = new IndexedMinHeap(snapshot.idBound());
+        this.settled = new BitSet(snapshot.idBound());
+        this.distances = new int[snapshot.idBound()];
+        Arrays.fill(distances, Integer.MAX_VALUE);
+        this.parents = new int[snapshot.idBound()];
+        Arrays.fill(parents, -1);
+    }
+
+    int shortestPath(int initial, int terminal) {
+        addInitialNodeToUnsettled(initial);
+        while (!unsettled.isEmpty()) {
+            int current = settleNodeWithLowestDistanceFromSource();
+            if (current == terminal) {
+                break;
+            }
+            relaxAdjacents(current);
+        }
+        SearchStatistics.record(nodesSettled, edgesRelaxed);
+        return distances[terminal];
+    }
+
+    int[] distances(int initial) {
+        addInitialNodeToUnsettled(initial);
+        while (!unsettled.isEmpty()) {
+            relaxAdjacents(settleNodeWithLowestDistanceFromSource());
+        }
+        SearchStatistics.record(nodesSettled, edgesRelaxed);
+        return distances;
+    }
+
+    int[] parents() {
+        return parents;
+    }
+
+    private void addInitialNodeToUnsettled(int initial) {
+        distances[initial] = 0;
+        unsettled.insertOrDecrease(initial, 0);
+    }
+
+    private int settleNodeWithLowestDistanceFromSource() {
+        int current = unsettled.poll();
+        settled.set(current);
+        nodesSettled++;
+        return current;
+    }
+
+    private void relaxAdjacents(int current) {
+        adjacents.reset(current);
+        while (adjacents.next()) {
+            edgesRelaxed++;
+            int adjacent = adjacents.adjacent();
+            int distance = distances[current] + adjacents.weight();
+            if (!settled.get(adjacent) && distance < distances[adjacent]) {
+                distances[adjacent] = distance;
+                parents[adjacent] = current;
+                unsettled.insertOrDecrease(adjacent, distance);
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.collibra.codechallenge.graph;
+
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+@RequiredArgsConstructor
+class CompressedSparseRowDijkstraShortestPathResolver implements ShortestPathResolver<String> {
+
+    private final CompactGraphStore store;
+
+    @Override
+    public Integer shortestPath(String initial, String terminal) {
+        GraphSnapshot snapshot = store.snapshot();
+        return new CompressedSparseRowDijkstraAlgorithm(snapshot)
+                .shortestPath(snapshot.existingId(initial), snapshot.existingId(terminal));
+    }
+
+    @Override
+    public List<String> closerThan(Integer weight, String initial) {
+        GraphSnapshot snapshot = store.snapshot();
+        return new BoundedRadiusDijkstraAlgorithm(snapshot).closerThan(weight, snapshot.existingId(initial));
+    }
+}
@@ -0,0 +1,101 @@
+package com.collibra.codechallenge.graph;
+
+import com.google.common.collect.Maps;
+
+import java.util.Arrays;
+import java.util.Map;
+
+final class CompressedSparseRowGraph {
+
+    static final CompressedSparseRowGraph EMPTY = new CompressedSparseRowGraph(new String[0], new int[1], new int[0], new int[0]);
+
+    private final String[] names;
+    private final Map<String, Integer> ids;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+    private final int[] incomingOffsets;
+    private final int[] sources;
+    private final int[] incomingWeights;
+
+    CompressedSparseRowGraph(String[] names, int[] offsets, int[] targets, int[] weights) {
+        this.names = names;
+        this.ids = Maps.newHashMapWithExpectedSize(names.length);
+        for (int id = 0; id < names.length; id++) {
+            ids.put(names[id], id);
+        }
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.incomingOffsets = new int[names.length + 1];
+        this.sources = new int[targets.length];
+        this.incomingWeights = new int[targets.length];
+        reverse();
+    }
+
+    int nodeCount() {
+        return names.length;
+    }
+
+    int edgeCount() {
+        return targets.length;
+    }
+
+    int id(String name) {
+        Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    String name(int id) {
+        return names[id];
+    }
+
+    int firstEdge(int id) {
+        return offsets[id];
+    }
+
+    int lastEdge(int id) {
+        return offsets[id + 1];
+    }
+
+    int target(int edge) {
+        return targets[edge];
+    }
+
+    int weight(int edge) {
+        return weights[edge];
+    }
+
+    int firstIncomingEdge(int id) {
+        return incomingOffsets[id];
+    }
+
+    int lastIncomingEdge(int id) {
+        return incomingOffsets[id + 1];
+    }
+
+    int source(int incomingEdge) {
+        return sources[incomingEdge];
+    }
+
+    int incomingWeight(int incomingEdge) {
+        return incomingWeights[incomingEdge];
+    }
+
+    private void reverse() {
+        for (int target : targets) {
+            incomingOffsets[target + 1]++;
+        }
+        for (int id = 0; id < names.length; id++) {
+            incomingOffsets[id + 1] += incomingOffsets[id];
+        }
+        int[] positions = Arrays.copyOf(incomingOffsets, names.length);
+        for (int source = 0; source < names.length; source++) {
+            for (int edge = offsets[source]; edge < offsets[source + 1]; edge++) {
+                int position = positions[targets[edge]]++;
+                sources[position] = source;
+                incomingWeights[position] = weights[edge];
+            }
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.collibra.codechallenge.graph;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Delta-stepping single source shortest path. Tentative distances are kept in buckets of width delta, lowest bucket
+ * is settled in phases relaxing light edges (weight up to delta) of its nodes until it stays empty, heavy edges of
+ * all nodes settled in the bucket are relaxed once after that. Nodes of one phase are split over
+ * {@link GraphWorkers} when there are at least parallelFrontier of them, relaxing edges with atomic minimum on
+ * distances. Search stops as soon as the bucket of terminal node is settled.
+ */
+class DeltaSteppingAlgorithm {
+
+    private static final int NOT_QUEUED = -1;
+
+    private static final int TASKS_PER_WORKER = 4;
+
+    private static final int SAMPLED_NODES = 1024;
+
+    private final GraphSnapshot snapshot;
+    private final int delta;
+    private final int parallelFrontier;
+    private final AtomicIntegerArray distances;
+    private final AtomicIntegerArray queuedBuckets;
+    private final TreeMap<Integer, NodeList> buckets = Maps.newTreeMap();
+    private long nodesSettled;
+    private long edgesRelaxed;
+
+    DeltaSteppingAlgorithm(GraphSnapshot snapshot, int delta, int parallelFrontier) {
+        this.snapshot = snapshot;
+        this.delta = delta;
+        this.parallelFrontier = parallelFrontier;
+        int[] unreachable = new int[snapshot.idBound()];
+        Arrays.fill(unreachable, Integer.MAX_VALUE);
+        this.distances = new AtomicIntegerArray(unreachable);
+        Arrays.fill(unreachable, NOT_QUEUED);
+        this.queuedBuckets = new AtomicIntegerArray(unreachable);
+    }
+
+    /**
+     * Bucket width of maximum weight divided by average degree of sampled nodes, which keeps number of light edge
+     * relaxations of a node close to one while still settling many nodes per phase.
+     */
+    static int delta(GraphSnapshot snapshot) {
+        GraphSnapshot.EdgeCursor adjacents = snapshot.outgoing();
+        int stride = Math.max(1, snapshot.idBound() / SAMPLED_NODES);
+        long nodes = 0;
+        long edges = 0;
+        int maximumWeight = 1;
+        for (int node = 0; node < snapshot.idBound(); node += stride) {
+            if (snapshot.contains(node)) {
+                nodes++;
+                adjacents.reset(node);
+                while (adjacents.next()) {
+                    edges++;
+                    maximumWeight = Math.max(maximumWeight, adjacents.weight());
+                }
+            }
+        }
+        return (int) Math.max(1, edges == 0 ? maximumWeight : maximumWeight * nodes / edges);
+    }
+
+    int shortestPath(int initial, int terminal) {
+        distances.set(initial, 0);
+        queue(initial, 0, null);
+        while (!buckets.isEmpty()) {
+            int bucket = buckets.firstKey();
+            if (distances.get(terminal) < (long) bucket * delta) {
+                break;
+            }
+            settle(bucket);
+        }
+        SearchStatistics.record(nodesSettled, edgesRelaxed);
+        return distances.get(terminal);
+    }
+
+    private void settle(int bucket) {
+        NodeList settled = new NodeList();
+        NodeList queued;
+        while ((queued = buckets.remove(bucket)) != null) {
+            NodeList frontier = new NodeList();
+            for (int index = 0; index < queued.size; index++) {
+                int node = queued.nodes[index];
+                if (queuedBuckets.compareAndSet(node, bucket, NOT_QUEUED)) {
+                    frontier.add(node);
+                }
+            }
+            relax(frontier, true);
+            settled.addAll(frontier);
+            nodesSettled += frontier.size;
+        }
+        relax(settled, false);
+    }
+
+    private void relax(NodeList frontier, boolean light) {
+        if (frontier.size < parallelFrontier) {
+            Relaxation relaxation = new Relaxation(frontier, 0, frontier.size, light, false);
+            relaxation.compute();
+            edgesRelaxed += relaxation.edgesRelaxed;
+            return;
+        }
+        int tasks = Math.max(1, Math.min(frontier.size / Math.max(1, parallelFrontier / 2),
+                GraphWorkers.PARALLELISM * TASKS_PER_WORKER));
+        List<Relaxation> relaxations = Lists.newArrayListWithCapacity(tasks);
+        for (int task = 0; task < tasks; task++) {
+            relaxations.add(new Relaxation(frontier, (int) ((long) frontier.size * task / tasks),
+                    (int) ((long) frontier.size * (task + 1) / tasks), light, true));
+        }
+        GraphWorkers.POOL.invoke(new RecursiveAction() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected void compute() {
+                invokeAll(relaxations);
+            }
+        });
+        for (Relaxation relaxation : relaxations) {
+            relaxation.queueImproved();
+            edgesRelaxed += relaxation.edgesRelaxed;
+        }
+    }
+
+    /**
+     * Queues node to bucket unless it is already queued to the same or lower one, directly or through list of nodes
+     * improved by a worker.
+     */
+    private void queue(int node, int distance, NodeList improved) {
+        int bucket = distance / delta;
+        int queuedBucket;
+        do {
+            queuedBucket = queuedBuckets.get(node);
+            if (queuedBucket != NOT_QUEUED && queuedBucket <= bucket) {
+                return;
+            }
+        } while (!queuedBuckets.compareAndSet(node, queuedBucket, bucket));
+        if (improved == null) {
+            buckets.computeIfAbsent(bucket, key -> new NodeList()).add(node);
+        } else {
+            improved.add(node);
+        }
+    }
+
+    private final class Relaxation extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final NodeList frontier;
+        private final int from;
+        private final int to;
+        private final boolean light;
+        private final NodeList improved;
+        private long edgesRelaxed;
+
+        private Relaxation(NodeList frontier, int from, int to, boolean light, boolean parallel) {
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+            this.light = light;
+            this.improved = parallel ? new NodeList() : null;
+        }
+
+        @Override
+        protected void compute() {
+            GraphSnapshot.EdgeCursor adjacents = snapshot.outgoing();
+            for (int index = from; index < to; index++) {
+                int current = frontier.nodes[index];
+                int distance = distances.get(current);
+                adjacents.reset(current);
+                while (adjacents.next()) {
+                    if (adjacents.weight() <= delta == light) {
+                        edgesRelaxed++;
+                        relax(adjacents.adjacent(), (long) distance + adjacents.weight());
+                    }
+                }
+            }
+        }
+
+        private void relax(int adjacent, long candidate) {
+            if (candidate >= Integer.MAX_VALUE) {
+                return;
+            }
+            int distance;
+            do {
+                distance = distances.get(adjacent);
+                if (candidate >= distance) {
+                    return;
+                }
+            } while (!distances.compareAndSet(adjacent, distance, (int) candidate));
+            queue(adjacent, (int) candidate, improved);
+        }
+
+        /**
+         * Adds nodes improved by workers to buckets they were finally queued to, duplicates are skipped when settled.
+         */
+        private void queueImproved() {
+            for (int index = 0; index < improved.size; index++) {
+                int node = improved.nodes[index];
+                buckets.computeIfAbsent(queuedBuckets.get(node), key -> new NodeList()).add(node);
+            }
+        }
+    }
+
+    private static final class NodeList {
+
+        private int[] nodes = new int[16];
+        private int size;
+
+        private void add(int node) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+            }
+            nodes[size++] = node;
+        }
+
+        private void addAll(NodeList list) {
+            if (size + list.size > nodes.length) {
+                nodes = Arrays.copyOf(nodes, Math.max(size + list.size, size * 2));
+            }
+            System.arraycopy(list.nodes, 0, nodes, size, list.size);
+            size += list.size;
+        }
+    }
+}
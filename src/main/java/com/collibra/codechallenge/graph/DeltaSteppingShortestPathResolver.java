@@ -0,0 +1,51 @@
+package com.collibra.codechallenge.graph;
+
+import java.util.List;
+
+/**
+ * Resolves shortest paths with delta-stepping split over cores on graphs of at least graph.deltaStepping.threshold
+ * nodes and with sequential Dijkstra on smaller ones, where synchronizing phases costs more than it saves. Bucket
+ * width is graph.deltaStepping.delta, or derived from sampled weights and degrees of current snapshot when zero.
+ */
+class DeltaSteppingShortestPathResolver implements ShortestPathResolver<String> {
+
+    private static final int THRESHOLD = Integer.getInteger("graph.deltaStepping.threshold", 100_000);
+
+    private static final int DELTA = Integer.getInteger("graph.deltaStepping.delta", 0);
+
+    private static final int PARALLEL_FRONTIER = Integer.getInteger("graph.deltaStepping.parallelFrontier", 1024);
+
+    private final CompactGraphStore store;
+    private final int threshold;
+    private final int delta;
+    private final int parallelFrontier;
+
+    public DeltaSteppingShortestPathResolver(CompactGraphStore store) {
+        this(store, THRESHOLD, DELTA, PARALLEL_FRONTIER);
+    }
+
+    DeltaSteppingShortestPathResolver(CompactGraphStore store, int threshold, int delta, int parallelFrontier) {
+        this.store = store;
+        this.threshold = threshold;
+        this.delta = delta;
+        this.parallelFrontier = parallelFrontier;
+    }
+
+    @Override
+    public Integer shortestPath(String initial, String terminal) {
+        GraphSnapshot snapshot = store.snapshot();
+        int initialId = snapshot.existingId(initial);
+        int terminalId = snapshot.existingId(terminal);
+        if (snapshot.nodeCount() < threshold) {
+            return new CompressedSparseRowDijkstraAlgorithm(snapshot).shortestPath(initialId, terminalId);
+        }
+        return new DeltaSteppingAlgorithm(snapshot, delta > 0 ? delta : DeltaSteppingAlgorithm.delta(snapshot),
+                parallelFrontier).shortestPath(initialId, terminalId);
+    }
+
+    @Override
+    public List<String> closerThan(Integer weight, String initial) {
+        GraphSnapshot snapshot = store.snapshot();
+        return new BoundedRadiusDijkstraAlgorithm(snapshot).closerThan(weight, snapshot.existingId(initial));
+    }
+}
@@ -1,53 +1,91 @@
 package com.collibra.codechallenge.graph;
 
-import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import lombok.RequiredArgsConstructor;
+import com.google.common.collect.Sets;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
-@RequiredArgsConstructor
-class DirectedWeightedGraph implements Graph<String> {
+/**
+ * Graph of adjacency maps with index of incoming edges, so that removing a node touches only its neighbours. Mutations
+ * are serialized, queries read concurrent maps without locking. Count of edges is kept up to date by mutations.
+ */
+class DirectedWeightedGraph implements SnapshotableGraph {
 
     private final Map<String, Map<String, List<Integer>>> nodes;
     private final ShortestPathResolver<String> shortestPathResolver;
+    private final Map<String, Set<String>> predecessors = Maps.newConcurrentMap();
+
+    private volatile long edgeCount;
+
+    public DirectedWeightedGraph(Map<String, Map<String, List<Integer>>> nodes,
+                                 ShortestPathResolver<String> shortestPathResolver) {
+        this.nodes = nodes;
+        this.shortestPathResolver = shortestPathResolver;
+        indexPredecessors();
+    }
 
     @Override
     public Map<String, Map<String, List<Integer>>> nodes() {
         return nodes;
     }
 
+    /**
+     * Nodes with edges to given node, for traversals against edge direction.
+     */
+    Set<String> predecessors(String node) {
+        return Collections.unmodifiableSet(predecessors.getOrDefault(node, Collections.emptySet()));
+    }
+
     @Override
-    public void addNode(String name) throws NodeAlreadyExistsException {
+    public synchronized void addNode(String name) throws NodeAlreadyExistsException {
         validateNodeNotExists(name);
 
-        nodes.putIfAbsent(name, Maps.newHashMap());
+        nodes.putIfAbsent(name, Maps.newConcurrentMap());
     }
 
     @Override
-    public void removeNode(String name) throws NodeNotFoundException {
+    public synchronized void removeNode(String name) throws NodeNotFoundException {
         validateNodeExists(name);
 
-        nodes.values().stream().forEach(node -> node.remove(name));
+        Set<String> incoming = predecessors.getOrDefault(name, Collections.emptySet());
+        Map<String, List<Integer>> outgoing = nodes.get(name);
+        edgeCount -= incoming.size() + outgoing.size() - (outgoing.containsKey(name) ? 1 : 0);
+        for (String predecessor : incoming) {
+            nodes.get(predecessor).remove(name);
+        }
+        for (String successor : outgoing.keySet()) {
+            predecessors.get(successor).remove(name);
+        }
+        predecessors.remove(name);
         nodes.remove(name);
     }
 
     @Override
-    public void addEdge(String initial, String terminal, Integer weight) throws NodeNotFoundException {
+    public synchronized void addEdge(String initial, String terminal, Integer weight) throws NodeNotFoundException {
         validateNodeExists(initial);
         validateNodeExists(terminal);
 
-        nodes.get(initial).computeIfAbsent(terminal, node -> Lists.newArrayList()).add(weight);
+        if (!containsEdge(initial, terminal)) {
+            edgeCount++;
+        }
+        nodes.get(initial).compute(terminal, (node, weights) -> MinimumWeight.of(weights, weight));
+        predecessors.computeIfAbsent(terminal, node -> Sets.newConcurrentHashSet()).add(initial);
     }
 
     @Override
-    public void removeEdges(String initial, String terminal) throws NodeNotFoundException {
+    public synchronized void removeEdges(String initial, String terminal) throws NodeNotFoundException {
         validateNodeExists(initial);
         validateNodeExists(terminal);
 
-        nodes.get(initial).remove(terminal);
+        if (nodes.get(initial).remove(terminal) != null) {
+            predecessors.get(terminal).remove(initial);
+            edgeCount--;
+        }
     }
 
     @Override
@@ -74,6 +112,11 @@ class DirectedWeightedGraph implements Graph<String> {
                 .collect(Collectors.joining(","));
     }
 
+    @Override
+    public long edgeCount() {
+        return edgeCount;
+    }
+
     @Override
     public void validateNodeExists(String node) {
         nodes.computeIfAbsent(node, key -> {
@@ -87,4 +130,38 @@ class DirectedWeightedGraph implements Graph<String> {
             throw new NodeAlreadyExistsException();
         });
     }
+
+    @Override
+    public boolean containsEdge(String initial, String terminal) {
+        Map<String, List<Integer>> adjacents = nodes.get(initial);
+        return adjacents != null && adjacents.containsKey(terminal);
+    }
+
+    /**
+     * Builds image right away in two passes over adjacency maps, which have to stay unchanged between them.
+     */
+    @Override
+    public synchronized Supplier<GraphImage> pinImage() {
+        GraphImage image = GraphImage.of(nodes);
+        return () -> image;
+    }
+
+    @Override
+    public synchronized void restore(GraphImage image) {
+        image.restoreInto(nodes);
+        indexPredecessors();
+    }
+
+    @Override
+    public synchronized void merge(GraphImage image) {
+        image.mergeInto(nodes);
+        indexPredecessors();
+    }
+
+    private void indexPredecessors() {
+        predecessors.clear();
+        nodes.forEach((initial, adjacents) -> adjacents.keySet().forEach(terminal ->
+                predecessors.computeIfAbsent(terminal, node -> Sets.newConcurrentHashSet()).add(initial)));
+        edgeCount = SnapshotableGraph.super.edgeCount();
+    }
 }
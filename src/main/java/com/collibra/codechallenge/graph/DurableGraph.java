@@ -0,0 +1,273 @@
+package com.collibra.codechallenge.graph;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.vavr.Tuple2;
+import io.vavr.control.Try;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Graph persisted in data directory. Every mutation is validated and appended to write-ahead log before it is applied,
+ * so that mutation refused by failed log never becomes visible, and graph image is periodically written to snapshot file, after which older log segments are deleted. On startup latest
+ * snapshot is loaded and log tail is replayed on top of it. Bulk restores and merges are not logged, instead
+ * snapshot is written before mutations are resumed.
+ */
+class DurableGraph implements SnapshotableGraph {
+
+    private static final Logger log = Logger.getLogger(DurableGraph.class);
+
+    private static final long SNAPSHOT_INTERVAL = Long.getLong("graph.snapshot.interval", 60000L);
+
+    private static final boolean SYNC_COMMIT = Boolean.parseBoolean(System.getProperty("graph.wal.syncCommit", "false"));
+
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+
+    private static final String SNAPSHOT_SUFFIX = ".img";
+
+    private final SnapshotableGraph delegate;
+    private final Path directory;
+    private final Object lock = new Object();
+    private final Object snapshotLock = new Object();
+    private final WriteAheadLog writeAheadLog;
+    private final ScheduledExecutorService snapshots;
+    private long snapshotPosition;
+
+    public DurableGraph(Graph<String> delegate, String directory) throws IOException {
+        this.delegate = (SnapshotableGraph) delegate;
+        this.directory = Paths.get(directory);
+        Files.createDirectories(this.directory);
+
+        long started = System.currentTimeMillis();
+        Optional<Long> latestSnapshot = snapshots().stream().reduce((first, second) -> second);
+        if (latestSnapshot.isPresent()) {
+            Tuple2<Long, GraphImage> snapshot = GraphImageFile.read(snapshotPath(latestSnapshot.get()));
+            this.delegate.restore(snapshot._2);
+            snapshotPosition = snapshot._1;
+            log.info("Loaded snapshot with " + snapshot._2.nodeCount() + " nodes and " + snapshot._2.edgeCount()
+                    + " edges in " + (System.currentTimeMillis() - started) + " ms");
+        }
+        writeAheadLog = new WriteAheadLog(this.directory, snapshotPosition, this::apply);
+        log.info("Recovered graph from " + directory + " in " + (System.currentTimeMillis() - started) + " ms");
+
+        snapshots = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("graph-snapshot").setDaemon(true).build());
+        snapshots.scheduleWithFixedDelay(() -> Try.run(this::snapshot).onFailure(throwable -> log.error("Snapshot failed", throwable)),
+                SNAPSHOT_INTERVAL, SNAPSHOT_INTERVAL, TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> Try.run(this::close)));
+    }
+
+    @Override
+    public Map<String, Map<String, List<Integer>>> nodes() {
+        return delegate.nodes();
+    }
+
+    @Override
+    public List<String> nodeNames() {
+        return delegate.nodeNames();
+    }
+
+    @Override
+    public void addNode(String name) throws NodeAlreadyExistsException {
+        mutate(GraphMutation.addNode(name));
+    }
+
+    @Override
+    public void removeNode(String name) throws NodeNotFoundException {
+        mutate(GraphMutation.removeNode(name));
+    }
+
+    @Override
+    public void addEdge(String initial, String terminal, Integer weight) throws NodeNotFoundException {
+        mutate(GraphMutation.addEdge(initial, terminal, weight));
+    }
+
+    @Override
+    public void removeEdges(String initial, String terminal) throws NodeNotFoundException {
+        mutate(GraphMutation.removeEdges(initial, terminal));
+    }
+
+    @Override
+    public Integer shortestPath(String initial, String terminal) throws NodeNotFoundException {
+        return delegate.shortestPath(initial, terminal);
+    }
+
+    @Override
+    public String closerThan(String initial, Integer distance) throws NodeNotFoundException {
+        return delegate.closerThan(initial, distance);
+    }
+
+    @Override
+    public void closerThan(Collection<String> initials, Integer distance, BiConsumer<String, String> results)
+            throws NodeNotFoundException {
+        delegate.closerThan(initials, distance, results);
+    }
+
+    @Override
+    public void closerThanFromAll(Integer distance, BiConsumer<String, String> results) {
+        delegate.closerThanFromAll(distance, results);
+    }
+
+    @Override
+    public long nodeCount() {
+        return delegate.nodeCount();
+    }
+
+    @Override
+    public long edgeCount() {
+        return delegate.edgeCount();
+    }
+
+    @Override
+    public void validateNodeExists(String node) {
+        delegate.validateNodeExists(node);
+    }
+
+    @Override
+    public void validateNodeNotExists(String node) {
+        delegate.validateNodeNotExists(node);
+    }
+
+    @Override
+    public boolean containsEdge(String initial, String terminal) {
+        return delegate.containsEdge(initial, terminal);
+    }
+
+    @Override
+    public Supplier<GraphImage> pinImage() {
+        synchronized (lock) {
+            return delegate.pinImage();
+        }
+    }
+
+    @Override
+    public void restore(GraphImage image) {
+        bulkChange(() -> delegate.restore(image));
+    }
+
+    @Override
+    public void merge(GraphImage image) {
+        bulkChange(() -> delegate.merge(image));
+    }
+
+    void snapshot() throws IOException {
+        synchronized (snapshotLock) {
+            long position;
+            Supplier<GraphImage> image;
+            synchronized (lock) {
+                position = writeAheadLog.rotate();
+                if (position == snapshotPosition) {
+                    return;
+                }
+                image = delegate.pinImage();
+            }
+            writeSnapshot(position, image.get());
+        }
+    }
+
+    void close() throws IOException {
+        snapshots.shutdown();
+        writeAheadLog.close();
+    }
+
+    private void bulkChange(Runnable change) {
+        synchronized (snapshotLock) {
+            synchronized (lock) {
+                change.run();
+                Try.run(() -> writeSnapshot(writeAheadLog.rotate(), delegate.pinImage().get()))
+                        .getOrElseThrow(throwable -> new RuntimeException(throwable));
+            }
+        }
+    }
+
+    private void writeSnapshot(long position, GraphImage image) throws IOException {
+        GraphImageFile.write(snapshotPath(position), image, position);
+        snapshotPosition = position;
+        writeAheadLog.deleteSegmentsBefore(position);
+        for (long snapshot : snapshots()) {
+            if (snapshot < position) {
+                Files.deleteIfExists(snapshotPath(snapshot));
+            }
+        }
+    }
+
+    private void mutate(GraphMutation mutation) {
+        long position;
+        synchronized (lock) {
+            validate(mutation);
+            position = writeAheadLog.append(mutation);
+            apply(mutation);
+        }
+        if (SYNC_COMMIT) {
+            writeAheadLog.awaitCommit(position);
+        }
+    }
+
+    /**
+     * Throws the same exceptions applying mutation would, so that only mutations which will be applied are logged.
+     */
+    private void validate(GraphMutation mutation) {
+        switch (mutation.getType()) {
+            case ADD_NODE:
+                delegate.validateNodeNotExists(mutation.getInitial());
+                break;
+            case REMOVE_NODE:
+                delegate.validateNodeExists(mutation.getInitial());
+                break;
+            case ADD_EDGE:
+            case REMOVE_EDGES:
+                delegate.validateNodeExists(mutation.getInitial());
+                delegate.validateNodeExists(mutation.getTerminal());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown mutation: " + mutation.getType());
+        }
+    }
+
+    private void apply(GraphMutation mutation) {
+        switch (mutation.getType()) {
+            case ADD_NODE:
+                delegate.addNode(mutation.getInitial());
+                break;
+            case REMOVE_NODE:
+                delegate.removeNode(mutation.getInitial());
+                break;
+            case ADD_EDGE:
+                delegate.addEdge(mutation.getInitial(), mutation.getTerminal(), mutation.getWeight());
+                break;
+            case REMOVE_EDGES:
+                delegate.removeEdges(mutation.getInitial(), mutation.getTerminal());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown mutation: " + mutation.getType());
+        }
+    }
+
+    private List<Long> snapshots() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length())))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private Path snapshotPath(long position) {
+        return directory.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, position, SNAPSHOT_SUFFIX));
+    }
+}
@@ -0,0 +1,242 @@
+package com.collibra.codechallenge.graph;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Text edge list with one edge per line: initial node, terminal node and weight separated by whitespace. Line with
+ * single name declares node without outgoing edges, empty lines and lines starting with # are skipped. Names and
+ * weights are restricted to what commands accept, so that every imported node can be addressed and resolvers never see
+ * negative weight. File is mapped in chunks split at line boundaries, which are parsed in parallel and then merged
+ * into single image.
+ */
+final class EdgeListFile {
+
+    private static final int CHUNK_SIZE = Integer.getInteger("graph.import.chunkSize", 16 * 1024 * 1024);
+
+    private EdgeListFile() {
+    }
+
+    static GraphImage read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            List<MappedByteBuffer> buffers = Lists.newArrayList();
+            for (long start = 0, end; start < channel.size(); start = end) {
+                end = lineEnd(channel, Math.min(start + CHUNK_SIZE, channel.size()));
+                buffers.add(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+            }
+            Names names = new Names();
+            List<Chunk> chunks = buffers.parallelStream()
+                    .map(buffer -> Chunk.parse(buffer, names))
+                    .collect(Collectors.toList());
+            return merge(names.toArray(), chunks);
+        }
+    }
+
+    static void write(Path path, GraphImage image) throws IOException {
+        try (Writer writer = new BufferedWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8), 1024 * 1024)) {
+            String[] names = image.names();
+            int[] offsets = image.offsets();
+            for (int id = 0; id < names.length; id++) {
+                if (offsets[id] == offsets[id + 1]) {
+                    writer.append(names[id]).append('\n');
+                }
+                for (int edge = offsets[id]; edge < offsets[id + 1]; edge++) {
+                    writer.append(names[id]).append(' ')
+                            .append(names[image.targets()[edge]]).append(' ')
+                            .append(Integer.toString(image.weights()[edge])).append('\n');
+                }
+            }
+        }
+    }
+
+    private static long lineEnd(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        while (position < channel.size()) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            for (int index = 0; index < read; index++) {
+                if (buffer.get(index) == '\n') {
+                    return position + index + 1;
+                }
+            }
+            position += read;
+        }
+        return position;
+    }
+
+    private static GraphImage merge(String[] names, List<Chunk> chunks) {
+        int edgeCount = 0;
+        for (Chunk chunk : chunks) {
+            edgeCount += chunk.edges;
+        }
+
+        int[] offsets = new int[names.length + 1];
+        for (Chunk chunk : chunks) {
+            for (int edge = 0; edge < chunk.edges; edge++) {
+                offsets[chunk.initials[edge] + 1]++;
+            }
+        }
+        for (int id = 0; id < names.length; id++) {
+            offsets[id + 1] += offsets[id];
+        }
+
+        int[] targets = new int[edgeCount];
+        int[] weights = new int[edgeCount];
+        int[] next = Arrays.copyOf(offsets, names.length);
+        for (Chunk chunk : chunks) {
+            for (int edge = 0; edge < chunk.edges; edge++) {
+                int slot = next[chunk.initials[edge]]++;
+                targets[slot] = chunk.terminals[edge];
+                weights[slot] = chunk.weights[edge];
+            }
+        }
+        return new GraphImage(names, offsets, targets, weights);
+    }
+
+    private static final class Names {
+
+        private final Map<String, Integer> ids = Maps.newConcurrentMap();
+        private final AtomicInteger nextId = new AtomicInteger();
+
+        private int id(String name) {
+            Integer id = ids.get(name);
+            return id != null ? id : ids.computeIfAbsent(name, key -> nextId.getAndIncrement());
+        }
+
+        private String[] toArray() {
+            String[] names = new String[nextId.get()];
+            ids.forEach((name, id) -> names[id] = name);
+            return names;
+        }
+    }
+
+    private static final class Chunk {
+
+        private final Names names;
+        private int[] initials = new int[1024];
+        private int[] terminals = new int[1024];
+        private int[] weights = new int[1024];
+        private int edges;
+
+        private Chunk(Names names) {
+            this.names = names;
+        }
+
+        private static Chunk parse(ByteBuffer buffer, Names names) {
+            Chunk chunk = new Chunk(names);
+            int[] tokens = new int[8];
+            while (buffer.hasRemaining()) {
+                int count = 0;
+                int lineStart = buffer.position();
+                byte current = 0;
+                while (buffer.hasRemaining() && (current = buffer.get()) != '\n') {
+                    boolean separator = current == ' ' || current == '\t' || current == '\r';
+                    int position = buffer.position() - 1;
+                    if (!separator && (count % 2 == 0)) {
+                        if (count == tokens.length) {
+                            throw new IllegalArgumentException("Too many tokens in line: " + line(buffer, lineStart));
+                        }
+                        tokens[count++] = position;
+                    } else if (separator && count % 2 == 1) {
+                        tokens[count++] = position;
+                    }
+                }
+                if (count % 2 == 1) {
+                    tokens[count++] = current == '\n' ? buffer.position() - 1 : buffer.position();
+                }
+                if (count == 0 || buffer.get(tokens[0]) == '#') {
+                    continue;
+                }
+                if (count == 2) {
+                    chunk.id(name(buffer, tokens[0], tokens[1], lineStart));
+                } else if (count == 6) {
+                    chunk.add(chunk.id(name(buffer, tokens[0], tokens[1], lineStart)),
+                            chunk.id(name(buffer, tokens[2], tokens[3], lineStart)),
+                            number(buffer, tokens[4], tokens[5], lineStart));
+                } else {
+                    throw new IllegalArgumentException("Malformed line: " + line(buffer, lineStart));
+                }
+            }
+            return chunk;
+        }
+
+        private int id(String name) {
+            return names.id(name);
+        }
+
+        private void add(int initial, int terminal, int weight) {
+            if (edges == initials.length) {
+                initials = Arrays.copyOf(initials, edges * 2);
+                terminals = Arrays.copyOf(terminals, edges * 2);
+                weights = Arrays.copyOf(weights, edges * 2);
+            }
+            initials[edges] = initial;
+            terminals[edges] = terminal;
+            weights[edges++] = weight;
+        }
+
+        private static String token(ByteBuffer buffer, int start, int end) {
+            byte[] bytes = new byte[end - start];
+            for (int index = 0; index < bytes.length; index++) {
+                bytes[index] = buffer.get(start + index);
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Name of characters accepted in node names of commands: letters, digits, slash and hyphen.
+         */
+        private static String name(ByteBuffer buffer, int start, int end, int lineStart) {
+            for (int index = start; index < end; index++) {
+                byte character = buffer.get(index);
+                if (!(character >= 'A' && character <= 'Z'
+                        || character >= 'a' && character <= 'z'
+                        || character >= '0' && character <= '9'
+                        || character == '/'
+                        || character == '-')) {
+                    throw new IllegalArgumentException("Malformed node name in line: " + line(buffer, lineStart));
+                }
+            }
+            return token(buffer, start, end);
+        }
+
+        private static int number(ByteBuffer buffer, int start, int end, int lineStart) {
+            long value = 0;
+            for (int index = start; index < end; index++) {
+                byte digit = buffer.get(index);
+                if (digit < '0' || digit > '9' || value > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Malformed weight in line: " + line(buffer, lineStart));
+                }
+                value = value * 10 + digit - '0';
+            }
+            if (value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Malformed weight in line: " + line(buffer, lineStart));
+            }
+            return (int) value;
+        }
+
+        private static String line(ByteBuffer buffer, int lineStart) {
+            int end = lineStart;
+            while (end < buffer.limit() && buffer.get(end) != '\n') {
+                end++;
+            }
+            return token(buffer, lineStart, end).trim();
+        }
+    }
+}
@@ -1,12 +1,22 @@
 package com.collibra.codechallenge.graph;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 
 public interface Graph<NODE> {
 
     Map<NODE, Map<NODE, List<Integer>>> nodes();
 
+    /**
+     * Copies names of all nodes, without their edges.
+     */
+    default List<NODE> nodeNames() {
+        return new ArrayList<>(nodes().keySet());
+    }
+
     void addNode(NODE name) throws NodeAlreadyExistsException;
 
     void removeNode(NODE name) throws NodeNotFoundException;
@@ -19,6 +29,36 @@ public interface Graph<NODE> {
 
     String closerThan(NODE terminal, Integer distance) throws NodeNotFoundException;
 
+    /**
+     * Resolves nodes closer than distance from each of initial nodes. Results may be passed to consumer concurrently
+     * and in any order, all of them are passed before this method returns.
+     */
+    default void closerThan(Collection<NODE> initials, Integer distance, BiConsumer<NODE, String> results)
+            throws NodeNotFoundException {
+        initials.forEach(this::validateNodeExists);
+        initials.forEach(initial -> results.accept(initial, closerThan(initial, distance)));
+    }
+
+    default void closerThanFromAll(Integer distance, BiConsumer<NODE, String> results) {
+        closerThan(nodes().keySet(), distance, results);
+    }
+
+    default long nodeCount() {
+        return nodes().size();
+    }
+
+    /**
+     * Counts distinct (initial, terminal) pairs, parallel edges being collapsed to the lightest one. Visits whole graph;
+     * graphs served to sessions override it with count kept up to date on mutation, as it is read by every metrics
+     * scrape.
+     */
+    default long edgeCount() {
+        return nodes().values().stream()
+                .flatMap(adjacents -> adjacents.values().stream())
+                .mapToLong(List::size)
+                .sum();
+    }
+
     default void validateNodeNotExists(NODE node) {
         if(nodes().containsKey(node)) {
             throw new NodeAlreadyExistsException();
@@ -33,6 +73,8 @@ public interface Graph<NODE> {
 
     class NodeAlreadyExistsException extends RuntimeException {
 
+        private static final long serialVersionUID = 1L;
+
         NodeAlreadyExistsException() {
             super("ERROR: NODE ALREADY EXISTS" + System.lineSeparator());
         }
@@ -40,8 +82,28 @@ public interface Graph<NODE> {
 
     class NodeNotFoundException extends RuntimeException {
 
+        private static final long serialVersionUID = 1L;
+
         NodeNotFoundException() {
             super("ERROR: NODE NOT FOUND" + System.lineSeparator());
         }
     }
+
+    class MemoryLimitExceededException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        MemoryLimitExceededException() {
+            super("ERROR: GRAPH MEMORY LIMIT EXCEEDED" + System.lineSeparator());
+        }
+    }
+
+    class PartitionUnavailableException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        PartitionUnavailableException(Throwable cause) {
+            super("ERROR: PARTITION UNAVAILABLE" + System.lineSeparator(), cause);
+        }
+    }
 }
@@ -0,0 +1,132 @@
+package com.collibra.codechallenge.graph;
+
+import io.vavr.collection.HashMap;
+import io.vavr.collection.HashSet;
+import io.vavr.collection.Map;
+import io.vavr.collection.Set;
+import io.vavr.collection.Vector;
+import io.vavr.control.Option;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+final class GraphDelta {
+
+    static final GraphDelta EMPTY = new GraphDelta(HashMap.empty(), Vector.empty(), HashSet.empty(), HashMap.empty(), Vector.empty());
+
+    private final Map<String, Integer> addedIds;
+    private final Vector<String> addedNames;
+    private final Set<Integer> removedNodes;
+    private final Map<Integer, NodeDelta> nodeDeltas;
+    private final Vector<GraphMutation> mutations;
+
+    int size() {
+        return mutations.size();
+    }
+
+    boolean isEmpty() {
+        return mutations.isEmpty();
+    }
+
+    Vector<GraphMutation> mutations() {
+        return mutations;
+    }
+
+    int addedNodeCount() {
+        return addedNames.size();
+    }
+
+    int removedNodeCount() {
+        return removedNodes.size();
+    }
+
+    Integer addedId(String name) {
+        return addedIds.get(name).getOrNull();
+    }
+
+    String addedName(int index) {
+        return addedNames.get(index);
+    }
+
+    boolean isRemoved(int id) {
+        return removedNodes.contains(id);
+    }
+
+    Set<Integer> removedNodes() {
+        return removedNodes;
+    }
+
+    Map<Integer, NodeDelta> nodeDeltas() {
+        return nodeDeltas;
+    }
+
+    GraphDelta addNode(GraphMutation mutation, int id) {
+        return new GraphDelta(addedIds.put(mutation.getInitial(), id), addedNames.append(mutation.getInitial()),
+                removedNodes, nodeDeltas, mutations.append(mutation));
+    }
+
+    GraphDelta removeNode(GraphMutation mutation, int id) {
+        return new GraphDelta(addedIds.remove(mutation.getInitial()), addedNames, removedNodes.add(id),
+                nodeDeltas.remove(id), mutations.append(mutation));
+    }
+
+    GraphDelta addEdge(GraphMutation mutation, int initial, int terminal, Option<Integer> baseWeight) {
+        return new GraphDelta(addedIds, addedNames, removedNodes,
+                nodeDeltas.put(initial, nodeDelta(initial).addEdge(terminal, mutation.getWeight(), baseWeight)),
+                mutations.append(mutation));
+    }
+
+    GraphDelta removeEdges(GraphMutation mutation, int initial, int terminal) {
+        return new GraphDelta(addedIds, addedNames, removedNodes,
+                nodeDeltas.put(initial, nodeDelta(initial).removeEdges(terminal)), mutations.append(mutation));
+    }
+
+    NodeDelta nodeDelta(int id) {
+        return nodeDeltas.get(id).getOrElse(NodeDelta.EMPTY);
+    }
+
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    static final class NodeDelta {
+
+        private static final NodeDelta EMPTY = new NodeDelta(HashSet.empty(), Vector.empty());
+
+        private final Set<Integer> removedTargets;
+        private final Vector<Long> addedEdges;
+
+        Set<Integer> removedTargets() {
+            return removedTargets;
+        }
+
+        Vector<Long> addedEdges() {
+            return addedEdges;
+        }
+
+        static int target(long edge) {
+            return (int) (edge >>> 32);
+        }
+
+        static int weight(long edge) {
+            return (int) edge;
+        }
+
+        /**
+         * Keeps only the lightest of edges to the same terminal, heavier parallel edges are never used. Compacted edge
+         * still visible is hidden and its weight taken over by the added one.
+         */
+        private NodeDelta addEdge(int terminal, int weight, Option<Integer> baseWeight) {
+            Option<Integer> shadowedWeight = removedTargets.contains(terminal) ? Option.none() : baseWeight;
+            Option<Integer> addedWeight = addedEdges.find(edge -> target(edge) == terminal).map(NodeDelta::weight);
+            if (shadowedWeight.isEmpty() && addedWeight.exists(added -> added <= weight)) {
+                return this;
+            }
+            int lightest = Math.min(weight, Math.min(shadowedWeight.getOrElse(weight), addedWeight.getOrElse(weight)));
+            return new NodeDelta(shadowedWeight.isDefined() ? removedTargets.add(terminal) : removedTargets,
+                    addedEdges.filter(edge -> target(edge) != terminal)
+                            .append(((long) terminal << 32) | (lightest & 0xFFFFFFFFL)));
+        }
+
+        private NodeDelta removeEdges(int terminal) {
+            return new NodeDelta(removedTargets.add(terminal), addedEdges.filter(edge -> target(edge) != terminal));
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.collibra.codechallenge.graph;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+final class GraphImage {
+
+    private final String[] names;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+
+    GraphImage(String[] names, int[] offsets, int[] targets, int[] weights) {
+        this.names = names;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    static GraphImage of(GraphSnapshot snapshot) {
+        int[] compactIds = new int[snapshot.idBound()];
+        List<String> names = Lists.newArrayListWithCapacity(snapshot.nodeCount());
+        for (int id = 0; id < snapshot.idBound(); id++) {
+            compactIds[id] = snapshot.contains(id) ? names.size() : -1;
+            if (compactIds[id] >= 0) {
+                names.add(snapshot.name(id));
+            }
+        }
+
+        int[] offsets = new int[names.size() + 1];
+        int[] targets = new int[Math.max(snapshot.baseEdgeCount(), 16)];
+        int[] weights = new int[targets.length];
+        int edges = 0;
+        GraphSnapshot.EdgeCursor cursor = snapshot.outgoing();
+        for (int id = 0; id < snapshot.idBound(); id++) {
+            if (compactIds[id] < 0) {
+                continue;
+            }
+            cursor.reset(id);
+            while (cursor.next()) {
+                if (edges == targets.length) {
+                    targets = Arrays.copyOf(targets, edges * 2);
+                    weights = Arrays.copyOf(weights, edges * 2);
+                }
+                targets[edges] = compactIds[cursor.adjacent()];
+                weights[edges++] = cursor.weight();
+            }
+            offsets[compactIds[id] + 1] = edges;
+        }
+        return new GraphImage(names.toArray(new String[0]), offsets,
+                Arrays.copyOf(targets, edges), Arrays.copyOf(weights, edges));
+    }
+
+    static GraphImage of(Map<String, Map<String, List<Integer>>> nodes) {
+        String[] names = nodes.keySet().toArray(new String[0]);
+        Map<String, Integer> ids = Maps.newHashMapWithExpectedSize(names.length);
+        for (int id = 0; id < names.length; id++) {
+            ids.put(names[id], id);
+        }
+
+        int[] offsets = new int[names.length + 1];
+        int edges = 0;
+        for (int id = 0; id < names.length; id++) {
+            for (List<Integer> parallelWeights : nodes.get(names[id]).values()) {
+                edges += parallelWeights.size();
+            }
+            offsets[id + 1] = edges;
+        }
+
+        int[] targets = new int[edges];
+        int[] weights = new int[edges];
+        int edge = 0;
+        for (String name : names) {
+            for (Map.Entry<String, List<Integer>> adjacent : nodes.get(name).entrySet()) {
+                int target = ids.get(adjacent.getKey());
+                for (Integer weight : adjacent.getValue()) {
+                    targets[edge] = target;
+                    weights[edge++] = weight;
+                }
+            }
+        }
+        return new GraphImage(names, offsets, targets, weights);
+    }
+
+    /**
+     * Merges addition into base image. Nodes are matched by name and edges of addition are added after edges of base.
+     */
+    static GraphImage merge(GraphImage base, GraphImage addition) {
+        Map<String, Integer> ids = Maps.newHashMapWithExpectedSize(base.nodeCount() + addition.nodeCount());
+        List<String> names = Lists.newArrayList(base.names);
+        for (int id = 0; id < base.nodeCount(); id++) {
+            ids.put(base.names[id], id);
+        }
+        int[] additionIds = new int[addition.nodeCount()];
+        for (int id = 0; id < addition.nodeCount(); id++) {
+            additionIds[id] = ids.computeIfAbsent(addition.names[id], name -> {
+                names.add(name);
+                return names.size() - 1;
+            });
+        }
+
+        int[] offsets = new int[names.size() + 1];
+        for (int id = 0; id < base.nodeCount(); id++) {
+            offsets[id + 1] += base.offsets[id + 1] - base.offsets[id];
+        }
+        for (int id = 0; id < addition.nodeCount(); id++) {
+            offsets[additionIds[id] + 1] += addition.offsets[id + 1] - addition.offsets[id];
+        }
+        for (int id = 0; id < names.size(); id++) {
+            offsets[id + 1] += offsets[id];
+        }
+
+        int[] targets = new int[base.edgeCount() + addition.edgeCount()];
+        int[] weights = new int[targets.length];
+        int[] next = Arrays.copyOf(offsets, names.size());
+        for (int id = 0; id < base.nodeCount(); id++) {
+            int length = base.offsets[id + 1] - base.offsets[id];
+            System.arraycopy(base.targets, base.offsets[id], targets, next[id], length);
+            System.arraycopy(base.weights, base.offsets[id], weights, next[id], length);
+            next[id] += length;
+        }
+        for (int id = 0; id < addition.nodeCount(); id++) {
+            int mergedId = additionIds[id];
+            for (int edge = addition.offsets[id]; edge < addition.offsets[id + 1]; edge++) {
+                targets[next[mergedId]] = additionIds[addition.targets[edge]];
+                weights[next[mergedId]++] = addition.weights[edge];
+            }
+        }
+        return new GraphImage(names.toArray(new String[0]), offsets, targets, weights);
+    }
+
+    int nodeCount() {
+        return names.length;
+    }
+
+    int edgeCount() {
+        return targets.length;
+    }
+
+    String[] names() {
+        return names;
+    }
+
+    int[] offsets() {
+        return offsets;
+    }
+
+    int[] targets() {
+        return targets;
+    }
+
+    int[] weights() {
+        return weights;
+    }
+
+    /**
+     * Graph of this image keeping only the lightest of parallel edges, so that relaxation is bounded by distinct edges.
+     */
+    CompressedSparseRowGraph toCompressedSparseRow() {
+        GraphImage collapsed = withoutParallelEdges();
+        return new CompressedSparseRowGraph(names, collapsed.offsets, collapsed.targets, collapsed.weights);
+    }
+
+    /**
+     * Image keeping only the lightest of parallel edges, in place of the first of them.
+     */
+    GraphImage withoutParallelEdges() {
+        int[] lastSources = new int[names.length];
+        Arrays.fill(lastSources, -1);
+        int[] positions = new int[names.length];
+        int[] collapsedOffsets = new int[offsets.length];
+        int[] collapsedTargets = new int[targets.length];
+        int[] collapsedWeights = new int[weights.length];
+        int edges = 0;
+        for (int id = 0; id < names.length; id++) {
+            for (int edge = offsets[id]; edge < offsets[id + 1]; edge++) {
+                int target = targets[edge];
+                if (lastSources[target] == id) {
+                    collapsedWeights[positions[target]] = Math.min(collapsedWeights[positions[target]], weights[edge]);
+                    continue;
+                }
+                lastSources[target] = id;
+                positions[target] = edges;
+                collapsedTargets[edges] = target;
+                collapsedWeights[edges++] = weights[edge];
+            }
+            collapsedOffsets[id + 1] = edges;
+        }
+        if (edges == targets.length) {
+            return this;
+        }
+        return new GraphImage(names, collapsedOffsets,
+                Arrays.copyOf(collapsedTargets, edges), Arrays.copyOf(collapsedWeights, edges));
+    }
+
+    void restoreInto(Map<String, Map<String, List<Integer>>> nodes) {
+        nodes.clear();
+        mergeInto(nodes);
+    }
+
+    void mergeInto(Map<String, Map<String, List<Integer>>> nodes) {
+        for (int id = 0; id < names.length; id++) {
+            Map<String, List<Integer>> adjacents = nodes.computeIfAbsent(names[id], node -> Maps.newConcurrentMap());
+            for (int edge = offsets[id]; edge < offsets[id + 1]; edge++) {
+                int weight = weights[edge];
+                adjacents.compute(names[targets[edge]], (node, parallelWeights) -> MinimumWeight.of(parallelWeights, weight));
+            }
+        }
+    }
+}
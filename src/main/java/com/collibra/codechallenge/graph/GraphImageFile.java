@@ -0,0 +1,137 @@
+package com.collibra.codechallenge.graph;
+
+import io.vavr.Tuple;
+import io.vavr.Tuple2;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Graph image stored in memory mapped file: header (magic, format version, WAL position, node and edge counts)
+ * followed by length prefixed UTF-8 names, offsets, targets and weights. File is mapped in windows, so images
+ * larger than single mapping limit are supported.
+ */
+final class GraphImageFile {
+
+    private static final int MAGIC = 0x47524149;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private GraphImageFile() {
+    }
+
+    static void write(Path path, GraphImage image, long writeAheadLogPosition) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedRegion region = new MappedRegion(channel, FileChannel.MapMode.READ_WRITE);
+            region.window(24)
+                    .putInt(MAGIC)
+                    .putInt(FORMAT_VERSION)
+                    .putLong(writeAheadLogPosition)
+                    .putInt(image.nodeCount())
+                    .putInt(image.edgeCount());
+            for (String name : image.names()) {
+                byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                region.window(4 + bytes.length).putInt(bytes.length).put(bytes);
+            }
+            region.putInts(image.offsets());
+            region.putInts(image.targets());
+            region.putInts(image.weights());
+            region.force();
+            channel.truncate(region.position());
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    static Tuple2<Long, GraphImage> read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedRegion region = new MappedRegion(channel, FileChannel.MapMode.READ_ONLY);
+            ByteBuffer header = region.window(24);
+            if (header.getInt() != MAGIC || header.getInt() != FORMAT_VERSION) {
+                throw new IOException("Not a graph image: " + path);
+            }
+            long writeAheadLogPosition = header.getLong();
+            String[] names = new String[header.getInt()];
+            int edgeCount = header.getInt();
+            for (int id = 0; id < names.length; id++) {
+                byte[] bytes = new byte[region.window(4).getInt()];
+                region.window(bytes.length).get(bytes);
+                names[id] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            int[] offsets = region.getInts(new int[names.length + 1]);
+            int[] targets = region.getInts(new int[edgeCount]);
+            int[] weights = region.getInts(new int[edgeCount]);
+            return Tuple.of(writeAheadLogPosition, new GraphImage(names, offsets, targets, weights));
+        }
+    }
+
+    private static final class MappedRegion {
+
+        private final FileChannel channel;
+        private final FileChannel.MapMode mode;
+        private long windowPosition;
+        private MappedByteBuffer window;
+
+        private MappedRegion(FileChannel channel, FileChannel.MapMode mode) {
+            this.channel = channel;
+            this.mode = mode;
+        }
+
+        private ByteBuffer window(int bytes) throws IOException {
+            if (window == null || window.remaining() < bytes) {
+                force();
+                windowPosition = position();
+                long size = mode == FileChannel.MapMode.READ_ONLY
+                        ? Math.min(WINDOW_SIZE, channel.size() - windowPosition)
+                        : WINDOW_SIZE;
+                if (size < bytes && mode == FileChannel.MapMode.READ_ONLY) {
+                    throw new IOException("Truncated graph image");
+                }
+                window = channel.map(mode, windowPosition, Math.max(size, bytes));
+            }
+            return window;
+        }
+
+        private void putInts(int[] values) throws IOException {
+            for (int offset = 0; offset < values.length; ) {
+                int length = Math.min(values.length - offset, WINDOW_SIZE / Integer.BYTES);
+                ByteBuffer buffer = window(length * Integer.BYTES);
+                buffer.asIntBuffer().put(values, offset, length);
+                buffer.position(buffer.position() + length * Integer.BYTES);
+                offset += length;
+            }
+        }
+
+        private int[] getInts(int[] values) throws IOException {
+            for (int offset = 0; offset < values.length; ) {
+                int length = Math.min(values.length - offset, WINDOW_SIZE / Integer.BYTES);
+                ByteBuffer buffer = window(length * Integer.BYTES);
+                buffer.asIntBuffer().get(values, offset, length);
+                buffer.position(buffer.position() + length * Integer.BYTES);
+                offset += length;
+            }
+            return values;
+        }
+
+        private long position() {
+            return window == null ? windowPosition : windowPosition + window.position();
+        }
+
+        private void force() {
+            if (window != null && mode == FileChannel.MapMode.READ_WRITE) {
+                window.force();
+            }
+        }
+    }
+}
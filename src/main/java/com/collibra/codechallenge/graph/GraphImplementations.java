@@ -0,0 +1,93 @@
+package com.collibra.codechallenge.graph;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Constructors of graph implementations, which stay package-private, registered under their simple class names for
+ * selection by configuration. Names are resolved to constructor references without any classpath scanning or
+ * reflection, so wiring costs the same as calling the constructor directly.
+ */
+public final class GraphImplementations {
+
+    private static final Map<String, Function<Map<String, Map<String, List<Integer>>>, ShortestPathResolver<String>>> SHORTEST_PATH_RESOLVERS =
+            ImmutableMap.of(
+                    DijkstraAlgorithmShortestPathResolver.class.getSimpleName(), DijkstraAlgorithmShortestPathResolver::new,
+                    BinaryHeapDijkstraShortestPathResolver.class.getSimpleName(), BinaryHeapDijkstraShortestPathResolver::new);
+
+    private static final Map<String, Function<CompactGraphStore, ShortestPathResolver<String>>> COMPACT_SHORTEST_PATH_RESOLVERS =
+            ImmutableMap.of(
+                    CompressedSparseRowDijkstraShortestPathResolver.class.getSimpleName(), CompressedSparseRowDijkstraShortestPathResolver::new,
+                    CachedShortestPathTreeResolver.class.getSimpleName(), CachedShortestPathTreeResolver::new,
+                    BidirectionalDijkstraShortestPathResolver.class.getSimpleName(), BidirectionalDijkstraShortestPathResolver::new,
+                    DeltaSteppingShortestPathResolver.class.getSimpleName(), DeltaSteppingShortestPathResolver::new);
+
+    private GraphImplementations() {
+    }
+
+    public static Function<Map<String, Map<String, List<Integer>>>, ShortestPathResolver<String>> shortestPathResolver(
+            String name) {
+        return implementation(SHORTEST_PATH_RESOLVERS, name);
+    }
+
+    public static Function<CompactGraphStore, ShortestPathResolver<String>> compactShortestPathResolver(String name) {
+        return implementation(COMPACT_SHORTEST_PATH_RESOLVERS, name);
+    }
+
+    public static Graph<String> directedWeightedGraph(Map<String, Map<String, List<Integer>>> nodes,
+                                                      ShortestPathResolver<String> shortestPathResolver) {
+        return new DirectedWeightedGraph(nodes, shortestPathResolver);
+    }
+
+    public static Graph<String> compactDirectedWeightedGraph(CompactGraphStore store,
+                                                             ShortestPathResolver<String> shortestPathResolver) {
+        return new CompactDirectedWeightedGraph(store, shortestPathResolver);
+    }
+
+    public static Graph<String> durableGraph(Graph<String> graph, String dataDirectory) throws IOException {
+        return new DurableGraph(graph, dataDirectory);
+    }
+
+    /**
+     * Wraps graph to refuse mutations once its estimated memory would exceed limit, non-positive limit only accounts.
+     */
+    public static Graph<String> memoryBoundedGraph(Graph<String> graph, long limit, int nodeBytes, int edgeBytes) {
+        return new MemoryBoundedGraph(graph, limit, nodeBytes, edgeBytes);
+    }
+
+    /**
+     * Graph partitioned across members, queries run as supersteps on all partitions called through executor.
+     */
+    public static Graph<String> partitionedGraph(Partitions partitions, Executor executor) {
+        return new PartitionedGraph(partitions, new PregelShortestPathResolver(partitions, executor));
+    }
+
+    public static Partition remotePartition(Function<String, String> transport) {
+        return new RemotePartition(transport);
+    }
+
+    /**
+     * Serves requests of remote partitions of other members with given partition.
+     */
+    public static Function<String, String> partitionRequests(Partition partition) {
+        return request -> PartitionRequests.handle(partition, request);
+    }
+
+    public static GraphTransferMXBean graphTransfer(Graph<String> graph) {
+        return new GraphTransfer(graph);
+    }
+
+    private static <FACTORY> FACTORY implementation(Map<String, FACTORY> implementations, String name) {
+        FACTORY factory = implementations.get(name);
+        if (factory == null) {
+            throw new IllegalArgumentException("There is no implementation for: " + name + ", expected one of: "
+                    + String.join(", ", implementations.keySet()));
+        }
+        return factory;
+    }
+}
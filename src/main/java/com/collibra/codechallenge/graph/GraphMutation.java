@@ -0,0 +1,38 @@
+package com.collibra.codechallenge.graph;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+final class GraphMutation {
+
+    private final Type type;
+    private final String initial;
+    private final String terminal;
+    private final int weight;
+
+    static GraphMutation addNode(String name) {
+        return new GraphMutation(Type.ADD_NODE, name, null, 0);
+    }
+
+    static GraphMutation removeNode(String name) {
+        return new GraphMutation(Type.REMOVE_NODE, name, null, 0);
+    }
+
+    static GraphMutation addEdge(String initial, String terminal, int weight) {
+        return new GraphMutation(Type.ADD_EDGE, initial, terminal, weight);
+    }
+
+    static GraphMutation removeEdges(String initial, String terminal) {
+        return new GraphMutation(Type.REMOVE_EDGES, initial, terminal, 0);
+    }
+
+    enum Type {
+        ADD_NODE,
+        REMOVE_NODE,
+        ADD_EDGE,
+        REMOVE_EDGES
+    }
+}
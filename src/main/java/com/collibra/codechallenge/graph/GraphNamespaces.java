@@ -0,0 +1,111 @@
+package com.collibra.codechallenge.graph;
+
+import com.google.common.collect.Maps;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Named graphs selected by sessions. Each graph is created by factory on first use with its own store, shortest path
+ * cache and locks, so sessions working with different graphs never contend. Lookup of existing graph is lock-free,
+ * only creation is serialized to keep number of graphs under the maximum.
+ */
+public class GraphNamespaces implements GraphNamespacesMXBean {
+
+    public static final String DEFAULT_GRAPH = "default";
+
+    private final ConcurrentMap<String, Graph<String>> graphs = Maps.newConcurrentMap();
+    private final Function<String, Graph<String>> factory;
+    private final int maximumGraphs;
+
+    public GraphNamespaces(Graph<String> defaultGraph, Function<String, Graph<String>> factory, int maximumGraphs) {
+        this.factory = factory;
+        this.maximumGraphs = maximumGraphs;
+        this.graphs.put(DEFAULT_GRAPH, defaultGraph);
+    }
+
+    /**
+     * Namespaces holding just given graph as default one.
+     */
+    public static GraphNamespaces of(Graph<String> graph) {
+        return new GraphNamespaces(graph, name -> {
+            throw new TooManyGraphsException();
+        }, 1);
+    }
+
+    public Graph<String> defaultGraph() {
+        return graphs.get(DEFAULT_GRAPH);
+    }
+
+    public Graph<String> graph(String name) throws TooManyGraphsException {
+        Graph<String> graph = graphs.get(name);
+        return graph != null ? graph : create(name);
+    }
+
+    public Map<String, Graph<String>> graphs() {
+        return new TreeMap<>(graphs);
+    }
+
+    @Override
+    public int getGraphCount() {
+        return graphs.size();
+    }
+
+    @Override
+    public int getMaximumGraphs() {
+        return maximumGraphs;
+    }
+
+    @Override
+    public Map<String, Long> getEstimatedBytes() {
+        return Maps.transformValues(memoryBoundedGraphs(), MemoryBoundedGraph::estimatedBytes);
+    }
+
+    @Override
+    public Map<String, Long> getMemoryLimits() {
+        return Maps.transformValues(memoryBoundedGraphs(), MemoryBoundedGraph::limit);
+    }
+
+    private synchronized Graph<String> create(String name) {
+        Graph<String> graph = graphs.get(name);
+        if (graph != null) {
+            return graph;
+        }
+        if (graphs.size() >= maximumGraphs) {
+            throw new TooManyGraphsException();
+        }
+        graph = factory.apply(name);
+        graphs.put(name, graph);
+        return graph;
+    }
+
+    private Map<String, MemoryBoundedGraph> memoryBoundedGraphs() {
+        Map<String, MemoryBoundedGraph> memoryBoundedGraphs = Maps.newTreeMap();
+        graphs.forEach((name, graph) -> {
+            if (graph instanceof MemoryBoundedGraph) {
+                memoryBoundedGraphs.put(name, (MemoryBoundedGraph) graph);
+            }
+        });
+        return memoryBoundedGraphs;
+    }
+
+    public static class TooManyGraphsException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        TooManyGraphsException() {
+            super("ERROR: TOO MANY GRAPHS" + System.lineSeparator());
+        }
+    }
+
+    public static class NamedGraphsUnavailableException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        public NamedGraphsUnavailableException() {
+            super("ERROR: NAMED GRAPHS UNAVAILABLE IN CLUSTER" + System.lineSeparator());
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.collibra.codechallenge.graph;
+
+import java.util.Map;
+
+public interface GraphNamespacesMXBean {
+
+    int getGraphCount();
+
+    int getMaximumGraphs();
+
+    Map<String, Long> getEstimatedBytes();
+
+    Map<String, Long> getMemoryLimits();
+}
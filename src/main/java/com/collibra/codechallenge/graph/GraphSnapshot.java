@@ -0,0 +1,396 @@
+package com.collibra.codechallenge.graph;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import io.vavr.collection.HashMap;
+import io.vavr.collection.Set;
+import io.vavr.collection.Vector;
+import io.vavr.control.Option;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+final class GraphSnapshot {
+
+    static final GraphSnapshot EMPTY =
+            new GraphSnapshot(CompressedSparseRowGraph.EMPTY, GraphDelta.EMPTY, Overlay.EMPTY, 0L, 0L);
+
+    private final CompressedSparseRowGraph base;
+    private final GraphDelta delta;
+    private final Overlay overlay;
+    private final long version;
+    private final long edgeCount;
+
+    private GraphSnapshot(CompressedSparseRowGraph base, GraphDelta delta, Overlay overlay, long version,
+                          long edgeCount) {
+        this.base = base;
+        this.delta = delta;
+        this.overlay = overlay;
+        this.version = version;
+        this.edgeCount = edgeCount;
+    }
+
+    /**
+     * Snapshot of compacted graph, whose parallel edges are already collapsed.
+     */
+    private GraphSnapshot(CompressedSparseRowGraph base, long version) {
+        this(base, GraphDelta.EMPTY, Overlay.EMPTY, version, base.edgeCount());
+    }
+
+    long version() {
+        return version;
+    }
+
+    int idBound() {
+        return base.nodeCount() + delta.addedNodeCount();
+    }
+
+    int nodeCount() {
+        return idBound() - delta.removedNodeCount();
+    }
+
+    /**
+     * Count of visible edges, kept up to date by every mutation.
+     */
+    long edgeCount() {
+        return edgeCount;
+    }
+
+    int deltaSize() {
+        return delta.size();
+    }
+
+    int baseEdgeCount() {
+        return base.edgeCount();
+    }
+
+    boolean hasSameBaseAs(GraphSnapshot snapshot) {
+        return base == snapshot.base;
+    }
+
+    Vector<GraphMutation> mutationsSince(GraphSnapshot snapshot) {
+        return delta.mutations().drop(snapshot.delta.size());
+    }
+
+    int id(String name) {
+        Integer addedId = delta.addedId(name);
+        if (addedId != null) {
+            return addedId;
+        }
+        int id = base.id(name);
+        return id < 0 || delta.isRemoved(id) ? -1 : id;
+    }
+
+    String name(int id) {
+        return id < base.nodeCount() ? base.name(id) : delta.addedName(id - base.nodeCount());
+    }
+
+    boolean contains(int id) {
+        return id >= 0 && id < idBound() && !overlay.removedNodes.get(id);
+    }
+
+    /**
+     * Whether edge from initial to terminal is visible, visiting outgoing edges of initial node.
+     */
+    boolean containsEdge(int initial, int terminal) {
+        if (!contains(initial) || !contains(terminal)) {
+            return false;
+        }
+        EdgeCursor adjacents = outgoing().reset(initial);
+        while (adjacents.next()) {
+            if (adjacents.adjacent() == terminal) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    EdgeCursor outgoing() {
+        return new EdgeCursor(this, false);
+    }
+
+    EdgeCursor incoming() {
+        return new EdgeCursor(this, true);
+    }
+
+    GraphSnapshot apply(GraphMutation mutation) {
+        switch (mutation.getType()) {
+            case ADD_NODE:
+                if (id(mutation.getInitial()) >= 0) {
+                    throw new Graph.NodeAlreadyExistsException();
+                }
+                return new GraphSnapshot(base, delta.addNode(mutation, idBound()), overlay, version + 1, edgeCount);
+            case REMOVE_NODE:
+                int removed = existingId(mutation.getInitial());
+                return new GraphSnapshot(base, delta.removeNode(mutation, removed), overlay.removeNode(removed),
+                        version + 1, edgeCount - degree(removed));
+            case ADD_EDGE:
+                int initial = existingId(mutation.getInitial());
+                int terminal = existingId(mutation.getTerminal());
+                return withEdges(delta.addEdge(mutation, initial, terminal, baseWeight(initial, terminal)),
+                        initial, terminal, containsEdge(initial, terminal) ? edgeCount : edgeCount + 1);
+            case REMOVE_EDGES:
+                int removedInitial = existingId(mutation.getInitial());
+                int removedTerminal = existingId(mutation.getTerminal());
+                return withEdges(delta.removeEdges(mutation, removedInitial, removedTerminal),
+                        removedInitial, removedTerminal,
+                        containsEdge(removedInitial, removedTerminal) ? edgeCount - 1 : edgeCount);
+            default:
+                throw new IllegalArgumentException("Unknown mutation: " + mutation.getType());
+        }
+    }
+
+    private GraphSnapshot withEdges(GraphDelta updated, int initial, int terminal, long updatedEdgeCount) {
+        return new GraphSnapshot(base, updated, overlay.updateEdges(initial, terminal, updated.nodeDelta(initial)),
+                version + 1, updatedEdgeCount);
+    }
+
+    /**
+     * Count of visible edges of node in both directions, loop counted once.
+     */
+    private long degree(int node) {
+        long degree = containsEdge(node, node) ? -1 : 0;
+        for (EdgeCursor adjacents : Arrays.asList(outgoing(), incoming())) {
+            adjacents.reset(node);
+            while (adjacents.next()) {
+                degree++;
+            }
+        }
+        return degree;
+    }
+
+    /**
+     * Weight of compacted edge from initial to terminal, parallel edges are collapsed in compacted graph.
+     */
+    private Option<Integer> baseWeight(int initial, int terminal) {
+        if (initial < base.nodeCount()) {
+            for (int edge = base.firstEdge(initial); edge < base.lastEdge(initial); edge++) {
+                if (base.target(edge) == terminal) {
+                    return Option.some(base.weight(edge));
+                }
+            }
+        }
+        return Option.none();
+    }
+
+    GraphSnapshot withVersion(long version) {
+        return new GraphSnapshot(base, delta, overlay, version, edgeCount);
+    }
+
+    GraphSnapshot compact() {
+        return new GraphSnapshot(GraphImage.of(this).toCompressedSparseRow(), version + 1);
+    }
+
+    GraphSnapshot restore(GraphImage image) {
+        return new GraphSnapshot(image.toCompressedSparseRow(), version + 1);
+    }
+
+    Map<String, Map<String, List<Integer>>> toNodes() {
+        Map<String, Map<String, List<Integer>>> nodes = Maps.newHashMapWithExpectedSize(nodeCount());
+        EdgeCursor cursor = outgoing();
+        for (int id = 0; id < idBound(); id++) {
+            if (!contains(id)) {
+                continue;
+            }
+            Map<String, List<Integer>> adjacents = Maps.newHashMap();
+            cursor.reset(id);
+            while (cursor.next()) {
+                adjacents.computeIfAbsent(name(cursor.adjacent()), node -> Lists.newArrayList()).add(cursor.weight());
+            }
+            adjacents.replaceAll((node, weights) -> Collections.unmodifiableList(weights));
+            nodes.put(name(id), Collections.unmodifiableMap(adjacents));
+        }
+        return Collections.unmodifiableMap(nodes);
+    }
+
+    int existingId(String name) {
+        int id = id(name);
+        if (id < 0) {
+            throw new Graph.NodeNotFoundException();
+        }
+        return id;
+    }
+
+    static final class EdgeCursor {
+
+        private final CompressedSparseRowGraph base;
+        private final Overlay overlay;
+        private final boolean incoming;
+
+        private int node;
+        private int edge;
+        private int lastEdge;
+        private AddedEdges addedEdges;
+        private int addedEdge;
+        private int adjacent;
+        private int weight;
+
+        private EdgeCursor(GraphSnapshot snapshot, boolean incoming) {
+            this.base = snapshot.base;
+            this.overlay = snapshot.overlay;
+            this.incoming = incoming;
+        }
+
+        EdgeCursor reset(int node) {
+            boolean inBase = node < base.nodeCount();
+            HashMap<Integer, AddedEdges> added = incoming ? overlay.incoming : overlay.outgoing;
+            this.node = node;
+            this.edge = !inBase ? 0 : incoming ? base.firstIncomingEdge(node) : base.firstEdge(node);
+            this.lastEdge = !inBase ? 0 : incoming ? base.lastIncomingEdge(node) : base.lastEdge(node);
+            this.addedEdges = added.isEmpty() ? null : added.getOrElse(node, null);
+            this.addedEdge = 0;
+            return this;
+        }
+
+        boolean next() {
+            while (edge < lastEdge) {
+                int candidate = incoming ? base.source(edge) : base.target(edge);
+                int candidateWeight = incoming ? base.incomingWeight(edge) : base.weight(edge);
+                edge++;
+                if (!overlay.removedNodes.get(candidate)
+                        && !overlay.isRemovedEdge(incoming ? candidate : node, incoming ? node : candidate)) {
+                    return move(candidate, candidateWeight);
+                }
+            }
+            while (addedEdges != null && addedEdge < addedEdges.size) {
+                int candidate = addedEdges.adjacents[addedEdge];
+                int candidateWeight = addedEdges.weights[addedEdge++];
+                if (!overlay.removedNodes.get(candidate)) {
+                    return move(candidate, candidateWeight);
+                }
+            }
+            return false;
+        }
+
+        int adjacent() {
+            return adjacent;
+        }
+
+        int weight() {
+            return weight;
+        }
+
+        private boolean move(int adjacent, int weight) {
+            this.adjacent = adjacent;
+            this.weight = weight;
+            return true;
+        }
+    }
+
+    /**
+     * Index of delta for traversals, updated by every mutation instead of being rebuilt for every snapshot. Mutation
+     * copies entries of the nodes it touches and shares the rest with previous snapshot; removed node copies the bit
+     * set of removed nodes, which is never modified once shared.
+     */
+    private static final class Overlay {
+
+        private static final Overlay EMPTY = new Overlay(new BitSet(), HashMap.empty(), HashMap.empty(), HashMap.empty());
+
+        private final BitSet removedNodes;
+        private final HashMap<Integer, Set<Integer>> removedTargets;
+        private final HashMap<Integer, AddedEdges> outgoing;
+        private final HashMap<Integer, AddedEdges> incoming;
+
+        private Overlay(BitSet removedNodes, HashMap<Integer, Set<Integer>> removedTargets,
+                        HashMap<Integer, AddedEdges> outgoing, HashMap<Integer, AddedEdges> incoming) {
+            this.removedNodes = removedNodes;
+            this.removedTargets = removedTargets;
+            this.outgoing = outgoing;
+            this.incoming = incoming;
+        }
+
+        /**
+         * Edges of removed node stay indexed at its neighbours, where traversals skip them as edges of removed node.
+         */
+        private Overlay removeNode(int id) {
+            BitSet removed = (BitSet) removedNodes.clone();
+            removed.set(id);
+            return new Overlay(removed, removedTargets.remove(id), outgoing.remove(id), incoming.remove(id));
+        }
+
+        private Overlay updateEdges(int initial, int terminal, GraphDelta.NodeDelta nodeDelta) {
+            AddedEdges added = AddedEdges.of(nodeDelta.addedEdges());
+            AddedEdges terminalIncoming = incoming.getOrElse(terminal, AddedEdges.EMPTY).without(initial);
+            int edge = added.indexOf(terminal);
+            if (edge >= 0) {
+                terminalIncoming = terminalIncoming.with(initial, added.weights[edge]);
+            }
+            return new Overlay(removedNodes,
+                    nodeDelta.removedTargets().isEmpty()
+                            ? removedTargets.remove(initial)
+                            : removedTargets.put(initial, nodeDelta.removedTargets()),
+                    added.size == 0 ? outgoing.remove(initial) : outgoing.put(initial, added),
+                    terminalIncoming.size == 0 ? incoming.remove(terminal) : incoming.put(terminal, terminalIncoming));
+        }
+
+        private boolean isRemovedEdge(int initial, int terminal) {
+            if (removedTargets.isEmpty()) {
+                return false;
+            }
+            Set<Integer> targets = removedTargets.getOrElse(initial, null);
+            return targets != null && targets.contains(terminal);
+        }
+    }
+
+    /**
+     * Added edges of one node, never modified once indexed.
+     */
+    private static final class AddedEdges {
+
+        private static final AddedEdges EMPTY = new AddedEdges(new int[0], new int[0]);
+
+        private final int[] adjacents;
+        private final int[] weights;
+        private final int size;
+
+        private AddedEdges(int[] adjacents, int[] weights) {
+            this.adjacents = adjacents;
+            this.weights = weights;
+            this.size = adjacents.length;
+        }
+
+        private static AddedEdges of(Vector<Long> edges) {
+            int[] adjacents = new int[edges.size()];
+            int[] weights = new int[edges.size()];
+            int index = 0;
+            for (long edge : edges) {
+                adjacents[index] = GraphDelta.NodeDelta.target(edge);
+                weights[index++] = GraphDelta.NodeDelta.weight(edge);
+            }
+            return new AddedEdges(adjacents, weights);
+        }
+
+        private int indexOf(int adjacent) {
+            for (int index = 0; index < size; index++) {
+                if (adjacents[index] == adjacent) {
+                    return index;
+                }
+            }
+            return -1;
+        }
+
+        private AddedEdges without(int adjacent) {
+            int[] keptAdjacents = new int[size];
+            int[] keptWeights = new int[size];
+            int kept = 0;
+            for (int index = 0; index < size; index++) {
+                if (adjacents[index] != adjacent) {
+                    keptAdjacents[kept] = adjacents[index];
+                    keptWeights[kept++] = weights[index];
+                }
+            }
+            return kept == size ? this : new AddedEdges(Arrays.copyOf(keptAdjacents, kept), Arrays.copyOf(keptWeights, kept));
+        }
+
+        private AddedEdges with(int adjacent, int weight) {
+            int[] extendedAdjacents = Arrays.copyOf(adjacents, size + 1);
+            int[] extendedWeights = Arrays.copyOf(weights, size + 1);
+            extendedAdjacents[size] = adjacent;
+            extendedWeights[size] = weight;
+            return new AddedEdges(extendedAdjacents, extendedWeights);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.collibra.codechallenge.graph;
+
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Bulk import and export of the whole graph. Files with {@value #BINARY_SUFFIX} suffix hold graph image in binary
+ * format of snapshots, other files hold text edge list. Imported nodes and edges are merged into the graph store at
+ * once, bypassing per command validation.
+ */
+class GraphTransfer implements GraphTransferMXBean {
+
+    private static final Logger log = Logger.getLogger(GraphTransfer.class);
+
+    static final String BINARY_SUFFIX = ".img";
+
+    private final SnapshotableGraph graph;
+
+    public GraphTransfer(Graph<String> graph) {
+        this.graph = (SnapshotableGraph) graph;
+    }
+
+    @Override
+    public long importGraph(String path) throws IOException {
+        long started = System.currentTimeMillis();
+        GraphImage image = isBinary(path)
+                ? GraphImageFile.read(Paths.get(path))._2
+                : EdgeListFile.read(Paths.get(path));
+        graph.merge(image);
+        log.info("Imported " + image.nodeCount() + " nodes and " + image.edgeCount() + " edges from " + path
+                + " in " + (System.currentTimeMillis() - started) + " ms");
+        return image.edgeCount();
+    }
+
+    @Override
+    public long exportGraph(String path) throws IOException {
+        long started = System.currentTimeMillis();
+        GraphImage image = graph.pinImage().get();
+        Path file = Paths.get(path);
+        if (isBinary(path)) {
+            GraphImageFile.write(file, image, 0L);
+        } else {
+            EdgeListFile.write(file, image);
+        }
+        log.info("Exported " + image.nodeCount() + " nodes and " + image.edgeCount() + " edges to " + path
+                + " in " + (System.currentTimeMillis() - started) + " ms");
+        return image.edgeCount();
+    }
+
+    private static boolean isBinary(String path) {
+        return path.endsWith(BINARY_SUFFIX);
+    }
+}
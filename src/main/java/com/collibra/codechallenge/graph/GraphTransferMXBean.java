@@ -0,0 +1,10 @@
+package com.collibra.codechallenge.graph;
+
+import java.io.IOException;
+
+public interface GraphTransferMXBean {
+
+    long importGraph(String path) throws IOException;
+
+    long exportGraph(String path) throws IOException;
+}
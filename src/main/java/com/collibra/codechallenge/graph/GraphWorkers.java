@@ -0,0 +1,16 @@
+package com.collibra.codechallenge.graph;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Fork/join pool of graph.parallelism workers shared by queries splitting their work across cores.
+ */
+final class GraphWorkers {
+
+    static final int PARALLELISM = Integer.getInteger("graph.parallelism", Runtime.getRuntime().availableProcessors());
+
+    static final ForkJoinPool POOL = new ForkJoinPool(PARALLELISM);
+
+    private GraphWorkers() {
+    }
+}
@@ -0,0 +1,110 @@
+package com.collibra.codechallenge.graph;
+
+import java.util.Arrays;
+
+class IndexedMinHeap {
+
+    private static final int ABSENT = -1;
+
+    private int[] heap;
+    private int[] keys;
+    private int[] positions;
+    private int size;
+
+    IndexedMinHeap(int capacity) {
+        int initialCapacity = Math.max(capacity, 16);
+        this.heap = new int[initialCapacity];
+        this.keys = new int[initialCapacity];
+        this.positions = new int[initialCapacity];
+        Arrays.fill(positions, ABSENT);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean contains(int id) {
+        return id < positions.length && positions[id] != ABSENT;
+    }
+
+    int minKey() {
+        return keys[heap[0]];
+    }
+
+    void insertOrDecrease(int id, int key) {
+        ensureCapacity(id + 1);
+        if (positions[id] == ABSENT) {
+            heap[size] = id;
+            positions[id] = size;
+            keys[id] = key;
+            siftUp(size++);
+        } else if (key < keys[id]) {
+            keys[id] = key;
+            siftUp(positions[id]);
+        }
+    }
+
+    int poll() {
+        int min = heap[0];
+        positions[min] = ABSENT;
+        if (--size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    private void siftUp(int index) {
+        int id = heap[index];
+        int key = keys[id];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (keys[heap[parent]] <= key) {
+                break;
+            }
+            move(heap[parent], index);
+            index = parent;
+        }
+        move(id, index);
+    }
+
+    private void siftDown(int index) {
+        int id = heap[index];
+        int key = keys[id];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && keys[heap[right]] < keys[heap[child]]) {
+                child = right;
+            }
+            if (key <= keys[heap[child]]) {
+                break;
+            }
+            move(heap[child], index);
+            index = child;
+        }
+        move(id, index);
+    }
+
+    private void move(int id, int index) {
+        heap[index] = id;
+        positions[id] = index;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > positions.length) {
+            int newCapacity = Math.max(capacity, positions.length * 2);
+            int oldCapacity = positions.length;
+            heap = Arrays.copyOf(heap, newCapacity);
+            keys = Arrays.copyOf(keys, newCapacity);
+            positions = Arrays.copyOf(positions, newCapacity);
+            Arrays.fill(positions, oldCapacity, newCapacity, ABSENT);
+        }
+    }
+}
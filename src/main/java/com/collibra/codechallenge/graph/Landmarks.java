@@ -0,0 +1,143 @@
+package com.collibra.codechallenge.graph;
+
+import com.google.common.collect.Lists;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Distances from and to landmark nodes of one graph version, used as A* lower bounds by triangle inequality.
+ * Landmarks are selected greedily, each next one is the node farthest from already selected landmarks.
+ */
+final class Landmarks {
+
+    static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private static final int ACTIVE_LANDMARKS = Integer.getInteger("graph.alt.activeLandmarks", 4);
+
+    private final long version;
+    private final int[][] fromLandmarks;
+    private final int[][] toLandmarks;
+
+    private Landmarks(long version, int[][] fromLandmarks, int[][] toLandmarks) {
+        this.version = version;
+        this.fromLandmarks = fromLandmarks;
+        this.toLandmarks = toLandmarks;
+    }
+
+    static Landmarks select(GraphSnapshot snapshot, int count) {
+        List<int[]> fromLandmarks = Lists.newArrayListWithCapacity(count);
+        List<int[]> toLandmarks = Lists.newArrayListWithCapacity(count);
+        int[] nearestLandmark = new int[snapshot.idBound()];
+        Arrays.fill(nearestLandmark, UNREACHABLE);
+        int landmark = firstNode(snapshot);
+        if (landmark >= 0) {
+            landmark = farthest(new CompressedSparseRowDijkstraAlgorithm(snapshot).distances(landmark), -1);
+        }
+        while (fromLandmarks.size() < count && landmark >= 0) {
+            int[] from = new CompressedSparseRowDijkstraAlgorithm(snapshot).distances(landmark);
+            fromLandmarks.add(from);
+            toLandmarks.add(new CompressedSparseRowDijkstraAlgorithm(snapshot, snapshot.incoming()).distances(landmark));
+            for (int node = 0; node < nearestLandmark.length; node++) {
+                nearestLandmark[node] = Math.min(nearestLandmark[node], from[node]);
+            }
+            landmark = farthest(nearestLandmark, 0);
+        }
+        return new Landmarks(snapshot.version(), fromLandmarks.toArray(new int[0][]), toLandmarks.toArray(new int[0][]));
+    }
+
+    boolean isCurrent(GraphSnapshot snapshot) {
+        return version == snapshot.version();
+    }
+
+    int count() {
+        return fromLandmarks.length;
+    }
+
+    /**
+     * Landmarks giving the tightest lower bounds of distance between initial and terminal, usually good for nodes
+     * explored between them too, so that potentials are cheaper to compute.
+     */
+    Landmarks activeFor(int initial, int terminal) {
+        if (fromLandmarks.length <= ACTIVE_LANDMARKS) {
+            return this;
+        }
+        Integer[] indexes = new Integer[fromLandmarks.length];
+        long[] bounds = new long[fromLandmarks.length];
+        for (int index = 0; index < indexes.length; index++) {
+            indexes[index] = index;
+            bounds[index] = new Landmarks(version, new int[][]{fromLandmarks[index]}, new int[][]{toLandmarks[index]})
+                    .lowerBoundTo(initial, terminal);
+        }
+        Arrays.sort(indexes, (first, second) -> Long.compare(bounds[second], bounds[first]));
+        int[][] activeFrom = new int[ACTIVE_LANDMARKS][];
+        int[][] activeTo = new int[ACTIVE_LANDMARKS][];
+        for (int index = 0; index < ACTIVE_LANDMARKS; index++) {
+            activeFrom[index] = fromLandmarks[indexes[index]];
+            activeTo[index] = toLandmarks[indexes[index]];
+        }
+        return new Landmarks(version, activeFrom, activeTo);
+    }
+
+    /**
+     * Lower bound of distance from node to terminal, or {@link #UNREACHABLE} when terminal cannot be reached.
+     */
+    int lowerBoundTo(int node, int terminal) {
+        long bound = 0;
+        for (int index = 0; index < fromLandmarks.length; index++) {
+            int[] to = toLandmarks[index];
+            if (to[terminal] != UNREACHABLE) {
+                if (to[node] == UNREACHABLE) {
+                    return UNREACHABLE;
+                }
+                bound = Math.max(bound, (long) to[node] - to[terminal]);
+            }
+            int[] from = fromLandmarks[index];
+            if (from[terminal] != UNREACHABLE && from[node] != UNREACHABLE) {
+                bound = Math.max(bound, (long) from[terminal] - from[node]);
+            }
+        }
+        return (int) Math.min(bound, UNREACHABLE - 1);
+    }
+
+    /**
+     * Lower bound of distance from initial to node, or {@link #UNREACHABLE} when node cannot be reached.
+     */
+    int lowerBoundFrom(int initial, int node) {
+        long bound = 0;
+        for (int index = 0; index < fromLandmarks.length; index++) {
+            int[] from = fromLandmarks[index];
+            if (from[initial] != UNREACHABLE) {
+                if (from[node] == UNREACHABLE) {
+                    return UNREACHABLE;
+                }
+                bound = Math.max(bound, (long) from[node] - from[initial]);
+            }
+            int[] to = toLandmarks[index];
+            if (to[initial] != UNREACHABLE && to[node] != UNREACHABLE) {
+                bound = Math.max(bound, (long) to[initial] - to[node]);
+            }
+        }
+        return (int) Math.min(bound, UNREACHABLE - 1);
+    }
+
+    private static int firstNode(GraphSnapshot snapshot) {
+        for (int node = 0; node < snapshot.idBound(); node++) {
+            if (snapshot.contains(node)) {
+                return node;
+            }
+        }
+        return -1;
+    }
+
+    private static int farthest(int[] distances, int minimumDistance) {
+        int farthest = -1;
+        for (int node = 0; node < distances.length; node++) {
+            if (distances[node] != UNREACHABLE && distances[node] > minimumDistance
+                    && (farthest < 0 || distances[node] > distances[farthest])) {
+                farthest = node;
+            }
+        }
+        return farthest;
+    }
+}
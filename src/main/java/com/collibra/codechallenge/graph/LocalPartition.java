@@ -0,0 +1,266 @@
+package com.collibra.codechallenge.graph;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Partition held in this process, adjacency maps of owned nodes with index of predecessors of both owned and remote
+ * terminals. Mutations are serialized, supersteps read concurrent maps without locking. Superstep does not stop at
+ * vertices improved by messages, it runs Dijkstra from them over all edges between owned nodes and sends messages
+ * only along edges crossing partitions, so number of supersteps follows crossings on shortest paths rather than
+ * their lengths. State of query not accessed for longer than request timeout is evicted when another query starts, as
+ * coordinator of such query has failed or given up without finishing it.
+ */
+class LocalPartition implements Partition {
+
+    private static final long QUERY_EXPIRATION_TIME = Long.getLong("cluster.requestTimeout", 30000L);
+
+    private final Partitions partitions;
+    private final int index;
+    private final long queryExpirationNanos;
+    private final Ticker ticker;
+    private final Map<String, Map<String, List<Integer>>> nodes = Maps.newConcurrentMap();
+    private final Map<String, Set<String>> predecessors = Maps.newHashMap();
+    private final ConcurrentMap<String, VertexValues> queries = Maps.newConcurrentMap();
+
+    private volatile long edgeCount;
+
+    LocalPartition(Partitions partitions, int index) {
+        this(partitions, index, QUERY_EXPIRATION_TIME, Ticker.systemTicker());
+    }
+
+    LocalPartition(Partitions partitions, int index, long queryExpirationTime, Ticker ticker) {
+        this.partitions = partitions;
+        this.index = index;
+        this.queryExpirationNanos = TimeUnit.MILLISECONDS.toNanos(queryExpirationTime);
+        this.ticker = ticker;
+    }
+
+    @Override
+    public synchronized void addNode(String name) throws Graph.NodeAlreadyExistsException {
+        if (nodes.putIfAbsent(name, Maps.newConcurrentMap()) != null) {
+            throw new Graph.NodeAlreadyExistsException();
+        }
+    }
+
+    @Override
+    public synchronized void removeNode(String name) throws Graph.NodeNotFoundException {
+        Map<String, List<Integer>> adjacents = adjacents(name);
+        removeEdgesTo(name);
+        for (String successor : adjacents.keySet()) {
+            removePredecessor(successor, name);
+        }
+        edgeCount -= adjacents.size();
+        nodes.remove(name);
+    }
+
+    @Override
+    public boolean containsNode(String name) {
+        return nodes.containsKey(name);
+    }
+
+    @Override
+    public synchronized void addEdge(String initial, String terminal, int weight) throws Graph.NodeNotFoundException {
+        Map<String, List<Integer>> adjacents = adjacents(initial);
+        if (!adjacents.containsKey(terminal)) {
+            edgeCount++;
+        }
+        adjacents.compute(terminal, (node, weights) -> MinimumWeight.of(weights, weight));
+        predecessors.computeIfAbsent(terminal, node -> Sets.newHashSet()).add(initial);
+    }
+
+    @Override
+    public synchronized void removeEdges(String initial, String terminal) throws Graph.NodeNotFoundException {
+        if (adjacents(initial).remove(terminal) != null) {
+            removePredecessor(terminal, initial);
+            edgeCount--;
+        }
+    }
+
+    @Override
+    public synchronized void removeEdgesTo(String terminal) {
+        for (String predecessor : predecessors.getOrDefault(terminal, Collections.emptySet())) {
+            if (nodes.get(predecessor).remove(terminal) != null) {
+                edgeCount--;
+            }
+        }
+        predecessors.remove(terminal);
+    }
+
+    @Override
+    public Map<String, Map<String, List<Integer>>> nodes() {
+        Map<String, Map<String, List<Integer>>> copy = Maps.newHashMapWithExpectedSize(nodes.size());
+        nodes.forEach((node, adjacents) -> copy.put(node, Maps.newHashMap(adjacents)));
+        return copy;
+    }
+
+    @Override
+    public long nodeCount() {
+        return nodes.size();
+    }
+
+    @Override
+    public long edgeCount() {
+        return edgeCount;
+    }
+
+    @Override
+    public void deliver(String query, Map<String, Integer> messages) {
+        values(query).inbox.deliver(messages);
+    }
+
+    @Override
+    public SuperstepResult superstep(String query, int bound, String terminal) {
+        VertexValues values = values(query);
+        Map<Integer, Map<String, Integer>> outboxes = values.compute(bound);
+        long messagesSent = 0;
+        for (Map.Entry<Integer, Map<String, Integer>> outbox : outboxes.entrySet()) {
+            partitions.get(outbox.getKey()).deliver(query, outbox.getValue());
+            messagesSent += outbox.getValue().size();
+        }
+        return new SuperstepResult(messagesSent, values.distance(terminal));
+    }
+
+    @Override
+    public List<String> reached(String query, int bound) {
+        return values(query).reached(bound);
+    }
+
+    @Override
+    public void finish(String query) {
+        queries.remove(query);
+    }
+
+    private Map<String, List<Integer>> adjacents(String node) {
+        Map<String, List<Integer>> adjacents = nodes.get(node);
+        if (adjacents == null) {
+            throw new Graph.NodeNotFoundException();
+        }
+        return adjacents;
+    }
+
+    private void removePredecessor(String terminal, String initial) {
+        Set<String> terminalPredecessors = predecessors.get(terminal);
+        terminalPredecessors.remove(initial);
+        if (terminalPredecessors.isEmpty()) {
+            predecessors.remove(terminal);
+        }
+    }
+
+    private VertexValues values(String query) {
+        long now = ticker.read();
+        VertexValues values = queries.get(query);
+        if (values == null) {
+            queries.values().removeIf(idle -> now - idle.lastAccess > queryExpirationNanos);
+            values = queries.computeIfAbsent(query, key -> new VertexValues(now));
+        }
+        values.lastAccess = now;
+        return values;
+    }
+
+    int queryCount() {
+        return queries.size();
+    }
+
+    /**
+     * Tentative distances of owned vertices reached by query, and lowest distances already sent to vertices of other
+     * partitions, which combines messages on sending side across supersteps.
+     */
+    private final class VertexValues {
+
+        private final Inbox inbox = new Inbox();
+        private final Map<String, Integer> distances = Maps.newHashMap();
+        private final Map<String, Integer> sent = Maps.newHashMap();
+        private volatile long lastAccess;
+
+        private VertexValues(long lastAccess) {
+            this.lastAccess = lastAccess;
+        }
+
+        private synchronized Map<Integer, Map<String, Integer>> compute(int bound) {
+            PriorityQueue<Map.Entry<String, Integer>> improved = new PriorityQueue<>(Map.Entry.comparingByValue());
+            inbox.take().forEach((vertex, distance) -> improve(vertex, distance, bound, improved));
+            Map<Integer, Map<String, Integer>> outboxes = Maps.newHashMap();
+            while (!improved.isEmpty()) {
+                Map.Entry<String, Integer> current = improved.poll();
+                int distance = current.getValue();
+                if (distance > distances.get(current.getKey())) {
+                    continue;
+                }
+                Map<String, List<Integer>> adjacents = nodes.getOrDefault(current.getKey(), Collections.emptyMap());
+                for (Map.Entry<String, List<Integer>> adjacent : adjacents.entrySet()) {
+                    for (Integer weight : adjacent.getValue()) {
+                        long candidate = (long) distance + weight;
+                        if (candidate >= bound) {
+                            continue;
+                        }
+                        int owner = partitions.ownerIndex(adjacent.getKey());
+                        if (owner == index) {
+                            improve(adjacent.getKey(), (int) candidate, bound, improved);
+                        } else if (candidate < sent.getOrDefault(adjacent.getKey(), Integer.MAX_VALUE)) {
+                            sent.put(adjacent.getKey(), (int) candidate);
+                            outboxes.computeIfAbsent(owner, key -> Maps.newHashMap())
+                                    .put(adjacent.getKey(), (int) candidate);
+                        }
+                    }
+                }
+            }
+            return outboxes;
+        }
+
+        /**
+         * Messages to vertices removed meanwhile are dropped, edges to them may still be visible in other partitions.
+         */
+        private void improve(String vertex, int distance, int bound,
+                             PriorityQueue<Map.Entry<String, Integer>> improved) {
+            if (distance < bound && distance < distances.getOrDefault(vertex, Integer.MAX_VALUE)
+                    && nodes.containsKey(vertex)) {
+                distances.put(vertex, distance);
+                improved.add(Maps.immutableEntry(vertex, distance));
+            }
+        }
+
+        private synchronized int distance(String vertex) {
+            return vertex == null ? Integer.MAX_VALUE : distances.getOrDefault(vertex, Integer.MAX_VALUE);
+        }
+
+        private synchronized List<String> reached(int bound) {
+            List<String> reached = Lists.newArrayList();
+            distances.forEach((vertex, distance) -> {
+                if (distance < bound && nodes.containsKey(vertex)) {
+                    reached.add(vertex);
+                }
+            });
+            return reached;
+        }
+    }
+
+    /**
+     * Messages for the next superstep, locked separately from vertex values so that partitions running superstep can
+     * deliver to each other.
+     */
+    private static final class Inbox {
+
+        private Map<String, Integer> messages = Maps.newHashMap();
+
+        private synchronized void deliver(Map<String, Integer> delivered) {
+            delivered.forEach((vertex, distance) -> messages.merge(vertex, distance, Math::min));
+        }
+
+        private synchronized Map<String, Integer> take() {
+            Map<String, Integer> taken = messages;
+            messages = Maps.newHashMap();
+            return taken;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.collibra.codechallenge.graph;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Graph refusing to grow over memory limit. Memory is estimated from node and edge counts with fixed per node and
+ * per edge costs of the backend. Every added node and edge reserves its cost up front, except edges between nodes
+ * already connected, which collapse into the existing edge. The estimate is an upper bound: removals, and edges
+ * collapsed by concurrent additions, are only reclaimed by exact recount, which is done before any mutation is
+ * refused. Backends keep their node and edge counts up to date on mutation, so the recount takes constant time even
+ * when mutations keep being refused at the limit. Concurrent mutations may overshoot the limit by their own costs.
+ */
+class MemoryBoundedGraph implements SnapshotableGraph {
+
+    private final SnapshotableGraph delegate;
+    private final long limit;
+    private final int nodeBytes;
+    private final int edgeBytes;
+    private final AtomicLong reservedBytes = new AtomicLong();
+
+    MemoryBoundedGraph(Graph<String> delegate, long limit, int nodeBytes, int edgeBytes) {
+        this.delegate = (SnapshotableGraph) delegate;
+        this.limit = limit <= 0 ? Long.MAX_VALUE : limit;
+        this.nodeBytes = nodeBytes;
+        this.edgeBytes = edgeBytes;
+        recount();
+    }
+
+    long estimatedBytes() {
+        return reservedBytes.get();
+    }
+
+    long limit() {
+        return limit;
+    }
+
+    @Override
+    public Map<String, Map<String, List<Integer>>> nodes() {
+        return delegate.nodes();
+    }
+
+    @Override
+    public List<String> nodeNames() {
+        return delegate.nodeNames();
+    }
+
+    @Override
+    public void addNode(String name) throws NodeAlreadyExistsException {
+        reserve(nodeBytes);
+        try {
+            delegate.addNode(name);
+        } catch (RuntimeException exception) {
+            reservedBytes.addAndGet(-nodeBytes);
+            throw exception;
+        }
+    }
+
+    @Override
+    public void removeNode(String name) throws NodeNotFoundException {
+        delegate.removeNode(name);
+    }
+
+    @Override
+    public void addEdge(String initial, String terminal, Integer weight) throws NodeNotFoundException {
+        if (delegate.containsEdge(initial, terminal)) {
+            delegate.addEdge(initial, terminal, weight);
+            return;
+        }
+        reserve(edgeBytes);
+        try {
+            delegate.addEdge(initial, terminal, weight);
+        } catch (RuntimeException exception) {
+            reservedBytes.addAndGet(-edgeBytes);
+            throw exception;
+        }
+    }
+
+    @Override
+    public void removeEdges(String initial, String terminal) throws NodeNotFoundException {
+        delegate.removeEdges(initial, terminal);
+    }
+
+    @Override
+    public Integer shortestPath(String initial, String terminal) throws NodeNotFoundException {
+        return delegate.shortestPath(initial, terminal);
+    }
+
+    @Override
+    public String closerThan(String initial, Integer distance) throws NodeNotFoundException {
+        return delegate.closerThan(initial, distance);
+    }
+
+    @Override
+    public void closerThan(Collection<String> initials, Integer distance, BiConsumer<String, String> results)
+            throws NodeNotFoundException {
+        delegate.closerThan(initials, distance, results);
+    }
+
+    @Override
+    public void closerThanFromAll(Integer distance, BiConsumer<String, String> results) {
+        delegate.closerThanFromAll(distance, results);
+    }
+
+    @Override
+    public long nodeCount() {
+        return delegate.nodeCount();
+    }
+
+    @Override
+    public long edgeCount() {
+        return delegate.edgeCount();
+    }
+
+    @Override
+    public void validateNodeExists(String node) {
+        delegate.validateNodeExists(node);
+    }
+
+    @Override
+    public void validateNodeNotExists(String node) {
+        delegate.validateNodeNotExists(node);
+    }
+
+    @Override
+    public boolean containsEdge(String initial, String terminal) {
+        return delegate.containsEdge(initial, terminal);
+    }
+
+    @Override
+    public Supplier<GraphImage> pinImage() {
+        return delegate.pinImage();
+    }
+
+    @Override
+    public void restore(GraphImage image) {
+        if (bytes(image.nodeCount(), image.edgeCount()) > limit) {
+            throw new MemoryLimitExceededException();
+        }
+        delegate.restore(image);
+        recount();
+    }
+
+    @Override
+    public void merge(GraphImage image) {
+        long imageBytes = bytes(image.nodeCount(), image.edgeCount());
+        reserve(imageBytes);
+        try {
+            delegate.merge(image);
+        } finally {
+            recount();
+        }
+    }
+
+    private void reserve(long bytes) {
+        if (reservedBytes.addAndGet(bytes) <= limit) {
+            return;
+        }
+        reservedBytes.addAndGet(-bytes);
+        recount();
+        if (reservedBytes.addAndGet(bytes) <= limit) {
+            return;
+        }
+        reservedBytes.addAndGet(-bytes);
+        throw new MemoryLimitExceededException();
+    }
+
+    private synchronized void recount() {
+        reservedBytes.set(bytes(delegate.nodeCount(), delegate.edgeCount()));
+    }
+
+    private long bytes(long nodes, long edges) {
+        return nodes * nodeBytes + edges * edgeBytes;
+    }
+}
@@ -0,0 +1,48 @@
+package com.collibra.codechallenge.graph;
+
+import com.google.common.base.Preconditions;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Parallel edges between the same pair of nodes collapsed to their minimum weight, the only one a shortest path can
+ * use, kept as a primitive and seen as a single weight list. Removing edges removes all of them, so count of collapsed
+ * edges is not kept.
+ */
+final class MinimumWeight extends AbstractList<Integer> implements RandomAccess {
+
+    private final int weight;
+
+    private MinimumWeight(int weight) {
+        this.weight = weight;
+    }
+
+    /**
+     * Weights of parallel edges with one more added, collapsed to the minimum.
+     */
+    static List<Integer> of(List<Integer> weights, int weight) {
+        int minimum = weight;
+        if (weights != null) {
+            for (Integer parallelWeight : weights) {
+                minimum = Math.min(minimum, parallelWeight);
+            }
+            if (weights instanceof MinimumWeight && ((MinimumWeight) weights).weight == minimum) {
+                return weights;
+            }
+        }
+        return new MinimumWeight(minimum);
+    }
+
+    @Override
+    public Integer get(int index) {
+        Preconditions.checkElementIndex(index, 1);
+        return weight;
+    }
+
+    @Override
+    public int size() {
+        return 1;
+    }
+}
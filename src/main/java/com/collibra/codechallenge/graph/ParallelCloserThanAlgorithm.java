@@ -0,0 +1,145 @@
+package com.collibra.codechallenge.graph;
+
+import com.google.common.collect.Lists;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiConsumer;
+
+/**
+ * Runs bounded radius Dijkstra from many initial nodes of one read-only snapshot, fanned out over
+ * {@link GraphWorkers}. Each worker keeps its distance labels in thread-local arrays sized to the largest graph seen,
+ * which are invalidated between runs by bumping a run stamp instead of clearing, so cost of a run depends only on
+ * explored part of the graph.
+ */
+class ParallelCloserThanAlgorithm {
+
+    private static final int TASKS_PER_WORKER = 8;
+
+    private static final ThreadLocal<Labels> LABELS = ThreadLocal.withInitial(Labels::new);
+
+    private final GraphSnapshot snapshot;
+
+    ParallelCloserThanAlgorithm(GraphSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Passes names of nodes closer than radius from each of initials to results, concurrently from pool workers.
+     */
+    void closerThan(int radius, int[] initials, BiConsumer<String, List<String>> results) {
+        int batchSize = Math.max(1, initials.length / (GraphWorkers.PARALLELISM * TASKS_PER_WORKER));
+        GraphWorkers.POOL.invoke(new Batch(radius, initials, 0, initials.length, batchSize, results));
+    }
+
+    private List<String> closerThan(int radius, int initial, Labels labels, GraphSnapshot.EdgeCursor adjacents) {
+        List<String> closerThan = Lists.newArrayList();
+        if (radius <= 0) {
+            return closerThan;
+        }
+        labels.startRun(snapshot.idBound());
+        LongMinHeap unsettled = labels.unsettled;
+        labels.put(initial, 0);
+        unsettled.add(initial);
+        while (!unsettled.isEmpty()) {
+            long next = unsettled.poll();
+            int distance = (int) (next >>> 32);
+            int current = (int) next;
+            if (distance > labels.get(current)) {
+                continue;
+            }
+            labels.nodesSettled++;
+            if (current != initial) {
+                closerThan.add(snapshot.name(current));
+            }
+            adjacents.reset(current);
+            while (adjacents.next()) {
+                labels.edgesRelaxed++;
+                int adjacent = adjacents.adjacent();
+                long candidate = (long) distance + adjacents.weight();
+                if (candidate < radius && candidate < labels.get(adjacent)) {
+                    labels.put(adjacent, (int) candidate);
+                    unsettled.add(candidate << 32 | adjacent);
+                }
+            }
+        }
+        return closerThan;
+    }
+
+    private final class Batch extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int radius;
+        private final int[] initials;
+        private final int from;
+        private final int to;
+        private final int batchSize;
+        private final BiConsumer<String, List<String>> results;
+
+        private Batch(int radius, int[] initials, int from, int to, int batchSize,
+                      BiConsumer<String, List<String>> results) {
+            this.radius = radius;
+            this.initials = initials;
+            this.from = from;
+            this.to = to;
+            this.batchSize = batchSize;
+            this.results = results;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > batchSize) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Batch(radius, initials, from, middle, batchSize, results),
+                        new Batch(radius, initials, middle, to, batchSize, results));
+                return;
+            }
+            Labels labels = LABELS.get();
+            GraphSnapshot.EdgeCursor adjacents = snapshot.outgoing();
+            for (int index = from; index < to; index++) {
+                int initial = initials[index];
+                results.accept(snapshot.name(initial), closerThan(radius, initial, labels, adjacents));
+            }
+            labels.publishStatistics();
+        }
+    }
+
+    private static final class Labels {
+
+        private int[] distances = new int[0];
+        private int[] runs = new int[0];
+        private int run;
+        private long nodesSettled;
+        private long edgesRelaxed;
+        private final LongMinHeap unsettled = new LongMinHeap(64);
+
+        private void startRun(int idBound) {
+            if (runs.length < idBound) {
+                distances = new int[idBound];
+                runs = new int[idBound];
+                run = 0;
+            }
+            if (++run == 0) {
+                Arrays.fill(runs, 0);
+                run = 1;
+            }
+        }
+
+        private int get(int node) {
+            return runs[node] == run ? distances[node] : Integer.MAX_VALUE;
+        }
+
+        private void put(int node, int distance) {
+            distances[node] = distance;
+            runs[node] = run;
+        }
+
+        private void publishStatistics() {
+            SearchStatistics.record(nodesSettled, edgesRelaxed);
+            nodesSettled = 0;
+            edgesRelaxed = 0;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.collibra.codechallenge.graph;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Nodes owned by one member of partitioned graph together with their outgoing edges, terminals of which may be owned
+ * by other partitions. Shortest path queries run on partitions as Pregel-style supersteps: vertex values of query are
+ * tentative distances kept by partition owning the vertex, messages are candidate distances sent along edges.
+ */
+public interface Partition {
+
+    void addNode(String name) throws Graph.NodeAlreadyExistsException;
+
+    /**
+     * Removes owned node with its outgoing edges and edges to it from other owned nodes.
+     */
+    void removeNode(String name) throws Graph.NodeNotFoundException;
+
+    boolean containsNode(String name);
+
+    /**
+     * Adds edge from owned node, terminal is validated by its owner beforehand.
+     */
+    void addEdge(String initial, String terminal, int weight) throws Graph.NodeNotFoundException;
+
+    void removeEdges(String initial, String terminal) throws Graph.NodeNotFoundException;
+
+    /**
+     * Removes edges from owned nodes to node removed by another partition.
+     */
+    void removeEdgesTo(String terminal);
+
+    /**
+     * Copies owned nodes with their outgoing edges.
+     */
+    Map<String, Map<String, List<Integer>>> nodes();
+
+    long nodeCount();
+
+    long edgeCount();
+
+    /**
+     * Adds messages of query to inbox read by the next superstep, keeping the lowest distance sent to each vertex.
+     */
+    void deliver(String query, Map<String, Integer> messages);
+
+    /**
+     * Runs one superstep of query on vertices improved by delivered messages. Distances not lower than bound are
+     * dropped. Messages to vertices of other partitions are delivered to them before returning.
+     */
+    SuperstepResult superstep(String query, int bound, String terminal);
+
+    /**
+     * Owned vertices reached by query at distance lower than bound.
+     */
+    List<String> reached(String query, int bound);
+
+    void finish(String query);
+}
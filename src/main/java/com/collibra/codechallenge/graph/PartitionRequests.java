@@ -0,0 +1,198 @@
+package com.collibra.codechallenge.graph;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.collect.Maps;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single line text encoding of {@link Partition} calls exchanged between members, request is operation followed by
+ * space separated arguments, reply is OK followed by result or ERROR followed by code of failure. Node names never
+ * contain separators used by the encoding.
+ */
+final class PartitionRequests {
+
+    static final String OK = "OK";
+
+    static final String ERROR = "ERROR";
+
+    static final String NODE_NOT_FOUND = "NODE_NOT_FOUND";
+
+    static final String NODE_ALREADY_EXISTS = "NODE_ALREADY_EXISTS";
+
+    static final String NO_TERMINAL = "*";
+
+    private static final char SEPARATOR = ' ';
+
+    private static final char ENTRY_SEPARATOR = ',';
+
+    private static final char NODE_SEPARATOR = ';';
+
+    private static final char VALUE_SEPARATOR = ':';
+
+    private static final Splitter ARGUMENTS = Splitter.on(SEPARATOR);
+
+    private static final Splitter ENTRIES = Splitter.on(ENTRY_SEPARATOR).omitEmptyStrings();
+
+    private static final Splitter NODES = Splitter.on(NODE_SEPARATOR).omitEmptyStrings();
+
+    private static final Splitter.MapSplitter MESSAGES = ENTRIES.withKeyValueSeparator(VALUE_SEPARATOR);
+
+    private static final Joiner.MapJoiner MESSAGES_JOINER = Joiner.on(ENTRY_SEPARATOR).withKeyValueSeparator(VALUE_SEPARATOR);
+
+    private PartitionRequests() {
+    }
+
+    enum Operation {
+        ADD_NODE,
+        REMOVE_NODE,
+        CONTAINS_NODE,
+        ADD_EDGE,
+        REMOVE_EDGES,
+        REMOVE_EDGES_TO,
+        NODES,
+        NODE_COUNT,
+        EDGE_COUNT,
+        DELIVER,
+        SUPERSTEP,
+        REACHED,
+        FINISH,
+    }
+
+    static String request(Operation operation, Object... arguments) {
+        StringBuilder request = new StringBuilder(operation.name());
+        for (Object argument : arguments) {
+            request.append(SEPARATOR).append(argument);
+        }
+        return request.toString();
+    }
+
+    /**
+     * Serves request with partition, failures are encoded in reply rather than thrown.
+     */
+    static String handle(Partition partition, String request) {
+        try {
+            return reply(partition, ARGUMENTS.splitToList(request));
+        } catch (Graph.NodeNotFoundException exception) {
+            return ERROR + SEPARATOR + NODE_NOT_FOUND;
+        } catch (Graph.NodeAlreadyExistsException exception) {
+            return ERROR + SEPARATOR + NODE_ALREADY_EXISTS;
+        } catch (RuntimeException exception) {
+            return ERROR + SEPARATOR + exception.toString().replaceAll("\\s+", " ");
+        }
+    }
+
+    private static String reply(Partition partition, List<String> request) {
+        switch (Operation.valueOf(request.get(0))) {
+            case ADD_NODE:
+                partition.addNode(request.get(1));
+                return OK;
+            case REMOVE_NODE:
+                partition.removeNode(request.get(1));
+                return OK;
+            case CONTAINS_NODE:
+                return ok(partition.containsNode(request.get(1)));
+            case ADD_EDGE:
+                partition.addEdge(request.get(1), request.get(2), Integer.parseInt(request.get(3)));
+                return OK;
+            case REMOVE_EDGES:
+                partition.removeEdges(request.get(1), request.get(2));
+                return OK;
+            case REMOVE_EDGES_TO:
+                partition.removeEdgesTo(request.get(1));
+                return OK;
+            case NODES:
+                return ok(encodeNodes(partition.nodes()));
+            case NODE_COUNT:
+                return ok(partition.nodeCount());
+            case EDGE_COUNT:
+                return ok(partition.edgeCount());
+            case DELIVER:
+                partition.deliver(request.get(1), decodeMessages(request.size() > 2 ? request.get(2) : ""));
+                return OK;
+            case SUPERSTEP:
+                String terminal = request.get(3);
+                SuperstepResult result = partition.superstep(request.get(1), Integer.parseInt(request.get(2)),
+                        NO_TERMINAL.equals(terminal) ? null : terminal);
+                return ok(result.getMessagesSent() + String.valueOf(SEPARATOR) + result.getTerminalDistance());
+            case REACHED:
+                return ok(Joiner.on(ENTRY_SEPARATOR).join(partition.reached(request.get(1),
+                        Integer.parseInt(request.get(2)))));
+            case FINISH:
+                partition.finish(request.get(1));
+                return OK;
+            default:
+                throw new IllegalArgumentException(request.get(0));
+        }
+    }
+
+    private static String ok(Object result) {
+        return OK + SEPARATOR + result;
+    }
+
+    /**
+     * Result of reply, or null for reply without one.
+     */
+    static String result(String reply) {
+        return reply.length() > OK.length() ? reply.substring(OK.length() + 1) : null;
+    }
+
+    static List<String> values(String result) {
+        return ARGUMENTS.splitToList(result);
+    }
+
+    static boolean isError(String reply) {
+        return reply.startsWith(ERROR);
+    }
+
+    static String error(String reply) {
+        return reply.substring(ERROR.length() + 1);
+    }
+
+    static String encodeMessages(Map<String, Integer> messages) {
+        return MESSAGES_JOINER.join(messages);
+    }
+
+    static Map<String, Integer> decodeMessages(String messages) {
+        return messages.isEmpty()
+                ? Maps.newHashMap()
+                : Maps.newHashMap(Maps.transformValues(MESSAGES.split(messages), Integer::valueOf));
+    }
+
+    static List<String> decodeNames(String names) {
+        return ENTRIES.splitToList(names == null ? "" : names);
+    }
+
+    /**
+     * Nodes separated by semicolons, each node followed by its edges as comma separated terminal:weight pairs.
+     */
+    static String encodeNodes(Map<String, Map<String, List<Integer>>> nodes) {
+        StringBuilder encoded = new StringBuilder();
+        nodes.forEach((node, adjacents) -> {
+            if (encoded.length() > 0) {
+                encoded.append(NODE_SEPARATOR);
+            }
+            encoded.append(node);
+            adjacents.forEach((terminal, weights) -> weights.forEach(weight ->
+                    encoded.append(ENTRY_SEPARATOR).append(terminal).append(VALUE_SEPARATOR).append(weight)));
+        });
+        return encoded.toString();
+    }
+
+    static Map<String, Map<String, List<Integer>>> decodeNodes(String encoded) {
+        Map<String, Map<String, List<Integer>>> nodes = Maps.newHashMap();
+        for (String node : NODES.split(encoded == null ? "" : encoded)) {
+            List<String> entries = Splitter.on(ENTRY_SEPARATOR).splitToList(node);
+            Map<String, List<Integer>> adjacents = Maps.newHashMap();
+            for (String edge : entries.subList(1, entries.size())) {
+                int separator = edge.indexOf(VALUE_SEPARATOR);
+                adjacents.compute(edge.substring(0, separator), (terminal, weights) ->
+                        MinimumWeight.of(weights, Integer.parseInt(edge.substring(separator + 1))));
+            }
+            nodes.put(entries.get(0), adjacents);
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,105 @@
+package com.collibra.codechallenge.graph;
+
+import com.google.common.collect.Maps;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Graph with nodes hash-partitioned across members, each mutation is routed to partition owning initial node after
+ * terminal node is validated by its owner. Partitions are not locked across each other, so mutation racing with
+ * removal of its terminal may leave edge to removed node, which queries ignore.
+ */
+class PartitionedGraph implements Graph<String> {
+
+    private final Partitions partitions;
+    private final ShortestPathResolver<String> shortestPathResolver;
+
+    public PartitionedGraph(Partitions partitions, ShortestPathResolver<String> shortestPathResolver) {
+        this.partitions = partitions;
+        this.shortestPathResolver = shortestPathResolver;
+    }
+
+    /**
+     * Copies nodes of all partitions, which is meant for tests and occasional inspection only.
+     */
+    @Override
+    public Map<String, Map<String, List<Integer>>> nodes() {
+        Map<String, Map<String, List<Integer>>> nodes = Maps.newHashMap();
+        partitions.all().forEach(partition -> nodes.putAll(partition.nodes()));
+        return nodes;
+    }
+
+    @Override
+    public void addNode(String name) throws NodeAlreadyExistsException {
+        partitions.owner(name).addNode(name);
+    }
+
+    /**
+     * Removes node by its owner, then edges to it from nodes of other partitions.
+     */
+    @Override
+    public void removeNode(String name) throws NodeNotFoundException {
+        Partition owner = partitions.owner(name);
+        owner.removeNode(name);
+        partitions.all().stream()
+                .filter(partition -> partition != owner)
+                .forEach(partition -> partition.removeEdgesTo(name));
+    }
+
+    @Override
+    public void addEdge(String initial, String terminal, Integer weight) throws NodeNotFoundException {
+        validateNodeExists(terminal);
+
+        partitions.owner(initial).addEdge(initial, terminal, weight);
+    }
+
+    @Override
+    public void removeEdges(String initial, String terminal) throws NodeNotFoundException {
+        validateNodeExists(terminal);
+
+        partitions.owner(initial).removeEdges(initial, terminal);
+    }
+
+    @Override
+    public Integer shortestPath(String initial, String terminal) throws NodeNotFoundException {
+        validateNodeExists(initial);
+        validateNodeExists(terminal);
+
+        return shortestPathResolver.shortestPath(initial, terminal);
+    }
+
+    @Override
+    public String closerThan(String initial, Integer distance) throws NodeNotFoundException {
+        validateNodeExists(initial);
+
+        return shortestPathResolver.closerThan(distance, initial).stream()
+                .sorted()
+                .collect(Collectors.joining(","));
+    }
+
+    @Override
+    public long nodeCount() {
+        return partitions.all().stream().mapToLong(Partition::nodeCount).sum();
+    }
+
+    @Override
+    public long edgeCount() {
+        return partitions.all().stream().mapToLong(Partition::edgeCount).sum();
+    }
+
+    @Override
+    public void validateNodeExists(String node) {
+        if (!partitions.owner(node).containsNode(node)) {
+            throw new NodeNotFoundException();
+        }
+    }
+
+    @Override
+    public void validateNodeNotExists(String node) {
+        if (partitions.owner(node).containsNode(node)) {
+            throw new NodeAlreadyExistsException();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.collibra.codechallenge.graph;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Partitions of graph indexed by member, with nodes assigned to them by hash of name. Hash function is fixed rather
+ * than {@link Object#hashCode()}, so all members agree on owners of nodes.
+ */
+public final class Partitions {
+
+    private static final HashFunction OWNER_HASH = Hashing.murmur3_32();
+
+    private final List<Partition> partitions;
+    private final int localIndex;
+
+    private Partitions(int size, int localIndex, IntFunction<Partition> remotePartitions) {
+        ImmutableList.Builder<Partition> partitions = ImmutableList.builderWithExpectedSize(size);
+        for (int index = 0; index < size; index++) {
+            partitions.add(index == localIndex || localIndex < 0
+                    ? new LocalPartition(this, index)
+                    : remotePartitions.apply(index));
+        }
+        this.partitions = partitions.build();
+        this.localIndex = localIndex;
+    }
+
+    /**
+     * Partitions of member with given index, all other partitions are reached through remote ones.
+     */
+    public static Partitions of(int size, int localIndex, IntFunction<Partition> remotePartitions) {
+        return new Partitions(size, localIndex, remotePartitions);
+    }
+
+    /**
+     * All partitions held in this process, which partitions graph without distributing it.
+     */
+    static Partitions local(int size) {
+        return new Partitions(size, -1, index -> {
+            throw new IllegalStateException();
+        });
+    }
+
+    public Partition localPartition() {
+        return partitions.get(localIndex);
+    }
+
+    int size() {
+        return partitions.size();
+    }
+
+    Partition get(int index) {
+        return partitions.get(index);
+    }
+
+    List<Partition> all() {
+        return partitions;
+    }
+
+    int ownerIndex(String node) {
+        return Math.floorMod(OWNER_HASH.hashUnencodedChars(node).asInt(), partitions.size());
+    }
+
+    Partition owner(String node) {
+        return partitions.get(ownerIndex(node));
+    }
+}
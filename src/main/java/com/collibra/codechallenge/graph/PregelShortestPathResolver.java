@@ -0,0 +1,99 @@
+package com.collibra.codechallenge.graph;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import lombok.RequiredArgsConstructor;
+import org.apache.log4j.Logger;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Shortest paths over {@link Partitions} computed in bulk synchronous supersteps. Coordinator delivers distance zero
+ * to initial vertex, then runs supersteps on all partitions at once until none of them sends a message. Partitions
+ * deliver messages to each other directly before finishing superstep, so coordinator only acts as barrier. Distances
+ * not lower than best distance of terminal, or than radius, are dropped by partitions, which bounds the search the same
+ * way settling terminal bounds Dijkstra.
+ */
+@RequiredArgsConstructor
+class PregelShortestPathResolver implements ShortestPathResolver<String> {
+
+    private static final Logger log = Logger.getLogger(PregelShortestPathResolver.class);
+
+    private final Partitions partitions;
+    private final Executor executor;
+
+    @Override
+    public Integer shortestPath(String initial, String terminal) {
+        return run(initial, Integer.MAX_VALUE, terminal, (query, bound) -> bound);
+    }
+
+    @Override
+    public List<String> closerThan(Integer weight, String initial) {
+        if (weight <= 0) {
+            return Lists.newArrayList();
+        }
+        return run(initial, weight, null, (query, bound) -> all(partition -> partition.reached(query, bound)).stream()
+                .flatMap(List::stream)
+                .filter(node -> !node.equals(initial))
+                .collect(Collectors.toList()));
+    }
+
+    private <T> T run(String initial, int radius, String terminal, BiFunction<String, Integer, T> result) {
+        String query = UUID.randomUUID().toString();
+        try {
+            partitions.owner(initial).deliver(query, ImmutableMap.of(initial, 0));
+            int bound = radius;
+            long messagesSent;
+            do {
+                int superstepBound = bound;
+                messagesSent = 0;
+                for (SuperstepResult superstep : all(partition -> partition.superstep(query, superstepBound, terminal))) {
+                    messagesSent += superstep.getMessagesSent();
+                    bound = Math.min(bound, superstep.getTerminalDistance());
+                }
+            } while (messagesSent > 0);
+            return result.apply(query, bound);
+        } finally {
+            finish(query);
+        }
+    }
+
+    /**
+     * Releases state of query on every partition, failures are only logged so that they never replace result or
+     * failure of query itself. State left on unavailable partitions expires there.
+     */
+    private void finish(String query) {
+        CompletableFuture.allOf(partitions.all().stream()
+                .map(partition -> CompletableFuture.runAsync(() -> partition.finish(query), executor)
+                        .exceptionally(throwable -> {
+                            log.warn("Finishing query " + query + " failed", throwable);
+                            return null;
+                        }))
+                .toArray(CompletableFuture<?>[]::new))
+                .join();
+    }
+
+    /**
+     * Calls all partitions concurrently, waiting for all of them before rethrowing failure of any.
+     */
+    private <T> List<T> all(Function<Partition, T> call) {
+        List<CompletableFuture<T>> calls = partitions.all().stream()
+                .map(partition -> CompletableFuture.supplyAsync(() -> call.apply(partition), executor))
+                .collect(Collectors.toList());
+        try {
+            CompletableFuture.allOf(calls.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException exception) {
+            throw exception.getCause() instanceof RuntimeException
+                    ? (RuntimeException) exception.getCause()
+                    : exception;
+        }
+        return calls.stream().map(CompletableFuture::join).collect(Collectors.toList());
+    }
+}
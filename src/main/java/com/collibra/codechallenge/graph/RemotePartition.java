@@ -0,0 +1,108 @@
+package com.collibra.codechallenge.graph;
+
+import com.collibra.codechallenge.graph.PartitionRequests.Operation;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Partition of another member, calls are encoded by {@link PartitionRequests} and passed to transport returning
+ * reply of the member. Failures of transport, or of member itself, make partition unavailable for the call.
+ */
+@RequiredArgsConstructor
+class RemotePartition implements Partition {
+
+    private final Function<String, String> transport;
+
+    @Override
+    public void addNode(String name) throws Graph.NodeAlreadyExistsException {
+        call(Operation.ADD_NODE, name);
+    }
+
+    @Override
+    public void removeNode(String name) throws Graph.NodeNotFoundException {
+        call(Operation.REMOVE_NODE, name);
+    }
+
+    @Override
+    public boolean containsNode(String name) {
+        return Boolean.parseBoolean(call(Operation.CONTAINS_NODE, name));
+    }
+
+    @Override
+    public void addEdge(String initial, String terminal, int weight) throws Graph.NodeNotFoundException {
+        call(Operation.ADD_EDGE, initial, terminal, weight);
+    }
+
+    @Override
+    public void removeEdges(String initial, String terminal) throws Graph.NodeNotFoundException {
+        call(Operation.REMOVE_EDGES, initial, terminal);
+    }
+
+    @Override
+    public void removeEdgesTo(String terminal) {
+        call(Operation.REMOVE_EDGES_TO, terminal);
+    }
+
+    @Override
+    public Map<String, Map<String, List<Integer>>> nodes() {
+        return PartitionRequests.decodeNodes(call(Operation.NODES));
+    }
+
+    @Override
+    public long nodeCount() {
+        return Long.parseLong(call(Operation.NODE_COUNT));
+    }
+
+    @Override
+    public long edgeCount() {
+        return Long.parseLong(call(Operation.EDGE_COUNT));
+    }
+
+    @Override
+    public void deliver(String query, Map<String, Integer> messages) {
+        call(Operation.DELIVER, query, PartitionRequests.encodeMessages(messages));
+    }
+
+    @Override
+    public SuperstepResult superstep(String query, int bound, String terminal) {
+        List<String> result = PartitionRequests.values(call(Operation.SUPERSTEP, query, bound,
+                terminal == null ? PartitionRequests.NO_TERMINAL : terminal));
+        return new SuperstepResult(Long.parseLong(result.get(0)), Integer.parseInt(result.get(1)));
+    }
+
+    @Override
+    public List<String> reached(String query, int bound) {
+        return PartitionRequests.decodeNames(call(Operation.REACHED, query, bound));
+    }
+
+    @Override
+    public void finish(String query) {
+        call(Operation.FINISH, query);
+    }
+
+    /**
+     * Result of reply to call, with node errors rethrown as the same exceptions local partition would throw.
+     */
+    private String call(Operation operation, Object... arguments) {
+        String reply;
+        try {
+            reply = transport.apply(PartitionRequests.request(operation, arguments));
+        } catch (RuntimeException exception) {
+            throw new Graph.PartitionUnavailableException(exception);
+        }
+        if (!PartitionRequests.isError(reply)) {
+            return PartitionRequests.result(reply);
+        }
+        String error = PartitionRequests.error(reply);
+        if (PartitionRequests.NODE_NOT_FOUND.equals(error)) {
+            throw new Graph.NodeNotFoundException();
+        }
+        if (PartitionRequests.NODE_ALREADY_EXISTS.equals(error)) {
+            throw new Graph.NodeAlreadyExistsException();
+        }
+        throw new Graph.PartitionUnavailableException(new IllegalStateException(error));
+    }
+}
@@ -0,0 +1,30 @@
+package com.collibra.codechallenge.graph;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Work done by all shortest path searches since start. Searches count settled nodes and scanned edges in plain local
+ * fields and publish them once when they finish, so counting costs nothing inside of search loops.
+ */
+public final class SearchStatistics {
+
+    private static final LongAdder NODES_SETTLED = new LongAdder();
+
+    private static final LongAdder EDGES_RELAXED = new LongAdder();
+
+    private SearchStatistics() {
+    }
+
+    static void record(long nodesSettled, long edgesRelaxed) {
+        NODES_SETTLED.add(nodesSettled);
+        EDGES_RELAXED.add(edgesRelaxed);
+    }
+
+    public static long nodesSettled() {
+        return NODES_SETTLED.sum();
+    }
+
+    public static long edgesRelaxed() {
+        return EDGES_RELAXED.sum();
+    }
+}
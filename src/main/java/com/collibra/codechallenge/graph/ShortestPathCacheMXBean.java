@@ -0,0 +1,10 @@
+package com.collibra.codechallenge.graph;
+
+public interface ShortestPathCacheMXBean {
+
+    long getHitCount();
+
+    long getMissCount();
+
+    long getSize();
+}
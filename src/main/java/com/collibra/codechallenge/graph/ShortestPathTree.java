@@ -0,0 +1,189 @@
+package com.collibra.codechallenge.graph;
+
+import com.google.common.collect.Lists;
+import io.vavr.collection.Vector;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+
+class ShortestPathTree {
+
+    private static final int HOT_TREE_QUERIES = Integer.getInteger("graph.cache.hotTreeQueries", 3);
+
+    private static final int MAXIMUM_REPAIRED_MUTATIONS = 1024;
+
+    /**
+     * Distance and parent of each node id, with three arrays of repair heap allocated once tree is repaired.
+     */
+    private static final int BYTES_PER_NODE = 5 * Integer.BYTES;
+
+    private final int initial;
+    private final long queries;
+
+    private GraphSnapshot snapshot;
+    private int[] distances;
+    private int[] parents;
+    private long hits;
+    private IndexedMinHeap unsettled;
+
+    private ShortestPathTree(GraphSnapshot snapshot, int initial, int[] distances, int[] parents, long queries) {
+        this.snapshot = snapshot;
+        this.initial = initial;
+        this.distances = distances;
+        this.parents = parents;
+        this.queries = queries;
+    }
+
+    static ShortestPathTree compute(GraphSnapshot snapshot, int initial, long previousQueries) {
+        CompressedSparseRowDijkstraAlgorithm algorithm = new CompressedSparseRowDijkstraAlgorithm(snapshot);
+        return new ShortestPathTree(snapshot, initial, algorithm.distances(initial), algorithm.parents(), previousQueries + 1);
+    }
+
+    synchronized long version() {
+        return snapshot.version();
+    }
+
+    synchronized long queries() {
+        return queries + hits;
+    }
+
+    synchronized int estimatedBytes() {
+        return (int) Math.min(Integer.MAX_VALUE, (long) distances.length * BYTES_PER_NODE);
+    }
+
+    synchronized int distance(int node) {
+        return distances[node];
+    }
+
+    synchronized List<String> closerThan(int weight) {
+        List<String> closerThan = Lists.newArrayList();
+        for (int node = 0; node < distances.length; node++) {
+            if (node != initial && distances[node] < weight) {
+                closerThan.add(snapshot.name(node));
+            }
+        }
+        return closerThan;
+    }
+
+    synchronized boolean catchUp(GraphSnapshot target) {
+        if (snapshot.version() == target.version()) {
+            hits++;
+            return true;
+        }
+        if (queries() < HOT_TREE_QUERIES || target.version() < snapshot.version() || !target.hasSameBaseAs(snapshot)) {
+            return false;
+        }
+        Vector<GraphMutation> mutations = target.mutationsSince(snapshot);
+        if (mutations.size() > MAXIMUM_REPAIRED_MUTATIONS || !repair(mutations, target)) {
+            return false;
+        }
+        snapshot = target;
+        hits++;
+        return true;
+    }
+
+    private boolean repair(Vector<GraphMutation> mutations, GraphSnapshot target) {
+        Deque<Integer> roots = new ArrayDeque<>();
+        List<Integer> seeds = Lists.newArrayList();
+        for (GraphMutation mutation : mutations) {
+            switch (mutation.getType()) {
+                case REMOVE_NODE:
+                    int removed = snapshot.id(mutation.getInitial());
+                    if (removed == initial) {
+                        return false;
+                    }
+                    if (removed >= 0) {
+                        roots.add(removed);
+                    }
+                    break;
+                case REMOVE_EDGES:
+                    int parent = snapshot.id(mutation.getInitial());
+                    int child = snapshot.id(mutation.getTerminal());
+                    if (parent >= 0 && child >= 0 && parents[child] == parent) {
+                        roots.add(child);
+                    }
+                    break;
+                case ADD_EDGE:
+                    seeds.add(target.id(mutation.getTerminal()));
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        grow(target.idBound());
+        BitSet affected = descendantsOf(roots);
+        for (int node = affected.nextSetBit(0); node >= 0; node = affected.nextSetBit(node + 1)) {
+            distances[node] = Integer.MAX_VALUE;
+            parents[node] = -1;
+            seeds.add(node);
+        }
+
+        GraphSnapshot.EdgeCursor incoming = target.incoming();
+        for (int seed : seeds) {
+            if (!target.contains(seed)) {
+                continue;
+            }
+            incoming.reset(seed);
+            while (incoming.next()) {
+                relax(incoming.adjacent(), seed, incoming.weight());
+            }
+        }
+
+        GraphSnapshot.EdgeCursor outgoing = target.outgoing();
+        while (!unsettled.isEmpty()) {
+            int current = unsettled.poll();
+            outgoing.reset(current);
+            while (outgoing.next()) {
+                relax(current, outgoing.adjacent(), outgoing.weight());
+            }
+        }
+        return true;
+    }
+
+    private BitSet descendantsOf(Deque<Integer> roots) {
+        BitSet descendants = new BitSet();
+        GraphSnapshot.EdgeCursor outgoing = snapshot.outgoing();
+        roots.forEach(descendants::set);
+        while (!roots.isEmpty()) {
+            int parent = roots.poll();
+            outgoing.reset(parent);
+            while (outgoing.next()) {
+                int child = outgoing.adjacent();
+                if (parents[child] == parent && !descendants.get(child)) {
+                    descendants.set(child);
+                    roots.add(child);
+                }
+            }
+        }
+        return descendants;
+    }
+
+    private void relax(int parent, int child, int weight) {
+        if (distances[parent] == Integer.MAX_VALUE) {
+            return;
+        }
+        int distance = distances[parent] + weight;
+        if (distance < distances[child]) {
+            distances[child] = distance;
+            parents[child] = parent;
+            unsettled.insertOrDecrease(child, distance);
+        }
+    }
+
+    private void grow(int idBound) {
+        if (unsettled == null) {
+            unsettled = new IndexedMinHeap(idBound);
+        }
+        if (idBound > distances.length) {
+            int length = distances.length;
+            distances = Arrays.copyOf(distances, idBound);
+            parents = Arrays.copyOf(parents, idBound);
+            Arrays.fill(distances, length, idBound, Integer.MAX_VALUE);
+            Arrays.fill(parents, length, idBound, -1);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.collibra.codechallenge.graph;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Shortest path trees of initial nodes queried repeatedly, bounded by estimated bytes of trees rather than their
+ * count, as each tree holds several arrays indexed by node id. Initial nodes without tree are answered by cold query
+ * stopping at terminal or radius, and full tree is built only once they were queried treeAfterQueries times.
+ */
+class ShortestPathTreeCache {
+
+    private static final long MAXIMUM_COUNTED_NODES = 16 * 1024;
+
+    private final Cache<String, ShortestPathTree> trees;
+    private final Cache<String, AtomicInteger> coldQueries;
+    private final int treeAfterQueries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    ShortestPathTreeCache(long maximumBytes, int treeAfterQueries) {
+        this.trees = CacheBuilder.newBuilder()
+                .maximumWeight(maximumBytes)
+                .<String, ShortestPathTree>weigher((initial, tree) -> tree.estimatedBytes())
+                .build();
+        this.coldQueries = CacheBuilder.newBuilder()
+                .maximumSize(MAXIMUM_COUNTED_NODES)
+                .build();
+        this.treeAfterQueries = treeAfterQueries;
+    }
+
+    <RESULT> RESULT query(GraphSnapshot snapshot, String initial, Function<ShortestPathTree, RESULT> query,
+                          Supplier<RESULT> coldQuery) {
+        ShortestPathTree tree = trees.getIfPresent(initial);
+        if (tree != null) {
+            synchronized (tree) {
+                if (tree.catchUp(snapshot)) {
+                    hits.increment();
+                    return query.apply(tree);
+                }
+            }
+        }
+
+        misses.increment();
+        long previousQueries;
+        if (tree == null) {
+            int queries = coldQueries.asMap().computeIfAbsent(initial, node -> new AtomicInteger()).incrementAndGet();
+            if (queries < treeAfterQueries) {
+                return coldQuery.get();
+            }
+            coldQueries.invalidate(initial);
+            previousQueries = queries - 1;
+        } else {
+            previousQueries = tree.queries();
+        }
+        ShortestPathTree computed = ShortestPathTree.compute(snapshot, snapshot.existingId(initial), previousQueries);
+        RESULT result = query.apply(computed);
+        trees.asMap().merge(initial, computed, (cached, candidate) -> cached.version() >= candidate.version() ? cached : candidate);
+        return result;
+    }
+
+    long hitCount() {
+        return hits.sum();
+    }
+
+    long missCount() {
+        return misses.sum();
+    }
+
+    long size() {
+        return trees.size();
+    }
+}
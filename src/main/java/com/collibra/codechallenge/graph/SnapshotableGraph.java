@@ -0,0 +1,25 @@
+package com.collibra.codechallenge.graph;
+
+import java.util.function.Supplier;
+
+interface SnapshotableGraph extends Graph<String> {
+
+    /**
+     * Pins current state of the graph, excluding concurrent mutations while pinning; returned supplier may build
+     * the image later, concurrently with further mutations. Callers needing the image to match state kept outside of
+     * the graph, like position in write-ahead log, must exclude mutations themselves.
+     */
+    Supplier<GraphImage> pinImage();
+
+    /**
+     * Whether edge from initial to terminal exists, edges added between them again are collapsed into it.
+     */
+    boolean containsEdge(String initial, String terminal);
+
+    void restore(GraphImage image);
+
+    /**
+     * Adds nodes and edges of image to the graph, nodes already in the graph are reused.
+     */
+    void merge(GraphImage image);
+}
@@ -0,0 +1,14 @@
+package com.collibra.codechallenge.graph;
+
+import lombok.Value;
+
+/**
+ * Outcome of superstep on one partition: number of messages sent to other partitions, query halts once no partition
+ * sends any, and distance of terminal vertex if partition owns it.
+ */
+@Value
+public class SuperstepResult {
+
+    long messagesSent;
+    int terminalDistance;
+}
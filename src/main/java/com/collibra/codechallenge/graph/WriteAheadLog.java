@@ -0,0 +1,288 @@
+package com.collibra.codechallenge.graph;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of graph mutations split into segments named by position of their first record. Each record is
+ * length and CRC32 prefixed, so torn tail left by crash is detected and truncated on open. Appended records are
+ * buffered and committed by background flusher, which writes and forces them once per commit interval. Appenders not
+ * awaiting commit are acknowledged before records reach disk, which makes it asynchronous commit losing up to one
+ * interval of mutations on crash; only awaiting appenders share one force as group commit.
+ */
+final class WriteAheadLog implements Closeable {
+
+    private static final Logger log = Logger.getLogger(WriteAheadLog.class);
+
+    private static final long COMMIT_INTERVAL = Long.getLong("graph.wal.commitInterval", 10L);
+
+    private static final String SEGMENT_SUFFIX = ".wal";
+
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    private final Path directory;
+    private final Object appendLock = new Object();
+    private final Object commitLock = new Object();
+    private final CRC32 checksum = new CRC32();
+    private final ScheduledExecutorService flusher;
+
+    private ByteBuffer pending = ByteBuffer.allocate(64 * 1024);
+    private ByteBuffer committing = ByteBuffer.allocate(64 * 1024);
+    private long nextPosition;
+    private volatile long committedPosition;
+    private volatile IOException failure;
+    private long segmentPosition;
+    private FileChannel segment;
+
+    WriteAheadLog(Path directory, long fromPosition, Consumer<GraphMutation> replay) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        nextPosition = fromPosition;
+        long lastSegment = -1;
+        for (long position : segments()) {
+            lastSegment = position;
+            if (!replay(position, fromPosition, replay)) {
+                break;
+            }
+        }
+        if (nextPosition < fromPosition) {
+            nextPosition = fromPosition;
+            lastSegment = -1;
+        }
+        committedPosition = nextPosition;
+        openSegment(lastSegment < 0 ? nextPosition : lastSegment);
+        flusher = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("wal-flusher").setDaemon(true).build());
+        flusher.scheduleWithFixedDelay(this::commitQuietly, COMMIT_INTERVAL, COMMIT_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    long append(GraphMutation mutation) {
+        if (failure != null) {
+            throw new UncheckedIOException("Write-ahead log failed", failure);
+        }
+        byte[] initial = mutation.getInitial().getBytes(StandardCharsets.UTF_8);
+        byte[] terminal = mutation.getTerminal() == null ? new byte[0] : mutation.getTerminal().getBytes(StandardCharsets.UTF_8);
+        int length = 1 + 2 + initial.length + 2 + terminal.length + 4;
+        synchronized (appendLock) {
+            if (pending.remaining() < RECORD_HEADER_SIZE + length) {
+                pending = grow(pending, RECORD_HEADER_SIZE + length);
+            }
+            int start = pending.position();
+            pending.putInt(length)
+                    .putInt(0)
+                    .put((byte) mutation.getType().ordinal())
+                    .putShort((short) initial.length)
+                    .put(initial)
+                    .putShort((short) terminal.length)
+                    .put(terminal)
+                    .putInt(mutation.getWeight());
+            checksum.reset();
+            checksum.update(pending.array(), start + RECORD_HEADER_SIZE, length);
+            pending.putInt(start + 4, (int) checksum.getValue());
+            return nextPosition++;
+        }
+    }
+
+    /**
+     * Waits until record at position is forced to disk, failing when log failed or waiting was interrupted, as record
+     * may then never reach disk.
+     */
+    void awaitCommit(long position) {
+        synchronized (this) {
+            while (committedPosition <= position) {
+                if (failure != null) {
+                    throw new UncheckedIOException("Write-ahead log failed", failure);
+                }
+                try {
+                    wait();
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    throw new UncheckedIOException(new InterruptedIOException("Interrupted awaiting commit"));
+                }
+            }
+        }
+    }
+
+    void commit() throws IOException {
+        synchronized (commitLock) {
+            ByteBuffer batch;
+            long committed;
+            synchronized (appendLock) {
+                batch = pending;
+                pending = committing;
+                committing = batch;
+                committed = nextPosition;
+            }
+            batch.flip();
+            while (batch.hasRemaining()) {
+                segment.write(batch);
+            }
+            batch.clear();
+            if (committed > committedPosition) {
+                segment.force(false);
+            }
+            synchronized (this) {
+                committedPosition = committed;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Commits pending records and starts new segment, so that all records before returned position can be deleted
+     * once they are covered by snapshot. Must be called while appends are excluded.
+     */
+    long rotate() throws IOException {
+        synchronized (commitLock) {
+            commit();
+            if (segmentPosition < nextPosition) {
+                segment.close();
+                openSegment(nextPosition);
+            }
+            return nextPosition;
+        }
+    }
+
+    void deleteSegmentsBefore(long position) throws IOException {
+        List<Long> segments = segments();
+        for (int index = 0; index + 1 < segments.size() && segments.get(index + 1) <= position; index++) {
+            Files.deleteIfExists(segmentPath(segments.get(index)));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flusher.shutdown();
+        synchronized (commitLock) {
+            if (segment.isOpen()) {
+                commit();
+                segment.close();
+            }
+        }
+    }
+
+    private void commitQuietly() {
+        try {
+            commit();
+        } catch (IOException exception) {
+            log.error("Write-ahead log commit failed", exception);
+            synchronized (this) {
+                failure = exception;
+                notifyAll();
+            }
+            flusher.shutdown();
+        }
+    }
+
+    private boolean replay(long segmentStart, long fromPosition, Consumer<GraphMutation> replay) throws IOException {
+        Path path = segmentPath(segmentStart);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (channel.size() == 0) {
+                nextPosition = segmentStart;
+                return true;
+            }
+            MappedByteBuffer records = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            long position = segmentStart;
+            int valid = 0;
+            while (records.remaining() >= RECORD_HEADER_SIZE) {
+                int length = records.getInt();
+                int expectedChecksum = records.getInt();
+                if (length <= 0 || length > records.remaining()) {
+                    break;
+                }
+                ByteBuffer payload = records.slice();
+                payload.limit(length);
+                checksum.reset();
+                checksum.update(payload);
+                if ((int) checksum.getValue() != expectedChecksum) {
+                    break;
+                }
+                payload.flip();
+                if (position >= fromPosition) {
+                    replay.accept(decode(payload));
+                }
+                records.position(records.position() + length);
+                valid = records.position();
+                position++;
+            }
+            nextPosition = position;
+            if (valid < channel.size()) {
+                log.warn("Truncating torn tail of " + path + " at byte " + valid);
+                channel.truncate(valid);
+                return false;
+            }
+            return true;
+        }
+    }
+
+    private static GraphMutation decode(ByteBuffer payload) {
+        GraphMutation.Type type = GraphMutation.Type.values()[payload.get()];
+        String initial = readName(payload);
+        String terminal = readName(payload);
+        int weight = payload.getInt();
+        switch (type) {
+            case ADD_NODE:
+                return GraphMutation.addNode(initial);
+            case REMOVE_NODE:
+                return GraphMutation.removeNode(initial);
+            case ADD_EDGE:
+                return GraphMutation.addEdge(initial, terminal, weight);
+            case REMOVE_EDGES:
+                return GraphMutation.removeEdges(initial, terminal);
+            default:
+                throw new IllegalArgumentException("Unknown mutation: " + type);
+        }
+    }
+
+    private static String readName(ByteBuffer payload) {
+        byte[] bytes = new byte[payload.getShort()];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer, int required) {
+        ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + required));
+        buffer.flip();
+        return grown.put(buffer);
+    }
+
+    private void openSegment(long position) throws IOException {
+        segment = FileChannel.open(segmentPath(position), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        segment.position(segment.size());
+        segmentPosition = position;
+    }
+
+    private List<Long> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private Path segmentPath(long position) {
+        return directory.resolve(String.format("%020d%s", position, SEGMENT_SUFFIX));
+    }
+}
@@ -1,48 +1,246 @@
 package com.collibra.codechallenge.ioc;
 
+import com.collibra.codechallenge.cluster.PeerClient;
+import com.collibra.codechallenge.cluster.PeerServer;
+import com.collibra.codechallenge.graph.CompactGraphStore;
 import com.collibra.codechallenge.graph.Graph;
+import com.collibra.codechallenge.graph.GraphImplementations;
+import com.collibra.codechallenge.graph.GraphNamespaces;
+import com.collibra.codechallenge.graph.GraphTransferMXBean;
+import com.collibra.codechallenge.graph.Partitions;
+import com.collibra.codechallenge.graph.ShortestPathCacheMXBean;
 import com.collibra.codechallenge.graph.ShortestPathResolver;
 import com.collibra.codechallenge.protocol.Protocol;
+import com.collibra.codechallenge.protocol.ProtocolImplementations;
 import com.collibra.codechallenge.server.ChannelHandler;
+import com.collibra.codechallenge.server.MessageTracing;
 import com.collibra.codechallenge.server.Server;
-import com.google.common.collect.Lists;
+import com.collibra.codechallenge.server.ServerMetrics;
+import com.google.common.base.Splitter;
+import com.google.common.collect.Maps;
+import com.google.common.net.HostAndPort;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.vavr.Lazy;
+import io.vavr.control.Try;
 
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 public class Configuration {
 
+    private static final String COMPACT_DIRECTED_WEIGHTED_GRAPH = "CompactDirectedWeightedGraph";
+
+    private static final String GRAPH = System.getProperty("graph.backend", COMPACT_DIRECTED_WEIGHTED_GRAPH);
+
+    private static final String DATA_DIRECTORY = System.getProperty("graph.dataDirectory");
+
+    private static final String IMPORT = System.getProperty("graph.import");
+
+    private static final String GRAPHS_DIRECTORY = "graphs";
+
+    private static final String MAXIMUM_GRAPHS = "graph.maximumGraphs";
+
+    private static final long MEMORY_LIMIT = Long.getLong("graph.memoryLimit", 0L);
+
+    /**
+     * Approximate retained sizes of node and edge including indexes and object headers, used for memory accounting.
+     */
+    private static final int COMPACT_NODE_BYTES = 128;
+
+    private static final int COMPACT_EDGE_BYTES = 24;
+
+    private static final int MAP_NODE_BYTES = 320;
+
+    private static final int MAP_EDGE_BYTES = 112;
+
+    private static final String SHORTEST_PATH_RESOLVER = "graph.shortestPathResolver";
+
+    private static final String COMPACT_SHORTEST_PATH_RESOLVER = "graph.compact.shortestPathResolver";
+
+    private static final Lazy<Function<Map<String, Map<String, List<Integer>>>, ShortestPathResolver<String>>> SHORTEST_PATH_RESOLVER_FACTORY =
+            Lazy.of(() -> GraphImplementations.shortestPathResolver(
+                    System.getProperty(SHORTEST_PATH_RESOLVER, "BinaryHeapDijkstraShortestPathResolver")));
+
+    private static final Lazy<Function<CompactGraphStore, ShortestPathResolver<String>>> COMPACT_SHORTEST_PATH_RESOLVER_FACTORY =
+            Lazy.of(() -> GraphImplementations.compactShortestPathResolver(
+                    System.getProperty(COMPACT_SHORTEST_PATH_RESOLVER, "CachedShortestPathTreeResolver")));
+
+    private static final String CLUSTER_MEMBERS = System.getProperty("cluster.members");
+
+    private static final int CLUSTER_MEMBER = Integer.getInteger("cluster.member", 0);
+
+    private static final long CLUSTER_REQUEST_TIMEOUT = Long.getLong("cluster.requestTimeout", 30000L);
+
+    private static final String QUERY_THREADS = "server.queryThreads";
+
+    private static final String QUERY_QUEUE_DEPTH = "server.queryQueueDepth";
+
     public static Server server() {
+        registerMBean(new MessageTracing(), "MessageTracing");
         return new Server();
     }
 
-    public static ChannelHandler channelHandler(Map<String, Map<String, List<Integer>>> nodes) {
-        return new ChannelHandler(nodes);
+    public static ServerMetrics serverMetrics(GraphNamespaces graphNamespaces) {
+        ServerMetrics serverMetrics = new ServerMetrics(graphNamespaces);
+        registerMBean(serverMetrics, "ServerMetrics");
+        return serverMetrics;
+    }
+
+    public static ChannelHandler channelHandler(GraphNamespaces graphNamespaces, Executor queryExecutor) {
+        return new ChannelHandler(graphNamespaces, queryExecutor);
+    }
+
+    public static ExecutorService queryExecutor() {
+        int threads = Integer.getInteger(QUERY_THREADS, Runtime.getRuntime().availableProcessors());
+        return new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Integer.getInteger(QUERY_QUEUE_DEPTH, 1024)),
+                new ThreadFactoryBuilder().setNameFormat("query-%d").setDaemon(true).build(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public static Protocol graphMessagesProtocol(GraphNamespaces graphNamespaces) {
+        return ProtocolImplementations.graphMessagesProtocol(graphNamespaces);
+    }
+
+    public static GraphNamespaces graphNamespaces() {
+        GraphNamespaces graphNamespaces = graphNamespaces(graph());
+        registerMBean(graphNamespaces, "GraphNamespaces");
+        return graphNamespaces;
+    }
+
+    public static GraphNamespaces graphNamespaces(Graph<String> defaultGraph) {
+        return new GraphNamespaces(defaultGraph, Configuration::namedGraph, Integer.getInteger(MAXIMUM_GRAPHS, 256));
+    }
+
+    public static Graph<String> graph() {
+        if (CLUSTER_MEMBERS != null) {
+            if (DATA_DIRECTORY != null || IMPORT != null || MEMORY_LIMIT > 0) {
+                throw new IllegalStateException("graph.dataDirectory, graph.import and graph.memoryLimit are not "
+                        + "supported with cluster.members, partitions are kept in memory without limit");
+            }
+            return partitionedGraph(Splitter.on(',').trimResults().splitToList(CLUSTER_MEMBERS), CLUSTER_MEMBER);
+        }
+        Graph<String> graph = memoryBoundedGraph(DATA_DIRECTORY == null
+                ? inMemoryGraph(GraphNamespaces.DEFAULT_GRAPH)
+                : durableGraph(inMemoryGraph(GraphNamespaces.DEFAULT_GRAPH), DATA_DIRECTORY));
+        GraphTransferMXBean graphTransfer = graphTransfer(graph);
+        registerMBean(graphTransfer, "GraphTransfer");
+        if (IMPORT != null) {
+            Try.run(() -> graphTransfer.importGraph(IMPORT)).getOrElseThrow(throwable -> new RuntimeException(throwable));
+        }
+        return graph;
+    }
+
+    /**
+     * Default graph partitioned across members listed by their peer addresses, partition of this member is served to
+     * the others on its own address. Partitions are kept in memory only.
+     */
+    private static Graph<String> partitionedGraph(List<String> members, int member) {
+        EventLoopGroup peerGroup = new NioEventLoopGroup(0, new DefaultThreadFactory("peer-client", true));
+        Partitions partitions = Partitions.of(members.size(), member, index -> GraphImplementations.remotePartition(
+                new PeerClient(peerAddress(members.get(index)), peerGroup, CLUSTER_REQUEST_TIMEOUT)));
+        new PeerServer(peerAddress(members.get(member)), GraphImplementations.partitionRequests(partitions.localPartition()))
+                .start();
+        return GraphImplementations.partitionedGraph(partitions, Executors.newCachedThreadPool(
+                new ThreadFactoryBuilder().setNameFormat("partition-%d").setDaemon(true).build()));
     }
 
-    public static Protocol graphMessagesProtocol(Map<String, Map<String, List<Integer>>> nodes) {
-        return InstancesFactory.instance(
-                Protocol.class,
-                "GraphMessagesProtocol",
-                Lists.newArrayList(directedWeightedGraph(nodes, dijkstraAlgorithmShortestPathResolver(nodes))),
-                Lists.newArrayList(Graph.class));
+    private static InetSocketAddress peerAddress(String member) {
+        HostAndPort address = HostAndPort.fromString(member);
+        return new InetSocketAddress(address.getHost(), address.getPort());
     }
 
-    @SuppressWarnings("unchecked")
-    public static ShortestPathResolver<String> dijkstraAlgorithmShortestPathResolver(Map<String, Map<String, List<Integer>>> nodes) {
-        return InstancesFactory.instance(
-                ShortestPathResolver.class,
-                "DijkstraAlgorithmShortestPathResolver",
-                Lists.newArrayList(nodes),
-                Lists.newArrayList(Map.class));
+    public static GraphTransferMXBean graphTransfer(Graph<String> graph) {
+        return GraphImplementations.graphTransfer(graph);
+    }
+
+    /**
+     * Graph selected by sessions in addition to default one, persisted in its own subdirectory of data directory.
+     * Refused in cluster, where it would be local to the member instead of partitioned.
+     */
+    private static Graph<String> namedGraph(String name) {
+        if (CLUSTER_MEMBERS != null) {
+            throw new GraphNamespaces.NamedGraphsUnavailableException();
+        }
+        return memoryBoundedGraph(DATA_DIRECTORY == null
+                ? inMemoryGraph(name)
+                : durableGraph(inMemoryGraph(name), Paths.get(DATA_DIRECTORY, GRAPHS_DIRECTORY, encode(name)).toString()));
+    }
+
+    private static Graph<String> inMemoryGraph(String name) {
+        if (COMPACT_DIRECTED_WEIGHTED_GRAPH.equals(GRAPH)) {
+            CompactGraphStore store = new CompactGraphStore();
+            return compactDirectedWeightedGraph(store, compactShortestPathResolver(store, name));
+        }
+        Map<String, Map<String, List<Integer>>> nodes = Maps.newConcurrentMap();
+        return directedWeightedGraph(nodes, shortestPathResolver(nodes));
+    }
+
+    public static ShortestPathResolver<String> shortestPathResolver(Map<String, Map<String, List<Integer>>> nodes) {
+        return SHORTEST_PATH_RESOLVER_FACTORY.get().apply(nodes);
+    }
+
+    public static ShortestPathResolver<String> compactShortestPathResolver(CompactGraphStore store) {
+        return compactShortestPathResolver(store, GraphNamespaces.DEFAULT_GRAPH);
+    }
+
+    private static ShortestPathResolver<String> compactShortestPathResolver(CompactGraphStore store, String graphName) {
+        ShortestPathResolver<String> shortestPathResolver = COMPACT_SHORTEST_PATH_RESOLVER_FACTORY.get().apply(store);
+        if (shortestPathResolver instanceof ShortestPathCacheMXBean) {
+            registerMBean(shortestPathResolver, GraphNamespaces.DEFAULT_GRAPH.equals(graphName)
+                    ? "ShortestPathCache"
+                    : "ShortestPathCache,graph=" + ObjectName.quote(graphName));
+        }
+        return shortestPathResolver;
     }
 
-    @SuppressWarnings("unchecked")
     public static Graph<String> directedWeightedGraph(Map<String, Map<String, List<Integer>>> nodes, ShortestPathResolver<String> shortestPathResolver) {
-        return InstancesFactory.instance(
-                Graph.class,
-                "DirectedWeightedGraph",
-                Lists.newArrayList(nodes, shortestPathResolver),
-                Lists.newArrayList(Map.class, ShortestPathResolver.class));
+        return GraphImplementations.directedWeightedGraph(nodes, shortestPathResolver);
+    }
+
+    public static Graph<String> compactDirectedWeightedGraph(CompactGraphStore store, ShortestPathResolver<String> shortestPathResolver) {
+        return GraphImplementations.compactDirectedWeightedGraph(store, shortestPathResolver);
+    }
+
+    public static Graph<String> durableGraph(Graph<String> graph, String dataDirectory) {
+        return Try.of(() -> GraphImplementations.durableGraph(graph, dataDirectory))
+                .getOrElseThrow(throwable -> new RuntimeException(throwable));
+    }
+
+    private static Graph<String> memoryBoundedGraph(Graph<String> graph) {
+        return COMPACT_DIRECTED_WEIGHTED_GRAPH.equals(GRAPH)
+                ? GraphImplementations.memoryBoundedGraph(graph, MEMORY_LIMIT, COMPACT_NODE_BYTES, COMPACT_EDGE_BYTES)
+                : GraphImplementations.memoryBoundedGraph(graph, MEMORY_LIMIT, MAP_NODE_BYTES, MAP_EDGE_BYTES);
+    }
+
+    private static String encode(String graphName) {
+        return Try.of(() -> URLEncoder.encode(graphName, StandardCharsets.UTF_8.name()))
+                .getOrElseThrow(throwable -> new RuntimeException(throwable));
+    }
+
+    private static void registerMBean(Object mBean, String type) {
+        Try.run(() -> ManagementFactory.getPlatformMBeanServer()
+                .registerMBean(mBean, new ObjectName("com.collibra.codechallenge:type=" + type)))
+                .getOrElseThrow(throwable -> new RuntimeException(throwable));
     }
 }
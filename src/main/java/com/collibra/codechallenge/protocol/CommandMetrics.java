@@ -0,0 +1,57 @@
+package com.collibra.codechallenge.protocol;
+
+import com.google.common.collect.Maps;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies of processed commands in nanoseconds, failed commands and messages which were not understood, shared by
+ * all sessions since start.
+ */
+public final class CommandMetrics {
+
+    private static final EnumMap<InboundMessageParser.Command, LatencyHistogram> LATENCIES =
+            Maps.newEnumMap(InboundMessageParser.Command.class);
+
+    private static final LongAdder ERRORS = new LongAdder();
+
+    private static final LongAdder SORRY_REPLIES = new LongAdder();
+
+    static {
+        for (InboundMessageParser.Command command : InboundMessageParser.Command.values()) {
+            LATENCIES.put(command, new LatencyHistogram());
+        }
+    }
+
+    private CommandMetrics() {
+    }
+
+    static void recordLatency(InboundMessageParser.Command command, long nanos) {
+        LATENCIES.get(command).record(nanos);
+    }
+
+    static void recordError() {
+        ERRORS.increment();
+    }
+
+    static void recordSorryReply() {
+        SORRY_REPLIES.increment();
+    }
+
+    public static Map<String, LatencyHistogram> latencies() {
+        Map<String, LatencyHistogram> latencies = Maps.newLinkedHashMap();
+        LATENCIES.forEach((command, histogram) -> latencies.put(command.name(), histogram));
+        return Collections.unmodifiableMap(latencies);
+    }
+
+    public static long errors() {
+        return ERRORS.sum();
+    }
+
+    public static long sorryReplies() {
+        return SORRY_REPLIES.sum();
+    }
+}
@@ -1,26 +1,34 @@
 package com.collibra.codechallenge.protocol;
 
 import com.collibra.codechallenge.graph.Graph;
-import io.vavr.Function1;
+import com.collibra.codechallenge.graph.GraphNamespaces;
 import lombok.RequiredArgsConstructor;
 
-import java.util.Optional;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Stream;
-
-import static io.vavr.API.$;
-import static io.vavr.API.Case;
-import static io.vavr.API.Match;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 class GraphMessagesProtocol implements Protocol {
 
+    private static final int BATCH_STEP_SIZE = Integer.getInteger("protocol.batchStepSize", 256);
+
     public GraphMessagesProtocol(Graph<String> graph) {
-        this.graph = graph;
+        this(GraphNamespaces.of(graph));
     }
 
+    public GraphMessagesProtocol(GraphNamespaces graphNamespaces) {
+        this.graphNamespaces = graphNamespaces;
+        this.graph = graphNamespaces.defaultGraph();
+    }
+
+    private final GraphNamespaces graphNamespaces;
+
     private Graph<String> graph;
 
+    private final InboundMessageParser parser = new InboundMessageParser();
+
     private String clientName;
 
     @Override
@@ -34,83 +42,200 @@ class GraphMessagesProtocol implements Protocol {
     }
 
     @Override
-    public String processMessage(String message, String sessionTime) {
-        return InboundMessages.matches(message).map(inboundMessage -> Match(inboundMessage).of(
-                Case($(InboundMessages.HI_I_AM), hiIAm),
-                Case($(InboundMessages.BYE_MATE), (Function1<String, String>) msg -> byeMessage(sessionTime)),
-                Case($(InboundMessages.ADD_NODE), addNode),
-                Case($(InboundMessages.REMOVE_NODE), removeNode),
-                Case($(InboundMessages.ADD_EDGE), addEdge),
-                Case($(InboundMessages.REMOVE_EDGE), removeEdge),
-                Case($(InboundMessages.SHORTEST_PATH), shortestPath),
-                Case($(InboundMessages.CLOSER_THAN), closerThan)
-        ).apply(message)).orElse(OutboundMessages.SORRY.format());
+    public String busyMessage() {
+        return OutboundMessages.BUSY.format();
     }
 
-    private final Function1<String, String> hiIAm = (Function1<String, String>) message -> {
-        clientName = InboundMessages.HI_I_AM.find(message).group(1);
-        return OutboundMessages.HI.format(clientName);
-    };
-
-    private final Function1<String, String> addNode = message -> {
-        graph.addNode(InboundMessages.ADD_NODE.find(message).group(1));
-        return OutboundMessages.NODE_ADDED.format();
-    };
-
-    private final Function1<String, String> removeNode = message -> {
-        graph.removeNode(InboundMessages.REMOVE_NODE.find(message).group(1));
-        return OutboundMessages.NODE_REMOVED.format();
-    };
-
-    private final Function1<String, String> addEdge = message -> {
-        Matcher matcher = InboundMessages.ADD_EDGE.find(message);
-        graph.addEdge(matcher.group(1), matcher.group(2), Integer.valueOf(matcher.group(3)));
-        return OutboundMessages.EDGE_ADDED.format();
-    };
-
-    private final Function1<String, String> removeEdge = message -> {
-        Matcher matcher = InboundMessages.REMOVE_EDGE.find(message);
-        graph.removeEdges(matcher.group(1), matcher.group(2));
-        return OutboundMessages.EDGE_REMOVED.format();
-    };
-
-    private final Function1<String, String> shortestPath = message -> {
-        Matcher matcher = InboundMessages.SHORTEST_PATH.find(message);
-        Integer weight = graph.shortestPath(matcher.group(1), matcher.group(2));
-        return OutboundMessages.WEIGHT.format(weight);
-    };
-
-    private final Function1<String, String> closerThan = message -> {
-        Matcher matcher = InboundMessages.CLOSER_THAN.find(message);
-        String nodes = graph.closerThan(matcher.group(2), Integer.valueOf(matcher.group(1)));
-        return OutboundMessages.NODES.format(nodes);
-    };
+    /**
+     * Selecting graph is offloaded as well, first use of durable graph recovers it from disk.
+     */
+    @Override
+    public boolean isQuery(CharSequence message) {
+        InboundMessageParser.Command command = parser.parse(message);
+        return command == InboundMessageParser.Command.SHORTEST_PATH
+                || command == InboundMessageParser.Command.CLOSER_THAN
+                || command == InboundMessageParser.Command.BATCH_CLOSER_THAN
+                || command == InboundMessageParser.Command.USE_GRAPH;
+    }
 
-    @RequiredArgsConstructor
-    private enum InboundMessages {
-
-        HI_I_AM("HI, I AM ([A-Za-z0-9/-]+)" + System.lineSeparator()),
-        BYE_MATE("BYE MATE!" + System.lineSeparator()),
-        ADD_NODE("ADD NODE ([A-Za-z0-9/-]+)" + System.lineSeparator()),
-        REMOVE_NODE("REMOVE NODE ([A-Za-z0-9/-]+)" + System.lineSeparator()),
-        ADD_EDGE("ADD EDGE ([A-Za-z0-9/-]+) ([A-Za-z0-9/-]+) ([0-9]+)" + System.lineSeparator()),
-        REMOVE_EDGE("REMOVE EDGE ([A-Za-z0-9/-]+) ([A-Za-z0-9/-]+)" + System.lineSeparator()),
-        SHORTEST_PATH("SHORTEST PATH ([A-Za-z0-9/-]+) ([A-Za-z0-9/-]+)" + System.lineSeparator()),
-        CLOSER_THAN("CLOSER THAN ([0-9]+) ([A-Za-z0-9/-]+)" + System.lineSeparator()),
-        ;
+    /**
+     * Arguments of query are taken from message right away, so that it is parsed just once, when telling it is a query.
+     */
+    @Override
+    public BooleanSupplier processMessage(CharSequence message, String sessionTime, Consumer<String> replies) {
+        InboundMessageParser.Command command = parser.parse(message);
+        if (command == InboundMessageParser.Command.BATCH_CLOSER_THAN) {
+            return new CloserThanBatch(replies)::measuredStep;
+        }
+        if (isQuery(message)) {
+            Supplier<String> query = query(command);
+            return () -> {
+                replies.accept(measured(command, query));
+                return false;
+            };
+        }
+        return Protocol.super.processMessage(message, sessionTime, replies);
+    }
 
-        private final String regex;
+    @Override
+    public String processMessage(CharSequence message, String sessionTime) {
+        InboundMessageParser.Command command = parser.parse(message);
+        if (command == null) {
+            CommandMetrics.recordSorryReply();
+            return OutboundMessages.SORRY.format();
+        }
+        return measured(command, () -> reply(command, sessionTime));
+    }
 
-        Matcher find(String message) {
-            Matcher matcher = Pattern.compile(regex).matcher(message);
-            matcher.find();
-            return matcher;
+    /**
+     * Records latency of command into its histogram and counts it as error when it fails.
+     */
+    private <T> T measured(InboundMessageParser.Command command, Supplier<T> processing) {
+        long started = System.nanoTime();
+        try {
+            return processing.get();
+        } catch (RuntimeException exception) {
+            CommandMetrics.recordError();
+            throw exception;
+        } finally {
+            CommandMetrics.recordLatency(command, System.nanoTime() - started);
         }
+    }
 
-        static Optional<InboundMessages> matches(String message) {
-            return Stream.of(InboundMessages.values())
-                    .filter(inboundMessages -> Pattern.compile(inboundMessages.regex).matcher(message).matches())
-                    .findFirst();
+    private String reply(InboundMessageParser.Command command, String sessionTime) {
+        switch (command) {
+            case HI_I_AM:
+                clientName = parser.name(0);
+                return OutboundMessages.HI.format(clientName);
+            case BYE_MATE:
+                return byeMessage(sessionTime);
+            case ADD_NODE:
+                graph.addNode(parser.name(0));
+                return OutboundMessages.NODE_ADDED.format();
+            case REMOVE_NODE:
+                graph.removeNode(parser.name(0));
+                return OutboundMessages.NODE_REMOVED.format();
+            case ADD_EDGE:
+                graph.addEdge(parser.name(0), parser.name(1), parser.number(2));
+                return OutboundMessages.EDGE_ADDED.format();
+            case REMOVE_EDGE:
+                graph.removeEdges(parser.name(0), parser.name(1));
+                return OutboundMessages.EDGE_REMOVED.format();
+            case SHORTEST_PATH:
+            case CLOSER_THAN:
+            case USE_GRAPH:
+                return query(command).get();
+            case BATCH_CLOSER_THAN:
+                StringBuffer batch = new StringBuffer();
+                new CloserThanBatch(batch::append).run();
+                return batch.toString();
+            default:
+                CommandMetrics.recordSorryReply();
+                return OutboundMessages.SORRY.format();
+        }
+    }
+
+    /**
+     * Query with arguments taken from parsed message, to be resolved later.
+     */
+    private Supplier<String> query(InboundMessageParser.Command command) {
+        switch (command) {
+            case SHORTEST_PATH:
+                String initial = parser.name(0);
+                String terminal = parser.name(1);
+                return () -> OutboundMessages.WEIGHT.format(graph.shortestPath(initial, terminal));
+            case CLOSER_THAN:
+                Integer distance = parser.number(0);
+                String closerThanInitial = parser.name(1);
+                return () -> OutboundMessages.NODES.format(graph.closerThan(closerThanInitial, distance));
+            case USE_GRAPH:
+                String name = parser.name(0);
+                return () -> {
+                    graph = graphNamespaces.graph(name);
+                    return OutboundMessages.GRAPH_SELECTED.format();
+                };
+            default:
+                throw new IllegalArgumentException("Not a query: " + command);
+        }
+    }
+
+    /**
+     * Batch resolved in steps of at most BATCH_STEP_SIZE initial nodes, so that session may pause it between steps.
+     * First step validates listed nodes before any result is passed, or lists all nodes for wildcard. Nodes removed
+     * while batch runs are skipped. Latency of batch is recorded once, as sum of its steps.
+     */
+    private final class CloserThanBatch {
+
+        private final Graph<String> graph = GraphMessagesProtocol.this.graph;
+        private final Integer distance = parser.number(0);
+        private final boolean wildcard = parser.isWildcard(1);
+        private final BiConsumer<String, String> results;
+        private final Consumer<String> replies;
+        private List<String> initials = wildcard ? null : parser.names(1);
+        private int next;
+        private long processingTime;
+
+        private CloserThanBatch(Consumer<String> replies) {
+            this.replies = replies;
+            this.results = (initial, nodes) -> replies.accept(OutboundMessages.INITIAL_NODES.format(initial, nodes));
+        }
+
+        private void run() {
+            boolean more = true;
+            while (more) {
+                more = step();
+            }
+        }
+
+        private boolean measuredStep() {
+            long started = System.nanoTime();
+            boolean more = false;
+            try {
+                more = step();
+                return more;
+            } catch (RuntimeException exception) {
+                CommandMetrics.recordError();
+                throw exception;
+            } finally {
+                processingTime += System.nanoTime() - started;
+                if (!more) {
+                    CommandMetrics.recordLatency(InboundMessageParser.Command.BATCH_CLOSER_THAN, processingTime);
+                }
+            }
+        }
+
+        private boolean step() {
+            if (wildcard && initials == null) {
+                initials = graph.nodeNames();
+            } else if (next == 0) {
+                initials.forEach(graph::validateNodeExists);
+            }
+            List<String> step = initials.subList(next, Math.min(next + BATCH_STEP_SIZE, initials.size()));
+            next += step.size();
+            closerThanExisting(step);
+            if (next < initials.size()) {
+                return true;
+            }
+            replies.accept(OutboundMessages.END_OF_BATCH.format());
+            return false;
+        }
+
+        /**
+         * Graphs validate all initial nodes before passing any result, so step naming removed node is resolved again
+         * node by node.
+         */
+        private void closerThanExisting(List<String> step) {
+            try {
+                graph.closerThan(step, distance, results);
+            } catch (Graph.NodeNotFoundException exception) {
+                for (String initial : step) {
+                    try {
+                        results.accept(initial, graph.closerThan(initial, distance));
+                    } catch (Graph.NodeNotFoundException removed) {
+                        // removed after batch started, skipped
+                    }
+                }
+            }
         }
     }
 
@@ -127,12 +252,29 @@ class GraphMessagesProtocol implements Protocol {
         EDGE_REMOVED("EDGE REMOVED" + System.lineSeparator()),
         WEIGHT("%s" + System.lineSeparator()),
         NODES("%s" + System.lineSeparator()),
+        INITIAL_NODES("%s:%s" + System.lineSeparator()),
+        END_OF_BATCH("END OF BATCH" + System.lineSeparator()),
+        GRAPH_SELECTED("GRAPH SELECTED" + System.lineSeparator()),
+        BUSY("ERROR: SERVER BUSY" + System.lineSeparator()),
         ;
 
+        private static final String PLACEHOLDER = "%s";
+
         private final String format;
 
-        String format(Object... value) {
-            return String.format(format, value);
+        String format(Object... values) {
+            if (values.length == 0) {
+                return format;
+            }
+            StringBuilder message = new StringBuilder(format.length() + 16 * values.length);
+            int value = 0;
+            int index = 0;
+            int placeholder;
+            while ((placeholder = format.indexOf(PLACEHOLDER, index)) >= 0) {
+                message.append(format, index, placeholder).append(values[value++]);
+                index = placeholder + PLACEHOLDER.length();
+            }
+            return message.append(format, index, format.length()).toString();
         }
     }
 }
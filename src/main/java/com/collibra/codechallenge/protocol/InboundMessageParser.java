@@ -0,0 +1,173 @@
+package com.collibra.codechallenge.protocol;
+
+import com.google.common.base.Splitter;
+
+import java.util.List;
+
+class InboundMessageParser {
+
+    private static final Command[] COMMANDS = Command.values();
+    private static final int MAXIMUM_ARGUMENTS = 3;
+
+    private final int[] starts = new int[MAXIMUM_ARGUMENTS];
+    private final int[] ends = new int[MAXIMUM_ARGUMENTS];
+
+    private CharSequence message;
+    private Command command;
+
+    /**
+     * Parses message into command and its arguments. Message parsed last is not parsed again, as when protocol first
+     * tells whether message is a query and then processes it; message is expected not to change once parsed.
+     */
+    Command parse(CharSequence message) {
+        if (message == this.message) {
+            return command;
+        }
+        this.message = message;
+        this.command = null;
+        for (Command candidate : COMMANDS) {
+            if (startsWith(message, candidate.keyword)) {
+                command = tokenize(candidate) ? candidate : null;
+                break;
+            }
+        }
+        return command;
+    }
+
+    String name(int argument) {
+        return message.subSequence(starts[argument], ends[argument]).toString();
+    }
+
+    List<String> names(int argument) {
+        return Splitter.on(Argument.NAMES_SEPARATOR).splitToList(name(argument));
+    }
+
+    boolean isWildcard(int argument) {
+        return ends[argument] - starts[argument] == 1 && message.charAt(starts[argument]) == Argument.WILDCARD;
+    }
+
+    Integer number(int argument) {
+        int value = 0;
+        for (int index = starts[argument]; index < ends[argument]; index++) {
+            int digit = message.charAt(index) - '0';
+            if (value > (Integer.MAX_VALUE - digit) / 10) {
+                return Integer.valueOf(name(argument));
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private boolean tokenize(Command command) {
+        int index = command.keyword.length();
+        for (int argument = 0; argument < command.arguments.length; argument++) {
+            if (argument > 0) {
+                if (index == message.length() || message.charAt(index) != ' ') {
+                    return false;
+                }
+                index++;
+            }
+            starts[argument] = index;
+            while (index < message.length() && command.arguments[argument].accepts(message.charAt(index))) {
+                index++;
+            }
+            ends[argument] = index;
+            if (starts[argument] == index || !command.arguments[argument].accepts(message, starts[argument], index)) {
+                return false;
+            }
+        }
+        return index == message.length();
+    }
+
+    private static boolean startsWith(CharSequence message, String prefix) {
+        if (message.length() < prefix.length()) {
+            return false;
+        }
+        for (int index = 0; index < prefix.length(); index++) {
+            if (message.charAt(index) != prefix.charAt(index)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    enum Argument {
+
+        NAME {
+            @Override
+            boolean accepts(char character) {
+                return character >= 'A' && character <= 'Z'
+                        || character >= 'a' && character <= 'z'
+                        || character >= '0' && character <= '9'
+                        || character == '/'
+                        || character == '-';
+            }
+        },
+
+        NUMBER {
+            @Override
+            boolean accepts(char character) {
+                return character >= '0' && character <= '9';
+            }
+        },
+
+        /**
+         * Comma separated names, or wildcard standing for all names.
+         */
+        NAMES {
+            @Override
+            boolean accepts(char character) {
+                return NAME.accepts(character) || character == NAMES_SEPARATOR || character == WILDCARD;
+            }
+
+            @Override
+            boolean accepts(CharSequence message, int start, int end) {
+                if (end - start == 1 && message.charAt(start) == WILDCARD) {
+                    return true;
+                }
+                boolean nameStarted = false;
+                for (int index = start; index < end; index++) {
+                    char character = message.charAt(index);
+                    if (character == WILDCARD || character == NAMES_SEPARATOR && !nameStarted) {
+                        return false;
+                    }
+                    nameStarted = character != NAMES_SEPARATOR;
+                }
+                return nameStarted;
+            }
+        },
+        ;
+
+        private static final char NAMES_SEPARATOR = ',';
+        private static final char WILDCARD = '*';
+
+        abstract boolean accepts(char character);
+
+        boolean accepts(CharSequence message, int start, int end) {
+            return true;
+        }
+    }
+
+    enum Command {
+
+        HI_I_AM("HI, I AM ", Argument.NAME),
+        BYE_MATE("BYE MATE!"),
+        ADD_NODE("ADD NODE ", Argument.NAME),
+        REMOVE_NODE("REMOVE NODE ", Argument.NAME),
+        ADD_EDGE("ADD EDGE ", Argument.NAME, Argument.NAME, Argument.NUMBER),
+        REMOVE_EDGE("REMOVE EDGE ", Argument.NAME, Argument.NAME),
+        SHORTEST_PATH("SHORTEST PATH ", Argument.NAME, Argument.NAME),
+        CLOSER_THAN("CLOSER THAN ", Argument.NUMBER, Argument.NAME),
+        BATCH_CLOSER_THAN("BATCH CLOSER THAN ", Argument.NUMBER, Argument.NAMES),
+        USE_GRAPH("USE GRAPH ", Argument.NAME),
+        ;
+
+        private final String keyword;
+        private final Argument[] arguments;
+
+        Command(String keyword, Argument... arguments) {
+            this.keyword = keyword;
+            this.arguments = arguments;
+        }
+    }
+}
@@ -1,10 +1,30 @@
 package com.collibra.codechallenge.protocol;
 
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
 public interface Protocol {
 
     String helloMessage(String sessionId);
 
     String byeMessage(String sessionTime);
 
-    String processMessage(String message, String sessionTime);
+    String busyMessage();
+
+    boolean isQuery(CharSequence message);
+
+    String processMessage(CharSequence message, String sessionTime);
+
+    /**
+     * Prepares processing of message in steps, each passing its replies to consumer as soon as they are ready, possibly
+     * concurrently, before telling whether further steps remain. Caller may pause between steps without holding any
+     * thread, for example while client does not read replies. Message is read before returning only, so that it may be
+     * released while steps run.
+     */
+    default BooleanSupplier processMessage(CharSequence message, String sessionTime, Consumer<String> replies) {
+        return () -> {
+            replies.accept(processMessage(message, sessionTime));
+            return false;
+        };
+    }
 }
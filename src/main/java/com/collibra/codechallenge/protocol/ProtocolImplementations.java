@@ -0,0 +1,16 @@
+package com.collibra.codechallenge.protocol;
+
+import com.collibra.codechallenge.graph.GraphNamespaces;
+
+/**
+ * Constructors of package-private protocol implementations.
+ */
+public final class ProtocolImplementations {
+
+    private ProtocolImplementations() {
+    }
+
+    public static Protocol graphMessagesProtocol(GraphNamespaces graphNamespaces) {
+        return new GraphMessagesProtocol(graphNamespaces);
+    }
+}
@@ -0,0 +1,38 @@
+package com.collibra.codechallenge.server;
+
+import io.netty.buffer.ByteBuf;
+import lombok.RequiredArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+
+@RequiredArgsConstructor
+class ByteBufCharSequence implements CharSequence {
+
+    private final ByteBuf buffer;
+    private final int offset;
+    private final int length;
+
+    ByteBufCharSequence(ByteBuf buffer) {
+        this(buffer, buffer.readerIndex(), buffer.readableBytes());
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) (buffer.getByte(offset + index) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new ByteBufCharSequence(buffer, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        return buffer.toString(offset, length, StandardCharsets.ISO_8859_1);
+    }
+}
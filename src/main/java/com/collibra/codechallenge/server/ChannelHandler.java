@@ -1,117 +1,270 @@
 package com.collibra.codechallenge.server;
 
+import com.collibra.codechallenge.graph.GraphNamespaces;
 import com.collibra.codechallenge.ioc.Configuration;
 import com.collibra.codechallenge.protocol.Protocol;
 import com.google.common.collect.Lists;
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.handler.timeout.IdleStateHandler;
 import org.apache.log4j.Logger;
-import org.apache.log4j.MDC;
 
-import java.util.Collections;
-import java.util.List;
-import java.util.Map;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.Queue;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
 
-public class ChannelHandler extends SimpleChannelInboundHandler<String> {
+public class ChannelHandler extends SimpleChannelInboundHandler<ByteBuf> {
 
     private static final Logger log = Logger.getLogger(ChannelHandler.class);
 
-    private static final long SESSION_EXPIRATION_TIME = 30000L;
+    private static final LongAdder ACTIVE_SESSIONS = new LongAdder();
 
+    private static final long STEP_RETRY_DELAY = Long.getLong("server.stepRetryDelay", 10L);
+
+    private final SessionLog sessionLog;
     private final Protocol protocol;
+    private final Executor queryExecutor;
+    private final Queue<String> pendingMessages = Lists.newLinkedList();
 
-    private Timer timer;
-    private TimerTask timerTask;
-    private List<String> unfinishedMessages;
     private String sessionId;
     private long sessionStartTime;
+    private boolean reading;
+    private boolean querying;
+    private boolean flushScheduled;
+    private BooleanSupplier pausedQuery;
+    private long queryCompletedTime;
 
-    public ChannelHandler(Map<String, Map<String, List<Integer>>> nodes) {
-        this.protocol = Configuration.graphMessagesProtocol(nodes);
-        this.unfinishedMessages = Collections.synchronizedList(Lists.newLinkedList());
+    public ChannelHandler(GraphNamespaces graphNamespaces, Executor queryExecutor) {
+        this.protocol = Configuration.graphMessagesProtocol(graphNamespaces);
+        this.queryExecutor = queryExecutor;
         this.sessionId = UUID.randomUUID().toString();
-        MDC.put("Session-Id", sessionId);
+        this.sessionLog = new SessionLog(log, sessionId);
     }
 
     @Override
     public void channelActive(ChannelHandlerContext ctx) {
-        log.info("Session created");
-        log.info("Channel active");
+        sessionLog.info("Session created");
+        ACTIVE_SESSIONS.increment();
 
         sessionStartTime = System.currentTimeMillis();
-        scheduleSessionExpirationTask(ctx);
         String helloMessage = protocol.helloMessage(sessionId);
         ctx.writeAndFlush(helloMessage);
         ctx.fireChannelActive();
 
-        log.info("Hello message sent: " + helloMessage);
+        sessionLog.trace("Hello message sent: {}", helloMessage);
     }
 
     @Override
-    protected void channelRead0(ChannelHandlerContext ctx, String msg) {
-        log.info("Message received: " + msg);
-
-        cancelScheduledSessionExpirationTask();
-        scheduleSessionExpirationTask(ctx);
+    protected void channelRead0(ChannelHandlerContext ctx, ByteBuf frame) {
+        reading = true;
+        CharSequence message = new ByteBufCharSequence(frame);
+        sessionLog.trace("Message received: {}", message);
 
-        if(!unfinishedMessages.isEmpty()) {
-            String part = unfinishedMessages.stream().collect(Collectors.joining());
-            msg = part + msg;
-            unfinishedMessages.clear();
+        if (querying) {
+            pendingMessages.add(message.toString());
+            return;
         }
+        process(ctx, message);
+    }
 
-        if(!msg.contains(System.lineSeparator())) {
-            unfinishedMessages.add(msg);
-            return;
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) {
+        reading = false;
+        ctx.flush();
+        ctx.fireChannelReadComplete();
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) {
+        if (ctx.channel().isWritable() && !querying) {
+            sessionLog.debug("Channel writable, resuming reads");
+            ctx.channel().config().setAutoRead(true);
         }
+        if (ctx.channel().isWritable() && pausedQuery != null) {
+            BooleanSupplier query = pausedQuery;
+            pausedQuery = null;
+            resume(ctx, query);
+        }
+        ctx.fireChannelWritabilityChanged();
+    }
+
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object event) throws Exception {
+        if (event instanceof IdleStateEvent) {
+            IdleStateHandler idleState = ctx.pipeline().get(IdleStateHandler.class);
+            if (idleState != null && (querying
+                    || System.currentTimeMillis() - queryCompletedTime < idleState.getReaderIdleTimeInMillis())) {
+                sessionLog.debug("Session waiting for query, expiration restarted");
+                restartExpiration(ctx, idleState);
+                return;
+            }
+            String byeMessage = protocol.byeMessage(sessionTime());
+            ctx.writeAndFlush(byeMessage);
 
-        msg = protocol.processMessage(msg, String.valueOf(System.currentTimeMillis() - sessionStartTime));
-        ctx.writeAndFlush(msg);
+            sessionLog.info("Session expired, bye message sent: {}", byeMessage);
 
-        log.info("Message sent: " + msg);
+            ctx.channel().close();
+            return;
+        }
+        super.userEventTriggered(ctx, event);
     }
 
     @Override
     public void channelInactive(ChannelHandlerContext ctx) throws Exception {
-        log.info("Channel inactive");
+        sessionLog.info("Session closed");
+        ACTIVE_SESSIONS.decrement();
+        pausedQuery = null;
 
         super.channelInactive(ctx);
     }
 
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
-        log.error(cause);
+        sessionLog.error(cause);
 
         String msg = cause.getMessage();
         if(msg != null) {
-            ctx.writeAndFlush(msg);
+            write(ctx, msg);
+            if (!reading) {
+                ctx.flush();
+            }
+
+            sessionLog.trace("Message sent: {}", msg);
+        }
+    }
+
+    private void process(ChannelHandlerContext ctx, CharSequence message) {
+        if (protocol.isQuery(message)) {
+            query(ctx, message);
+            return;
+        }
+        String response = protocol.processMessage(message, sessionTime());
+        write(ctx, response);
+
+        sessionLog.trace("Message sent: {}", response);
+    }
+
+    private void query(ChannelHandlerContext ctx, CharSequence message) {
+        BooleanSupplier query = protocol.processMessage(message, sessionTime(),
+                response -> ctx.executor().execute(() -> stream(ctx, response)));
+        try {
+            runStep(ctx, query);
+        } catch (RejectedExecutionException exception) {
+            sessionLog.warn("Query rejected, executor saturated: {}", message);
+            write(ctx, protocol.busyMessage());
+            return;
+        }
+        querying = true;
+        ctx.channel().config().setAutoRead(false);
+    }
+
+    /**
+     * Runs next step of query on query executor, then passes query back to the event loop, behind replies of the step,
+     * to decide about further steps.
+     */
+    private void runStep(ChannelHandlerContext ctx, BooleanSupplier query) {
+        queryExecutor.execute(() -> {
+            try {
+                boolean more = query.getAsBoolean();
+                ctx.executor().execute(() -> {
+                    if (more) {
+                        resume(ctx, query);
+                    } else {
+                        completeQuery(ctx, null);
+                    }
+                });
+            } catch (RuntimeException exception) {
+                ctx.executor().execute(() -> completeQuery(ctx, exception));
+            }
+        });
+    }
 
-            log.info("Message sent: " + msg);
+    /**
+     * Runs further step of query unless replies of previous steps fill the channel, in which case query is paused until
+     * channel becomes writable again. Client not reading replies thus holds back only its own query, without keeping
+     * any thread of query executor. Step rejected by saturated executor is retried later, query of closed channel is
+     * dropped.
+     */
+    private void resume(ChannelHandlerContext ctx, BooleanSupplier query) {
+        if (!ctx.channel().isActive()) {
+            return;
+        }
+        if (!ctx.channel().isWritable()) {
+            sessionLog.debug("Channel not writable, pausing query");
+            pausedQuery = query;
+            return;
+        }
+        try {
+            runStep(ctx, query);
+        } catch (RejectedExecutionException exception) {
+            ctx.executor().schedule(() -> resume(ctx, query), STEP_RETRY_DELAY, TimeUnit.MILLISECONDS);
         }
     }
 
-    private void scheduleSessionExpirationTask(ChannelHandlerContext ctx) {
-        timer = new Timer();
-        timerTask = new TimerTask() {
-            @Override
-            public void run() {
-                String byeMessage = protocol.byeMessage(String.valueOf(System.currentTimeMillis() - sessionStartTime));
-                ctx.writeAndFlush(byeMessage);
+    /**
+     * Writes response of query still in progress, flushing once per run of responses queued on the event loop.
+     */
+    private void stream(ChannelHandlerContext ctx, String response) {
+        write(ctx, response);
+        if (!flushScheduled) {
+            flushScheduled = true;
+            ctx.executor().execute(() -> {
+                flushScheduled = false;
+                ctx.flush();
+            });
+        }
 
-                log.info("Bye message sent: " + byeMessage);
+        sessionLog.trace("Message sent: {}", response);
+    }
 
-                ctx.channel().close();
+    private void completeQuery(ChannelHandlerContext ctx, RuntimeException exception) {
+        querying = false;
+        queryCompletedTime = System.currentTimeMillis();
+        if (exception != null) {
+            exceptionCaught(ctx, exception);
+        }
+        while (!querying && !pendingMessages.isEmpty()) {
+            try {
+                process(ctx, pendingMessages.poll());
+            } catch (RuntimeException pendingException) {
+                exceptionCaught(ctx, pendingException);
             }
-        };
-        timer.schedule(timerTask, SESSION_EXPIRATION_TIME);
+        }
+        ctx.flush();
+        if (!querying && ctx.channel().isWritable()) {
+            ctx.channel().config().setAutoRead(true);
+        }
+    }
+
+    private void write(ChannelHandlerContext ctx, String response) {
+        ctx.write(response);
+        if (!ctx.channel().isWritable() && ctx.channel().config().isAutoRead()) {
+            sessionLog.debug("Channel not writable, suspending reads");
+            ctx.channel().config().setAutoRead(false);
+            ctx.flush();
+        }
+    }
+
+    /**
+     * Idle time is counted since the last read, which is suspended while query runs, so client waiting for reply of
+     * long query is not expired; expiration restarts instead, replacing idle state handler with fresh one.
+     */
+    private void restartExpiration(ChannelHandlerContext ctx, IdleStateHandler idleState) {
+        ctx.pipeline().replace(idleState, ctx.pipeline().context(idleState).name(),
+                new IdleStateHandler(idleState.getReaderIdleTimeInMillis(), 0, 0, TimeUnit.MILLISECONDS));
+    }
+
+    static long activeSessions() {
+        return ACTIVE_SESSIONS.sum();
     }
 
-    private void cancelScheduledSessionExpirationTask() {
-        timer.cancel();
-        timerTask.cancel();
+    private String sessionTime() {
+        return String.valueOf(System.currentTimeMillis() - sessionStartTime);
     }
 }
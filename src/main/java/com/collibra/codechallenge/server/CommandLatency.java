@@ -0,0 +1,19 @@
+package com.collibra.codechallenge.server;
+
+import lombok.Value;
+
+/**
+ * Latency percentiles of one command in microseconds, exposed as composite data by {@link ServerMetricsMXBean}.
+ */
+@Value
+public class CommandLatency {
+
+    String command;
+    long count;
+    double meanMicros;
+    double p50Micros;
+    double p90Micros;
+    double p99Micros;
+    double p999Micros;
+    double maxMicros;
+}
@@ -0,0 +1,72 @@
+package com.collibra.codechallenge.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import org.apache.log4j.Logger;
+
+import java.util.List;
+
+class LineFrameDecoder extends ByteToMessageDecoder {
+
+    private static final Logger log = Logger.getLogger(LineFrameDecoder.class);
+
+    private final byte[] separator;
+    private final int maximumLength;
+
+    private int scanned;
+    private boolean discarding;
+
+    LineFrameDecoder(byte[] separator, int maximumLength) {
+        this.separator = separator;
+        this.maximumLength = maximumLength;
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
+        int end;
+        while ((end = findEndOfLine(in)) >= 0) {
+            int length = end - in.readerIndex();
+            if (discarding || length > maximumLength) {
+                // an oversized line is passed on as an empty one, which the protocol does not understand
+                log.warn("Discarded line longer than " + maximumLength + " bytes");
+                in.skipBytes(length + separator.length);
+                out.add(Unpooled.EMPTY_BUFFER);
+                discarding = false;
+            } else {
+                out.add(in.readRetainedSlice(length));
+                in.skipBytes(separator.length);
+            }
+        }
+        if (in.readableBytes() > maximumLength + separator.length) {
+            discarding = true;
+            in.skipBytes(in.readableBytes() - separator.length);
+            scanned = in.readableBytes();
+        }
+    }
+
+    private int findEndOfLine(ByteBuf in) {
+        byte last = separator[separator.length - 1];
+        int index = in.indexOf(in.readerIndex() + scanned, in.writerIndex(), last);
+        while (index >= 0) {
+            int start = index - separator.length + 1;
+            if (start >= in.readerIndex() && startsWithSeparator(in, start)) {
+                scanned = 0;
+                return start;
+            }
+            index = in.indexOf(index + 1, in.writerIndex(), last);
+        }
+        scanned = in.readableBytes();
+        return -1;
+    }
+
+    private boolean startsWithSeparator(ByteBuf in, int start) {
+        for (int index = 0; index < separator.length; index++) {
+            if (in.getByte(start + index) != separator[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,22 @@
+package com.collibra.codechallenge.server;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+
+/**
+ * Switches tracing of every received and sent message at runtime by setting level of session log category.
+ */
+public class MessageTracing implements MessageTracingMXBean {
+
+    private final Logger log = Logger.getLogger(ChannelHandler.class);
+
+    @Override
+    public boolean isMessageTracing() {
+        return log.isTraceEnabled();
+    }
+
+    @Override
+    public void setMessageTracing(boolean messageTracing) {
+        log.setLevel(messageTracing ? Level.TRACE : null);
+    }
+}
@@ -0,0 +1,8 @@
+package com.collibra.codechallenge.server;
+
+public interface MessageTracingMXBean {
+
+    boolean isMessageTracing();
+
+    void setMessageTracing(boolean messageTracing);
+}
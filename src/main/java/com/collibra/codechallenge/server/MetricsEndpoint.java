@@ -0,0 +1,63 @@
+package com.collibra.codechallenge.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serves {@link ServerMetrics} as plain text on /metrics of loopback interface, for a local scraper or curl. Requests
+ * are handled by single dispatcher thread of the JDK HTTP server, independent of event loops serving sessions.
+ */
+public class MetricsEndpoint {
+
+    private static final Logger log = Logger.getLogger(MetricsEndpoint.class);
+
+    private static final String PATH = "/metrics";
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final ServerMetrics metrics;
+    private final HttpServer httpServer;
+
+    public MetricsEndpoint(ServerMetrics metrics, int port) throws IOException {
+        this.metrics = metrics;
+        this.httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.httpServer.createContext(PATH, this::handle);
+    }
+
+    public void start() {
+        httpServer.start();
+        log.info("Metrics endpoint started on " + httpServer.getAddress() + PATH);
+    }
+
+    public void stop() {
+        httpServer.stop(0);
+    }
+
+    public int port() {
+        return httpServer.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = metrics.scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream response = exchange.getResponseBody()) {
+                response.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+}
@@ -1,21 +1,19 @@
 package com.collibra.codechallenge.server;
 
+import com.collibra.codechallenge.graph.GraphNamespaces;
 import com.collibra.codechallenge.ioc.Configuration;
-import com.google.common.collect.Maps;
 import io.netty.bootstrap.ServerBootstrap;
-import io.netty.channel.ChannelInitializer;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
 import io.netty.channel.ChannelOption;
-import io.netty.channel.ChannelPipeline;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
-import io.netty.handler.codec.string.StringDecoder;
-import io.netty.handler.codec.string.StringEncoder;
+import io.netty.channel.WriteBufferWaterMark;
+import io.vavr.control.Option;
+import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
 
-import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import static io.vavr.control.Try.of;
 
@@ -23,37 +21,75 @@ public class Server {
 
     private static final Logger log = Logger.getLogger(Server.class);
 
-    private static final int PORT = 50000;
+    private static final int PORT = Integer.getInteger("server.port", 50000);
 
-    private final Map<String, Map<String, List<Integer>>> nodes = Maps.newConcurrentMap();
+    private static final Transport TRANSPORT = Transport.select(System.getProperty("server.transport"));
+
+    private static final int BOSS_THREADS = Integer.getInteger("server.bossThreads", 1);
+
+    private static final int WORKER_THREADS = Integer.getInteger("server.workerThreads", 0);
+
+    private static final int BACKLOG = Integer.getInteger("server.backlog", 1024);
+
+    private static final int SEND_BUFFER_SIZE = Integer.getInteger("server.sendBufferSize", 0);
+
+    private static final int RECEIVE_BUFFER_SIZE = Integer.getInteger("server.receiveBufferSize", 0);
+
+    private static final boolean TCP_NO_DELAY = Boolean.parseBoolean(System.getProperty("server.tcpNoDelay", "true"));
+
+    private static final boolean POOLED_ALLOCATOR = Boolean.parseBoolean(System.getProperty("server.pooledAllocator", "true"));
+
+    private static final int WRITE_BUFFER_LOW_WATER_MARK = Integer.getInteger("server.writeBuffer.lowWaterMark", 32 * 1024);
+
+    private static final int WRITE_BUFFER_HIGH_WATER_MARK = Integer.getInteger("server.writeBuffer.highWaterMark", 64 * 1024);
+
+    private static final int METRICS_PORT = Integer.getInteger("server.metricsPort", 0);
+
+    private final GraphNamespaces graphNamespaces = Configuration.graphNamespaces();
+
+    private final ServerMetrics metrics = Configuration.serverMetrics(graphNamespaces);
+
+    private final ExecutorService queryExecutor = Configuration.queryExecutor();
 
     public void start() {
-        EventLoopGroup parentGroup = new NioEventLoopGroup();
-        EventLoopGroup childGroup = new NioEventLoopGroup();
+        EventLoopGroup parentGroup = TRANSPORT.eventLoopGroup(BOSS_THREADS);
+        EventLoopGroup childGroup = TRANSPORT.eventLoopGroup(WORKER_THREADS);
+        ByteBufAllocator allocator = POOLED_ALLOCATOR
+                ? PooledByteBufAllocator.DEFAULT
+                : UnpooledByteBufAllocator.DEFAULT;
 
         ServerBootstrap bootstrap = new ServerBootstrap()
                 .group(parentGroup, childGroup)
-                .channel(NioServerSocketChannel.class)
-                .childHandler(new ChannelInitializer<SocketChannel>() {
-
-                    @Override
-                    protected void initChannel(SocketChannel channel) {
-                        ChannelPipeline pipeline = channel.pipeline();
-                        pipeline.addLast("decoder", new StringDecoder());
-                        pipeline.addLast("encoder", new StringEncoder());
-                        pipeline.addLast("handler", Configuration.channelHandler(nodes));
-                    }
-                }).option(ChannelOption.SO_BACKLOG, 1024)
-                .childOption(ChannelOption.SO_SNDBUF, 1024)
-                .childOption(ChannelOption.SO_RCVBUF, 1024)
-                .childOption(ChannelOption.SO_KEEPALIVE, true);
+                .channel(TRANSPORT.serverChannel())
+                .childHandler(new ServerChannelInitializer(graphNamespaces, queryExecutor))
+                .option(ChannelOption.SO_BACKLOG, BACKLOG)
+                .childOption(ChannelOption.ALLOCATOR, allocator)
+                .childOption(ChannelOption.TCP_NODELAY, TCP_NO_DELAY)
+                .childOption(ChannelOption.SO_KEEPALIVE, true)
+                .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK,
+                        new WriteBufferWaterMark(WRITE_BUFFER_LOW_WATER_MARK, WRITE_BUFFER_HIGH_WATER_MARK));
+        if (SEND_BUFFER_SIZE > 0) {
+            bootstrap.childOption(ChannelOption.SO_SNDBUF, SEND_BUFFER_SIZE);
+        }
+        if (RECEIVE_BUFFER_SIZE > 0) {
+            bootstrap.childOption(ChannelOption.SO_RCVBUF, RECEIVE_BUFFER_SIZE);
+        }
+
+        Option<MetricsEndpoint> metricsEndpoint = METRICS_PORT > 0
+                ? Option.some(of(() -> new MetricsEndpoint(metrics, METRICS_PORT))
+                        .getOrElseThrow(throwable -> new RuntimeException(throwable)))
+                : Option.none();
+        metricsEndpoint.forEach(MetricsEndpoint::start);
 
         of(() -> {
-            log.info("Server started");
+            log.info("Server started on port " + PORT + " with " + TRANSPORT + " transport");
             return bootstrap.bind(PORT).sync().channel().closeFuture().sync();
         }).onFailure(throwable -> log.error(throwable)).andFinally(() -> {
             parentGroup.shutdownGracefully();
             childGroup.shutdownGracefully();
+            queryExecutor.shutdown();
+            metricsEndpoint.forEach(MetricsEndpoint::stop);
+            LogManager.shutdown();
         });
     }
 }
@@ -0,0 +1,44 @@
+package com.collibra.codechallenge.server;
+
+import com.collibra.codechallenge.graph.Graph;
+import com.collibra.codechallenge.graph.GraphNamespaces;
+import com.collibra.codechallenge.ioc.Configuration;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelPipeline;
+import io.netty.handler.codec.string.StringEncoder;
+import io.netty.handler.timeout.IdleStateHandler;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+class ServerChannelInitializer extends ChannelInitializer<Channel> {
+
+    private static final int MAXIMUM_FRAME_LENGTH = Integer.getInteger("server.maximumFrameLength", 4096);
+
+    private static final long SESSION_EXPIRATION_TIME = Long.getLong("server.sessionExpirationTime", 30000L);
+
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+    private final GraphNamespaces graphNamespaces;
+    private final Executor queryExecutor;
+
+    ServerChannelInitializer(GraphNamespaces graphNamespaces, Executor queryExecutor) {
+        this.graphNamespaces = graphNamespaces;
+        this.queryExecutor = queryExecutor;
+    }
+
+    ServerChannelInitializer(Graph<String> graph, Executor queryExecutor) {
+        this(GraphNamespaces.of(graph), queryExecutor);
+    }
+
+    @Override
+    protected void initChannel(Channel channel) {
+        ChannelPipeline pipeline = channel.pipeline();
+        pipeline.addLast("idleState", new IdleStateHandler(SESSION_EXPIRATION_TIME, 0, 0, TimeUnit.MILLISECONDS));
+        pipeline.addLast("framer", new LineFrameDecoder(LINE_SEPARATOR, MAXIMUM_FRAME_LENGTH));
+        pipeline.addLast("encoder", new StringEncoder());
+        pipeline.addLast("handler", Configuration.channelHandler(graphNamespaces, queryExecutor));
+    }
+}
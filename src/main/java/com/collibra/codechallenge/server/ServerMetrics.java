@@ -0,0 +1,128 @@
+package com.collibra.codechallenge.server;
+
+import com.collibra.codechallenge.graph.Graph;
+import com.collibra.codechallenge.graph.GraphNamespaces;
+import com.collibra.codechallenge.graph.SearchStatistics;
+import com.collibra.codechallenge.protocol.CommandMetrics;
+import com.collibra.codechallenge.protocol.LatencyHistogram;
+import com.google.common.collect.Lists;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Exposes command latencies, error counters, search work and graph size through JMX and as text in Prometheus
+ * exposition format for {@link MetricsEndpoint}. Everything is recorded all the time, reading only takes snapshots.
+ * Graph sizes are read from node and edge counts the graphs keep up to date on mutation.
+ */
+public class ServerMetrics implements ServerMetricsMXBean {
+
+    private static final double NANOS_PER_MICRO = 1e3;
+
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final GraphNamespaces graphNamespaces;
+
+    public ServerMetrics(GraphNamespaces graphNamespaces) {
+        this.graphNamespaces = graphNamespaces;
+    }
+
+    @Override
+    public long getActiveSessions() {
+        return ChannelHandler.activeSessions();
+    }
+
+    @Override
+    public long getNodeCount() {
+        return graphNamespaces.graphs().values().stream().mapToLong(Graph::nodeCount).sum();
+    }
+
+    @Override
+    public long getEdgeCount() {
+        return graphNamespaces.graphs().values().stream().mapToLong(Graph::edgeCount).sum();
+    }
+
+    @Override
+    public long getErrorCount() {
+        return CommandMetrics.errors();
+    }
+
+    @Override
+    public long getSorryReplyCount() {
+        return CommandMetrics.sorryReplies();
+    }
+
+    @Override
+    public long getNodesSettledCount() {
+        return SearchStatistics.nodesSettled();
+    }
+
+    @Override
+    public long getEdgesRelaxedCount() {
+        return SearchStatistics.edgesRelaxed();
+    }
+
+    @Override
+    public List<CommandLatency> getCommandLatencies() {
+        List<CommandLatency> latencies = Lists.newArrayList();
+        CommandMetrics.latencies().forEach((command, histogram) -> {
+            LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+            latencies.add(new CommandLatency(command, snapshot.count(),
+                    snapshot.mean() / NANOS_PER_MICRO,
+                    snapshot.percentile(QUANTILES[0]) / NANOS_PER_MICRO,
+                    snapshot.percentile(QUANTILES[1]) / NANOS_PER_MICRO,
+                    snapshot.percentile(QUANTILES[2]) / NANOS_PER_MICRO,
+                    snapshot.percentile(QUANTILES[3]) / NANOS_PER_MICRO,
+                    snapshot.max() / NANOS_PER_MICRO));
+        });
+        return latencies;
+    }
+
+    public String scrape() {
+        StringBuilder text = new StringBuilder(4096);
+        text.append("# TYPE graph_command_latency_seconds summary\n");
+        for (Map.Entry<String, LatencyHistogram> latency : CommandMetrics.latencies().entrySet()) {
+            LatencyHistogram.Snapshot snapshot = latency.getValue().snapshot();
+            String command = latency.getKey();
+            for (double quantile : QUANTILES) {
+                sample(text, "graph_command_latency_seconds{command=\"" + command + "\",quantile=\"" + quantile + "\"}",
+                        snapshot.percentile(quantile) / NANOS_PER_SECOND);
+            }
+            sample(text, "graph_command_latency_seconds{command=\"" + command + "\",quantile=\"1.0\"}",
+                    snapshot.max() / NANOS_PER_SECOND);
+            sample(text, "graph_command_latency_seconds_sum{command=\"" + command + "\"}",
+                    snapshot.total() / NANOS_PER_SECOND);
+            sample(text, "graph_command_latency_seconds_count{command=\"" + command + "\"}", snapshot.count());
+        }
+        metric(text, "graph_command_errors_total", "counter", getErrorCount());
+        metric(text, "graph_sorry_replies_total", "counter", getSorryReplyCount());
+        metric(text, "graph_search_nodes_settled_total", "counter", getNodesSettledCount());
+        metric(text, "graph_search_edges_relaxed_total", "counter", getEdgesRelaxedCount());
+        Map<String, Graph<String>> graphs = graphNamespaces.graphs();
+        Map<String, Long> estimatedBytes = graphNamespaces.getEstimatedBytes();
+        text.append("# TYPE graph_nodes gauge\n");
+        graphs.forEach((name, graph) -> sample(text, "graph_nodes{graph=\"" + name + "\"}", graph.nodeCount()));
+        text.append("# TYPE graph_edges gauge\n");
+        graphs.forEach((name, graph) -> sample(text, "graph_edges{graph=\"" + name + "\"}", graph.edgeCount()));
+        text.append("# TYPE graph_estimated_bytes gauge\n");
+        estimatedBytes.forEach((name, bytes) -> sample(text, "graph_estimated_bytes{graph=\"" + name + "\"}", bytes));
+        metric(text, "server_active_sessions", "gauge", getActiveSessions());
+        return text.toString();
+    }
+
+    private static void metric(StringBuilder text, String name, String type, long value) {
+        text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        sample(text, name, value);
+    }
+
+    private static void sample(StringBuilder text, String name, long value) {
+        text.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void sample(StringBuilder text, String name, double value) {
+        text.append(name).append(' ').append(String.format(Locale.ROOT, "%.9f", value)).append('\n');
+    }
+}
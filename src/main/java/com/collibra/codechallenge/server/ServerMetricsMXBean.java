@@ -0,0 +1,22 @@
+package com.collibra.codechallenge.server;
+
+import java.util.List;
+
+public interface ServerMetricsMXBean {
+
+    long getActiveSessions();
+
+    long getNodeCount();
+
+    long getEdgeCount();
+
+    long getErrorCount();
+
+    long getSorryReplyCount();
+
+    long getNodesSettledCount();
+
+    long getEdgesRelaxedCount();
+
+    List<CommandLatency> getCommandLatencies();
+}
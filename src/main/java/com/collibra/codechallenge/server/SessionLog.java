@@ -0,0 +1,65 @@
+package com.collibra.codechallenge.server;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.MDC;
+
+/**
+ * Log of one session. Event loop threads are shared by many sessions, so session id is put to Session-Id of MDC only
+ * while an event is logged, appenders copy it with the event. Messages are formatted from {} placeholder only when
+ * level is enabled, so disabled levels cost neither string building nor allocation.
+ */
+final class SessionLog {
+
+    private static final String SESSION_ID = "Session-Id";
+
+    private static final String PLACEHOLDER = "{}";
+
+    private final Logger log;
+    private final String sessionId;
+
+    SessionLog(Logger log, String sessionId) {
+        this.log = log;
+        this.sessionId = sessionId;
+    }
+
+    void trace(String format, Object argument) {
+        log(Level.TRACE, format, argument, null);
+    }
+
+    void debug(String message) {
+        log(Level.DEBUG, message, null, null);
+    }
+
+    void info(String message) {
+        log(Level.INFO, message, null, null);
+    }
+
+    void info(String format, Object argument) {
+        log(Level.INFO, format, argument, null);
+    }
+
+    void warn(String format, Object argument) {
+        log(Level.WARN, format, argument, null);
+    }
+
+    /**
+     * Logs throwable together with its stack trace, which async appender carries with the event.
+     */
+    void error(Throwable throwable) {
+        log(Level.ERROR, String.valueOf(throwable), null, throwable);
+    }
+
+    private void log(Level level, String format, Object argument, Throwable throwable) {
+        if (!log.isEnabledFor(level)) {
+            return;
+        }
+        String message = argument == null ? format : format.replace(PLACEHOLDER, String.valueOf(argument));
+        MDC.put(SESSION_ID, sessionId);
+        try {
+            log.log(level, message, throwable);
+        } finally {
+            MDC.remove(SESSION_ID);
+        }
+    }
+}
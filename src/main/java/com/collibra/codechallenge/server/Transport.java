@@ -0,0 +1,56 @@
+package com.collibra.codechallenge.server;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import org.apache.log4j.Logger;
+
+enum Transport {
+
+    EPOLL {
+        @Override
+        EventLoopGroup eventLoopGroup(int threads) {
+            return new EpollEventLoopGroup(threads);
+        }
+
+        @Override
+        Class<? extends ServerChannel> serverChannel() {
+            return EpollServerSocketChannel.class;
+        }
+    },
+
+    NIO {
+        @Override
+        EventLoopGroup eventLoopGroup(int threads) {
+            return new NioEventLoopGroup(threads);
+        }
+
+        @Override
+        Class<? extends ServerChannel> serverChannel() {
+            return NioServerSocketChannel.class;
+        }
+    },
+    ;
+
+    private static final Logger log = Logger.getLogger(Transport.class);
+
+    abstract EventLoopGroup eventLoopGroup(int threads);
+
+    abstract Class<? extends ServerChannel> serverChannel();
+
+    static Transport select(String name) {
+        if (name == null) {
+            return Epoll.isAvailable() ? EPOLL : NIO;
+        }
+        Transport transport = valueOf(name.toUpperCase());
+        if (transport == EPOLL && !Epoll.isAvailable()) {
+            log.warn("Epoll transport not available, falling back to NIO", Epoll.unavailabilityCause());
+            return NIO;
+        }
+        return transport;
+    }
+}
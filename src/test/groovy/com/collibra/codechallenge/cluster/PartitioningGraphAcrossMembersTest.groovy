@@ -0,0 +1,106 @@
+package com.collibra.codechallenge.cluster
+
+import com.collibra.codechallenge.graph.Graph
+import com.collibra.codechallenge.graph.GraphImplementations
+import com.collibra.codechallenge.graph.Partitions
+import io.netty.channel.nio.NioEventLoopGroup
+import spock.lang.Specification
+
+import java.util.concurrent.Executors
+
+class PartitioningGraphAcrossMembersTest extends Specification {
+
+    static final int MEMBERS = 3
+
+    def group = new NioEventLoopGroup(1)
+    def executor = Executors.newCachedThreadPool()
+    def addresses = (0..<MEMBERS).collect { new InetSocketAddress(InetAddress.loopbackAddress, freePort()) }
+    def servers = []
+    def clients = []
+    def graphs = []
+
+    def setup() {
+        MEMBERS.times { member ->
+            def partitions = Partitions.of(MEMBERS, member, { index -> GraphImplementations.remotePartition(client(addresses[index])) })
+            servers << new PeerServer(addresses[member], GraphImplementations.partitionRequests(partitions.localPartition()))
+            graphs << GraphImplementations.partitionedGraph(partitions, executor)
+        }
+        servers*.start()
+    }
+
+    def cleanup() {
+        clients*.close()
+        servers*.stop()
+        group.shutdownGracefully()
+        executor.shutdown()
+    }
+
+    def "should resolve queries on graph mutated through other members"() {
+
+        given: "path graph with shortcut added through first member"
+        def graph = graphs[0]
+        ("A".."J").each { graph.addNode(it) }
+        ("A".."I").each { graph.addEdge(it, it.next(), 1) }
+        graph.addEdge("A", "F", 3)
+
+        expect: "every member resolves the same shortest paths and nodes closer than radius"
+        graphs.every { it.shortestPath("A", "J") == 7 }
+        graphs.every { it.shortestPath("J", "A") == Integer.MAX_VALUE }
+        graphs.every { it.closerThan("A", 5) == "B,C,D,E,F,G" }
+
+        and: "nodes are spread over all members and counted as a whole"
+        graphs.every { it.nodeCount() == 10 && it.edgeCount() == 10 }
+
+        when: "removing node through last member"
+        graphs[2].removeNode("F")
+
+        then: "edges to it are removed on all members"
+        graphs[1].shortestPath("A", "J") == Integer.MAX_VALUE
+        graphs[1].closerThan("A", 5) == "B,C,D,E"
+        graphs[0].edgeCount() == 7
+    }
+
+    def "should rethrow node errors of remote partitions"() {
+
+        given: "node added through first member"
+        graphs[0].addNode("A")
+
+        when: "adding the same node through second member"
+        graphs[1].addNode("A")
+
+        then: "NodeAlreadyExistsException is thrown"
+        thrown(Graph.NodeAlreadyExistsException)
+
+        when: "removing missing node"
+        graphs[1].removeNode("B")
+
+        then: "NodeNotFoundException is thrown"
+        thrown(Graph.NodeNotFoundException)
+    }
+
+    def "should fail with partition unavailable when member is down"() {
+
+        given: "nodes owned by every member"
+        def names = (0..<30).collect { "node$it".toString() }
+        names.each { graphs[0].addNode(it) }
+
+        when: "second member stops and its node is queried through first member"
+        servers[1].stop()
+        clients*.close()
+        graphs[0].shortestPath(names[0], names[1])
+
+        then: "PartitionUnavailableException is thrown"
+        def exception = thrown(Graph.PartitionUnavailableException)
+        exception.message == "ERROR: PARTITION UNAVAILABLE" + System.lineSeparator()
+    }
+
+    private PeerClient client(InetSocketAddress address) {
+        def client = new PeerClient(address, group, 5000L)
+        clients << client
+        client
+    }
+
+    private static int freePort() {
+        new ServerSocket(0).withCloseable { it.localPort }
+    }
+}
@@ -17,6 +17,18 @@ class AddingAndRemovingEdgesTest extends Specification {
         graph.nodes == ["node":["node1":[0]], "node1":[:]]
     }
 
+    def "should keep only the lightest of parallel edges"() {
+
+        given: "graph with two nodes"
+        def graph = new DirectedWeightedGraph(["node":[:], "node1":[:]], null)
+
+        when: "adding the same edge repeatedly with different weights"
+        [5, 3, 3, 8, 4].each { graph.addEdge("node", "node1", it) }
+
+        then: "single edge with minimum weight is kept"
+        graph.nodes == ["node":["node1":[3]], "node1":[:]]
+    }
+
     @Unroll
     def "should throw exception when initial: '#initial' or terminal: '#terminal' node not found"() {
 
@@ -41,6 +41,26 @@ class AddingAndRemovingNodesTest extends Specification {
         graph.nodes == ["node1":[:]]
     }
 
+    def "should remove node with incoming, outgoing and self loop edges and keep predecessors indexed"() {
+
+        given: "graph with node connected both ways"
+        def graph = new DirectedWeightedGraph(["node":["node":[1], "node2":[2]], "node1":["node":[3], "node2":[4]], "node2":[:]], null)
+        graph.addEdge("node2", "node", 5)
+
+        expect: "predecessors indexed from initial nodes and added edges"
+        graph.predecessors("node") == ["node", "node1", "node2"] as Set
+        graph.predecessors("node2") == ["node", "node1"] as Set
+
+        when: "removing node"
+        graph.removeNode("node")
+
+        then: "node removed from nodes, adjacents and predecessors"
+        graph.nodes == ["node1":["node2":[4]], "node2":[:]]
+        graph.predecessors("node") == [] as Set
+        graph.predecessors("node2") == ["node1"] as Set
+        graph.predecessors("node1") == [] as Set
+    }
+
     def "should throw exception when node to remove does not exist"() {
 
         setup: "empty graph"
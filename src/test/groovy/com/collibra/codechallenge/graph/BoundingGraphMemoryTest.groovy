@@ -0,0 +1,115 @@
+package com.collibra.codechallenge.graph
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class BoundingGraphMemoryTest extends Specification {
+
+    static final int NODE_BYTES = 100
+    static final int EDGE_BYTES = 10
+
+    def store = new CompactGraphStore()
+    def compactGraph = new CompactDirectedWeightedGraph(store, new CompressedSparseRowDijkstraShortestPathResolver(store))
+
+    def "should account nodes and edges and refuse growing over limit"() {
+
+        given: "graph limited to two nodes and three edges"
+        def graph = new MemoryBoundedGraph(compactGraph, 2 * NODE_BYTES + 3 * EDGE_BYTES, NODE_BYTES, EDGE_BYTES)
+        ["A", "B"].each { graph.addNode(it) }
+        graph.addEdge("A", "B", 1)
+        graph.addEdge("A", "A", 1)
+        graph.addEdge("B", "B", 1)
+
+        when: "adding one more edge"
+        graph.addEdge("B", "A", 1)
+
+        then: "limit is exceeded and graph is not changed"
+        thrown(Graph.MemoryLimitExceededException)
+        graph.estimatedBytes() == 2 * NODE_BYTES + 3 * EDGE_BYTES
+        graph.shortestPath("B", "A") == Integer.MAX_VALUE
+
+        when: "removing edges and adding the refused one again"
+        graph.removeEdges("A", "B")
+        graph.addEdge("B", "A", 1)
+
+        then: "removed edges are reclaimed by recount"
+        graph.estimatedBytes() == 2 * NODE_BYTES + 3 * EDGE_BYTES
+        graph.shortestPath("B", "A") == 1
+    }
+
+    @Unroll
+    def "should accept edges sent again to #backend graph at its limit"() {
+
+        given: "graph limited to two nodes and one edge, holding them"
+        def nodes = [:]
+        def backendGraph = backend == "compact" ? compactGraph
+                : new DirectedWeightedGraph(nodes, new DijkstraAlgorithmShortestPathResolver(nodes))
+        def graph = new MemoryBoundedGraph(backendGraph, 2 * NODE_BYTES + EDGE_BYTES, NODE_BYTES, EDGE_BYTES)
+        ["A", "B"].each { graph.addNode(it) }
+        graph.addEdge("A", "B", 2)
+
+        when: "sending the same edge again many times, lighter once"
+        10.times { graph.addEdge("A", "B", 2) }
+        graph.addEdge("A", "B", 1)
+
+        then: "edges collapse into the existing one without exceeding the limit"
+        graph.edgeCount() == 1
+        graph.shortestPath("A", "B") == 1
+        graph.estimatedBytes() <= graph.limit()
+
+        when: "adding edge between other nodes"
+        graph.addEdge("B", "A", 1)
+
+        then: "limit is exceeded"
+        thrown(Graph.MemoryLimitExceededException)
+
+        where:
+        backend << ["compact", "map"]
+    }
+
+    def "should release reservation of failed mutation"() {
+
+        given: "graph with one node"
+        def graph = new MemoryBoundedGraph(compactGraph, 0, NODE_BYTES, EDGE_BYTES)
+        graph.addNode("A")
+
+        when: "adding the same node and edge to missing node"
+        graph.addNode("A")
+
+        then: "mutation fails and nothing stays reserved"
+        thrown(Graph.NodeAlreadyExistsException)
+        graph.estimatedBytes() == NODE_BYTES
+
+        when: "adding edge to missing node"
+        graph.addEdge("A", "X", 1)
+
+        then: "mutation fails and nothing stays reserved"
+        thrown(Graph.NodeNotFoundException)
+        graph.estimatedBytes() == NODE_BYTES
+    }
+
+    def "should account graph recovered before it was bounded and check imported images"() {
+
+        given: "graph with two nodes and edge, bounded to three nodes"
+        ["A", "B"].each { compactGraph.addNode(it) }
+        compactGraph.addEdge("A", "B", 1)
+        def graph = new MemoryBoundedGraph(compactGraph, 3 * NODE_BYTES, NODE_BYTES, 0)
+        def image = GraphImage.of(store.snapshot())
+
+        expect: "recovered graph is accounted"
+        graph.estimatedBytes() == 2 * NODE_BYTES
+
+        when: "merging image with two more nodes"
+        graph.merge(GraphImage.of([C: [:], D: [:]]))
+
+        then: "it is refused as a whole"
+        thrown(Graph.MemoryLimitExceededException)
+        graph.nodeCount() == 2
+
+        when: "restoring image of the same size"
+        graph.restore(image)
+
+        then: "it is accepted"
+        graph.estimatedBytes() == 2 * NODE_BYTES
+    }
+}
@@ -0,0 +1,105 @@
+package com.collibra.codechallenge.graph
+
+import spock.lang.Specification
+
+class CachedShortestPathTreeResolverTest extends Specification {
+
+    def store = new CompactGraphStore()
+    def resolver = new CachedShortestPathTreeResolver(store, 64L * 1024 * 1024, 1)
+    def graph = new CompactDirectedWeightedGraph(store, resolver)
+
+    def setup() {
+        ["node", "node1", "node2", "node3"].each { graph.addNode(it) }
+        graph.addEdge("node", "node1", 3)
+        graph.addEdge("node", "node2", 1)
+        graph.addEdge("node2", "node1", 1)
+        graph.addEdge("node1", "node3", 4)
+    }
+
+    def "should reuse one shortest path tree for both query types from same initial node"() {
+
+        when: "querying shortest paths and nodes closer than given distance from same node"
+        def distance = graph.shortestPath("node", "node3")
+        def closer = graph.closerThan("node", 3)
+        def otherDistance = graph.shortestPath("node", "node1")
+
+        then: "tree computed once and reused"
+        distance == 6
+        closer == "node1,node2"
+        otherDistance == 2
+        resolver.missCount == 1
+        resolver.hitCount == 2
+    }
+
+    def "should invalidate cached tree when graph is mutated"() {
+
+        given: "cached tree"
+        graph.shortestPath("node", "node3")
+
+        when: "mutating graph and querying again"
+        graph.addEdge("node", "node3", 2)
+        def distance = graph.shortestPath("node", "node3")
+
+        then: "tree recomputed for new graph version"
+        distance == 2
+        resolver.missCount == 2
+        resolver.hitCount == 0
+    }
+
+    def "should resolve unreachable and removed nodes same as reference resolver"() {
+
+        given: "node removed after tree was cached"
+        graph.closerThan("node", 10)
+        graph.removeNode("node2")
+
+        when: "querying again"
+        def closer = graph.closerThan("node", 10)
+        def distance = graph.shortestPath("node3", "node")
+
+        then: "removed node not gathered and unreachable node has max distance"
+        closer == "node1,node3"
+        distance == Integer.MAX_VALUE
+    }
+
+    def "should answer cold initial nodes without building tree until they are queried repeatedly"() {
+
+        given: "resolver building tree on second query from the same node"
+        def coldResolver = new CachedShortestPathTreeResolver(store, 64L * 1024 * 1024, 2)
+        def coldGraph = new CompactDirectedWeightedGraph(store, coldResolver)
+
+        when: "querying once from each of two nodes"
+        def distance = coldGraph.shortestPath("node", "node3")
+        def closer = coldGraph.closerThan("node2", 6)
+
+        then: "queries are answered without caching trees"
+        distance == 6
+        closer == "node1,node3"
+        coldResolver.size == 0
+
+        when: "querying again from the first node"
+        def repeated = coldGraph.closerThan("node", 3)
+        def cached = coldGraph.shortestPath("node", "node1")
+
+        then: "its tree is built and reused"
+        repeated == "node1,node2"
+        cached == 2
+        coldResolver.size == 1
+        coldResolver.missCount == 3
+        coldResolver.hitCount == 1
+    }
+
+    def "should bound cached trees by their estimated bytes"() {
+
+        given: "resolver with less room than tree of this graph takes"
+        def boundedResolver = new CachedShortestPathTreeResolver(store, 4 * 5 * Integer.BYTES - 1, 1)
+        def boundedGraph = new CompactDirectedWeightedGraph(store, boundedResolver)
+
+        when: "querying repeatedly"
+        def distances = (0..<3).collect { boundedGraph.shortestPath("node", "node3") }
+
+        then: "queries are answered by trees which are not kept"
+        distances == [6, 6, 6]
+        boundedResolver.size == 0
+        boundedResolver.missCount == 3
+    }
+}
@@ -0,0 +1,171 @@
+package com.collibra.codechallenge.graph
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class CompactDirectedWeightedGraphTest extends Specification {
+
+    def store = new CompactGraphStore()
+    def graph = new CompactDirectedWeightedGraph(store, new CompressedSparseRowDijkstraShortestPathResolver(store))
+
+    def "should correctly add and remove nodes and edges"() {
+
+        given: "graph with three nodes"
+        ["node", "node1", "node2"].each { graph.addNode(it) }
+
+        when: "adding and removing edges and nodes"
+        graph.addEdge("node", "node1", 1)
+        graph.addEdge("node", "node1", 3)
+        graph.addEdge("node", "node2", 5)
+        graph.addEdge("node2", "node", 7)
+        graph.removeEdges("node", "node2")
+        graph.removeNode("node1")
+
+        then: "nodes reflect all mutations"
+        graph.nodes() == ["node":[:], "node2":["node":[7]]]
+    }
+
+    def "should keep only the lightest of parallel edges before and after compaction"() {
+
+        given: "graph with compacted edge"
+        ["node", "node1"].each { graph.addNode(it) }
+        graph.addEdge("node", "node1", 5)
+        store.compact()
+
+        when: "adding the same edge repeatedly with different weights"
+        [7, 4, 6].each { graph.addEdge("node", "node1", it) }
+
+        then: "single edge with minimum weight is visible"
+        graph.nodes() == ["node":["node1":[4]], "node1":[:]]
+        GraphImage.of(store.snapshot()).edgeCount() == 1
+
+        when: "compacting"
+        store.compact()
+
+        then: "single edge with minimum weight is compacted"
+        graph.nodes() == ["node":["node1":[4]], "node1":[:]]
+        store.snapshot().baseEdgeCount() == 1
+    }
+
+    def "should keep same nodes after compaction"() {
+
+        given: "graph with edges in compacted base and in delta"
+        ["node", "node1", "node2"].each { graph.addNode(it) }
+        graph.addEdge("node", "node1", 1)
+        graph.addEdge("node1", "node2", 2)
+        store.compact()
+        graph.addEdge("node", "node2", 4)
+        graph.removeNode("node1")
+        graph.addNode("node1")
+        graph.addEdge("node2", "node1", 6)
+
+        when: "compacting delta into new base"
+        def nodes = graph.nodes()
+        store.compact()
+
+        then: "nodes are unchanged and delta is empty"
+        graph.nodes() == nodes
+        graph.nodes() == ["node":["node2":[4]], "node1":[:], "node2":["node1":[6]]]
+        store.snapshot().deltaSize() == 0
+    }
+
+    def "should compact delta in background once it grows over threshold"() {
+
+        when: "adding more nodes than compaction threshold"
+        5000.times { graph.addNode("node$it".toString()) }
+        def deadline = System.currentTimeMillis() + 5000
+        while (store.snapshot().deltaSize() >= 4096 && System.currentTimeMillis() < deadline) {
+            sleep(10)
+        }
+
+        then: "delta is compacted by background thread without losing nodes"
+        store.snapshot().deltaSize() < 4096
+        store.snapshot().nodeCount() == 5000
+        graph.nodes().size() == 5000
+    }
+
+    def "should throw exception when node was already added"() {
+
+        given: "graph with one node"
+        graph.addNode("node")
+
+        when: "adding same node second time"
+        graph.addNode("node")
+
+        then: "NodeAlreadyExistsException was thrown"
+        def exception = thrown(RuntimeException)
+        exception?.class == Graph.NodeAlreadyExistsException
+    }
+
+    def "should throw exception when adding edge to nonexistent node"() {
+
+        given: "graph with one node"
+        graph.addNode("node")
+
+        when: "adding edge to nonexistent node"
+        graph.addEdge("node", "node1", 0)
+
+        then: "NodeNotFoundException was thrown"
+        def exception = thrown(RuntimeException)
+        exception?.class == Graph.NodeNotFoundException
+    }
+
+    @Unroll
+    def "should resolve same results as reference Dijkstra algorithm on random graph with seed #seed"() {
+
+        given: "same random mutations applied to compact and map based graphs"
+        def random = new Random(seed)
+        def nodes = [:]
+        def reference = new DirectedWeightedGraph(nodes, new DijkstraAlgorithmShortestPathResolver(nodes))
+        (0..<100).each {
+            graph.addNode("node$it".toString())
+            reference.addNode("node$it".toString())
+        }
+        600.times {
+            def initial = "node${random.nextInt(100)}".toString()
+            def terminal = "node${random.nextInt(100)}".toString()
+            def operation = random.nextInt(10)
+            if (!reference.nodes.containsKey(initial) || !reference.nodes.containsKey(terminal)) {
+                [graph, reference]*.addNode(reference.nodes.containsKey(initial) ? terminal : initial)
+            } else if (operation == 0) {
+                [graph, reference]*.removeNode(initial)
+            } else if (operation == 1) {
+                [graph, reference]*.removeEdges(initial, terminal)
+            } else if (operation == 2) {
+                store.compact()
+            } else {
+                def weight = random.nextInt(20)
+                [graph, reference]*.addEdge(initial, terminal, weight)
+            }
+        }
+
+        expect: "same nodes, edge counts, incoming edges, shortest paths and nodes closer than given distance"
+        graph.nodes() == reference.nodes
+        graph.edgeCount() == reference.nodes.values().sum { it.size() }
+        reference.edgeCount() == graph.edgeCount()
+        incomingEdges(store.snapshot()) == reference.nodes.collectMany { initial, adjacents ->
+            adjacents.collect { terminal, weights -> [terminal, initial, weights.min()] }
+        } as Set
+        reference.nodes.keySet().every { initial ->
+            def terminal = reference.nodes.keySet()[random.nextInt(reference.nodes.size())]
+            def distance = random.nextInt(40)
+            graph.shortestPath(initial, terminal) == reference.shortestPath(initial, terminal) &&
+                    graph.closerThan(initial, distance) == reference.closerThan(initial, distance)
+        }
+
+        where:
+        seed << [1, 7, 42]
+    }
+
+    private static Set incomingEdges(GraphSnapshot snapshot) {
+        def edges = [] as Set
+        def cursor = snapshot.incoming()
+        (0..<snapshot.idBound()).findAll { snapshot.contains(it) }.each { terminal ->
+            cursor.reset(terminal)
+            while (cursor.next()) {
+                edges << [snapshot.name(terminal), snapshot.name(cursor.adjacent()), cursor.weight()]
+            }
+        }
+        edges
+    }
+}
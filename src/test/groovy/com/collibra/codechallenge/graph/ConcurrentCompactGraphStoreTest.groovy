@@ -0,0 +1,55 @@
+package com.collibra.codechallenge.graph
+
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+
+class ConcurrentCompactGraphStoreTest extends Specification {
+
+    def store = new CompactGraphStore()
+    def graph = new CompactDirectedWeightedGraph(store, new CompressedSparseRowDijkstraShortestPathResolver(store))
+
+    def "should not lose mutations nor fail queries when writers and readers run concurrently"() {
+
+        given: "graph with chain of nodes and pool of writers and readers"
+        (0..<100).each { graph.addNode("node$it".toString()) }
+        (0..<99).each { graph.addEdge("node$it".toString(), "node${it + 1}".toString(), 1) }
+        def executor = Executors.newFixedThreadPool(8)
+
+        when: "writers add edges and readers query shortest paths at the same time"
+        def writers = (0..<4).collect { writer ->
+            { ->
+                def random = new Random(writer)
+                2500.times {
+                    graph.addEdge("node${random.nextInt(100)}".toString(), "node${random.nextInt(100)}".toString(), 5)
+                }
+                true
+            } as Callable
+        }
+        def readers = (0..<4).collect { reader ->
+            { ->
+                500.times {
+                    assert graph.shortestPath("node0", "node99") <= 99
+                }
+                true
+            } as Callable
+        }
+        def results = executor.invokeAll(writers + readers)*.get()
+
+        then: "every query succeeded and every edge was published, collapsed to the lightest one of each pair"
+        results.every()
+        def expected = (0..<99).collectEntries { ["node$it node${it + 1}".toString(), 1] }
+        (0..<4).each { writer ->
+            def random = new Random(writer)
+            2500.times { expected.putIfAbsent("node${random.nextInt(100)} node${random.nextInt(100)}".toString(), 5) }
+        }
+        graph.nodes().collectMany { initial, adjacents ->
+            adjacents.collect { terminal, weights -> ["$initial $terminal".toString(), weights] }
+        }.collectEntries() == expected.collectEntries { pair, weight -> [pair, [weight]] }
+        store.snapshot().version() > 4 * 2500
+
+        cleanup:
+        executor.shutdownNow()
+    }
+}
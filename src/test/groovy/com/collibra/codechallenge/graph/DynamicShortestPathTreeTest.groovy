@@ -0,0 +1,99 @@
+package com.collibra.codechallenge.graph
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class DynamicShortestPathTreeTest extends Specification {
+
+    def store = new CompactGraphStore()
+    def resolver = new CachedShortestPathTreeResolver(store, 64L * 1024 * 1024, 1)
+    def graph = new CompactDirectedWeightedGraph(store, resolver)
+
+    def "should repair subtree when tree edge is removed"() {
+
+        given: "hot tree where node3 is reached through node1"
+        ["node", "node1", "node2", "node3"].each { graph.addNode(it) }
+        graph.addEdge("node", "node1", 1)
+        graph.addEdge("node1", "node3", 1)
+        graph.addEdge("node", "node2", 2)
+        graph.addEdge("node2", "node3", 5)
+        3.times { graph.shortestPath("node", "node3") }
+
+        when: "removing tree edge and node on alternative path"
+        graph.removeEdges("node1", "node3")
+        def repaired = graph.shortestPath("node", "node3")
+        graph.removeNode("node2")
+        def unreachable = graph.shortestPath("node", "node3")
+
+        then: "distances repaired without recomputing tree"
+        repaired == 7
+        unreachable == Integer.MAX_VALUE
+        resolver.missCount == 1
+        resolver.hitCount == 4
+    }
+
+    def "should propagate decreased distances when edge is added"() {
+
+        given: "hot tree over chain of nodes"
+        (0..<5).each { graph.addNode("node$it".toString()) }
+        (0..<4).each { graph.addEdge("node$it".toString(), "node${it + 1}".toString(), 10) }
+        3.times { graph.closerThan("node0", 100) }
+
+        when: "adding shortcut"
+        graph.addEdge("node0", "node2", 1)
+        def closer = graph.closerThan("node0", 15)
+
+        then: "distances behind shortcut decreased"
+        closer == "node1,node2,node3"
+        graph.shortestPath("node0", "node4") == 21
+        resolver.missCount == 1
+    }
+
+    @Unroll
+    def "should keep hot trees equal to reference Dijkstra algorithm under random mutations with seed #seed"() {
+
+        given: "same random graph in compact and map based graphs"
+        def random = new Random(seed)
+        def nodes = [:]
+        def reference = new DirectedWeightedGraph(nodes, new DijkstraAlgorithmShortestPathResolver(nodes))
+        (0..<60).each { [graph, reference]*.addNode("node$it".toString()) }
+        240.times {
+            [graph, reference]*.addEdge("node${random.nextInt(60)}".toString(), "node${random.nextInt(60)}".toString(), random.nextInt(20))
+        }
+        def sources = ["node0", "node1", "node2"]
+
+        when: "mutating graph and querying same sources after every mutation"
+        def mismatches = 0
+        300.times {
+            def initial = "node${random.nextInt(60)}".toString()
+            def terminal = "node${random.nextInt(60)}".toString()
+            def operation = random.nextInt(10)
+            if (!nodes.containsKey(initial) || !nodes.containsKey(terminal)) {
+                [graph, reference]*.addNode(nodes.containsKey(initial) ? terminal : initial)
+            } else if (operation < 2 && !(initial in sources)) {
+                [graph, reference]*.removeNode(initial)
+            } else if (operation < 5) {
+                [graph, reference]*.removeEdges(initial, terminal)
+            } else {
+                [graph, reference]*.addEdge(initial, terminal, random.nextInt(20))
+            }
+            sources.each { source ->
+                def distance = random.nextInt(40)
+                if (graph.closerThan(source, distance) != reference.closerThan(source, distance)) {
+                    mismatches++
+                }
+                def target = nodes.keySet()[random.nextInt(nodes.size())]
+                if (graph.shortestPath(source, target) != reference.shortestPath(source, target)) {
+                    mismatches++
+                }
+            }
+        }
+
+        then: "results always equal and trees were maintained incrementally"
+        mismatches == 0
+        resolver.hitCount > resolver.missCount * 10
+
+        where:
+        seed << [1, 7, 42]
+    }
+}
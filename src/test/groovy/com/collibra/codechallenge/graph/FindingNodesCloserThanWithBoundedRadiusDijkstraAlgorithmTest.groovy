@@ -0,0 +1,109 @@
+package com.collibra.codechallenge.graph
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class FindingNodesCloserThanWithBoundedRadiusDijkstraAlgorithmTest extends Specification {
+
+    def store = new CompactGraphStore()
+    def graph = new CompactDirectedWeightedGraph(store, new CompressedSparseRowDijkstraShortestPathResolver(store))
+
+    @Unroll
+    def "should gather nodes closer to #initial than #radius"() {
+
+        given: "graph with zero weight edges"
+        ["A", "B", "C", "D", "E"].each { graph.addNode(it) }
+        graph.addEdge("A", "B", 0)
+        graph.addEdge("B", "C", 2)
+        graph.addEdge("A", "C", 3)
+        graph.addEdge("C", "D", 0)
+        graph.addEdge("D", "E", 1)
+        graph.addEdge("E", "A", 0)
+
+        when: "finding nodes closer than radius"
+        def nodes = closerThan(initial, radius)
+
+        then: "only nodes at distance lower than radius are gathered"
+        nodes == result
+
+        where:
+        initial | radius || result
+        "A"     | 0      || []
+        "A"     | -1     || []
+        "A"     | 1      || ["B"]
+        "A"     | 2      || ["B"]
+        "A"     | 3      || ["B", "C", "D"]
+        "A"     | 4      || ["B", "C", "D", "E"]
+        "C"     | 1      || ["D"]
+        "C"     | 2      || ["A", "B", "D", "E"]
+        "E"     | 1      || ["A", "B"]
+    }
+
+    @Unroll
+    def "should resolve same nodes as reference Dijkstra algorithm on random graph with seed #seed"() {
+
+        given: "same random graph with parallel edges, self loops and zero weights in both graphs"
+        def nodes = [:]
+        def reference = new DirectedWeightedGraph(nodes, new DijkstraAlgorithmShortestPathResolver(nodes))
+        def random = new Random(seed)
+        200.times { node -> [graph, reference].each { it.addNode("node$node".toString()) } }
+        500.times {
+            def initial = "node${random.nextInt(200)}".toString()
+            def terminal = "node${random.nextInt(200)}".toString()
+            def weight = random.nextInt(10)
+            [graph, reference].each { it.addEdge(initial, terminal, weight) }
+        }
+        store.compact()
+
+        expect: "nodes closer than every radius are same as reference ones"
+        (0..<200).every { initial ->
+            [0, 1, 5, 12].every { radius ->
+                closerThan("node$initial".toString(), radius).join(",") ==
+                        reference.closerThan("node$initial".toString(), radius)
+            }
+        }
+
+        where:
+        seed << [1L, 2L, 3L]
+    }
+
+    def "should keep all entries of map through resizes and colliding keys"() {
+
+        given: "map smaller than number of keys, with keys colliding on low bits"
+        def map = new IntIntHashMap(1)
+        def keys = (0..<2000).collect { it * 1024 } + (0..<2000).collect { it * 1024 + 1 }
+
+        when: "putting and overwriting keys"
+        keys.each { map.put(it, it + 7) }
+        keys.each { map.put(it, it + 1) }
+
+        then: "every key keeps its last value and missing keys get default"
+        map.size() == keys.size()
+        keys.every { map.get(it, -1) == it + 1 }
+        map.get(2, -1) == -1
+        map.get(2000 * 1024, -1) == -1
+    }
+
+    def "should poll values of heap in ascending order"() {
+
+        given: "heap smaller than number of values"
+        def heap = new LongMinHeap(1)
+        def random = new Random(1L)
+        def values = (0..<1000).collect { random.nextLong() }
+
+        when: "adding values and polling all of them"
+        values.each { heap.add(it) }
+        def polled = []
+        while (!heap.isEmpty()) {
+            polled << heap.poll()
+        }
+
+        then: "values are polled sorted"
+        polled == values.sort(false)
+    }
+
+    private List<String> closerThan(String initial, int radius) {
+        def snapshot = store.snapshot()
+        new BoundedRadiusDijkstraAlgorithm(snapshot).closerThan(radius, snapshot.existingId(initial)).sort()
+    }
+}
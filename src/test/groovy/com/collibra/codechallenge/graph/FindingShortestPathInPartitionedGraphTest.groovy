@@ -0,0 +1,167 @@
+package com.collibra.codechallenge.graph
+
+import com.google.common.base.Ticker
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.concurrent.Executors
+
+class FindingShortestPathInPartitionedGraphTest extends Specification {
+
+    def executor = Executors.newCachedThreadPool()
+    def now = 0L
+
+    def cleanup() {
+        executor.shutdown()
+    }
+
+    @Unroll
+    def "should resolve same results as Dijkstra algorithm with #size partitions on random graph with seed #seed"() {
+
+        given: "same random graph with parallel edges, self loops and zero weights in both graphs"
+        def partitions = Partitions.local(size)
+        def graph = GraphImplementations.partitionedGraph(partitions, executor)
+        def nodes = [:]
+        def reference = new DirectedWeightedGraph(nodes, new DijkstraAlgorithmShortestPathResolver(nodes))
+        def random = new Random(seed)
+        80.times { node -> [graph, reference].each { it.addNode("node$node".toString()) } }
+        200.times {
+            def initial = "node${random.nextInt(80)}".toString()
+            def terminal = "node${random.nextInt(80)}".toString()
+            def weight = random.nextInt(20)
+            [graph, reference].each { it.addEdge(initial, terminal, weight) }
+        }
+        [graph, reference].each { it.removeNode("node7") }
+
+        expect: "all shortest paths and nodes closer than radius from sampled nodes are same as reference ones"
+        (0..<20).findAll { it != 7 }.every { initial ->
+            (0..<80).findAll { it != 7 }.every { terminal ->
+                graph.shortestPath("node$initial".toString(), "node$terminal".toString()) ==
+                        reference.shortestPath("node$initial".toString(), "node$terminal".toString())
+            } && [0, 5, 15].every { radius ->
+                graph.closerThan("node$initial".toString(), radius) == reference.closerThan("node$initial".toString(), radius)
+            }
+        }
+
+        and: "graph is split across partitions and counted as a whole"
+        graph.nodeCount() == reference.nodeCount()
+        graph.edgeCount() == reference.edgeCount()
+        graph.edgeCount() == reference.nodes().values().sum { it.size() }
+        graph.nodes() == reference.nodes()
+        partitions.all().count { it.nodeCount() > 0 } == size
+
+        where:
+        [seed, size] << [[1L, 2L], [1, 3, 5]].combinations()
+    }
+
+    def "should keep node and its outgoing edges in partition owning it"() {
+
+        given: "nodes in two partitions"
+        def partitions = Partitions.local(2)
+        def graph = GraphImplementations.partitionedGraph(partitions, executor)
+        def names = (0..<20).collect { "node$it".toString() }
+        names.each { graph.addNode(it) }
+        def initial = names.find { partitions.ownerIndex(it) == 0 }
+        def terminal = names.find { partitions.ownerIndex(it) == 1 }
+
+        when: "adding edge between partitions"
+        graph.addEdge(initial, terminal, 3)
+
+        then: "only owner of initial node holds the edge"
+        partitions.get(0).nodes()[initial] == [(terminal): [3]]
+        !partitions.get(1).containsNode(initial)
+        partitions.get(1).nodes()[terminal] == [:]
+
+        when: "removing terminal node"
+        graph.removeNode(terminal)
+
+        then: "edge to it is removed from the other partition"
+        partitions.get(0).nodes()[initial] == [:]
+        graph.edgeCount() == 0
+    }
+
+    def "should throw same exceptions as other graphs"() {
+
+        given: "partitioned graph with single node"
+        def graph = GraphImplementations.partitionedGraph(Partitions.local(3), executor)
+        graph.addNode("A")
+
+        when: "adding existing node"
+        graph.addNode("A")
+
+        then: "NodeAlreadyExistsException is thrown"
+        thrown(Graph.NodeAlreadyExistsException)
+
+        when: "adding edge to missing node"
+        graph.addEdge("A", "B", 1)
+
+        then: "NodeNotFoundException is thrown"
+        thrown(Graph.NodeNotFoundException)
+
+        when: "adding edge from missing node"
+        graph.addEdge("B", "A", 1)
+
+        then: "NodeNotFoundException is thrown"
+        thrown(Graph.NodeNotFoundException)
+
+        when: "querying from missing node"
+        graph.shortestPath("B", "A")
+
+        then: "NodeNotFoundException is thrown"
+        thrown(Graph.NodeNotFoundException)
+
+        when: "adding node without edges"
+        graph.addNode("B")
+
+        then: "it is unreachable and every node is at no distance from itself"
+        graph.shortestPath("A", "B") == Integer.MAX_VALUE
+        graph.shortestPath("A", "A") == 0
+        graph.closerThan("A", 10) == ""
+    }
+
+    def "should keep failure of query when finishing it fails and release its state on other partitions"() {
+
+        given: "partition of unavailable member failing supersteps and finishing with another error"
+        def unavailable = [
+                superstep: { query, bound, terminal -> throw new Graph.PartitionUnavailableException(new IOException()) },
+                finish   : { query -> throw new IllegalStateException("finish") }
+        ] as Partition
+        def partitions = Partitions.of(2, 0, { unavailable })
+        def graph = GraphImplementations.partitionedGraph(partitions, executor)
+        def names = (0..<20).collect { "node$it".toString() }.findAll { partitions.ownerIndex(it) == 0 }
+        names.each { graph.addNode(it) }
+
+        when: "querying nodes of available member"
+        graph.shortestPath(names[0], names[1])
+
+        then: "failure of superstep is thrown and state of query is released on available member"
+        thrown(Graph.PartitionUnavailableException)
+        ((LocalPartition) partitions.localPartition()).queryCount() == 0
+    }
+
+    def "should evict state of queries idle for longer than expiration time when another query starts"() {
+
+        given: "partition expiring queries idle for one second"
+        def partition = new LocalPartition(Partitions.local(1), 0, 1000L, [read: { now }] as Ticker)
+        partition.addNode("A")
+
+        when: "starting queries half a second apart, first one accessed again"
+        partition.deliver("first", [A: 0])
+        now += 500_000_000L
+        partition.deliver("second", [A: 0])
+        now += 600_000_000L
+        partition.superstep("first", Integer.MAX_VALUE, null)
+        partition.deliver("third", [A: 0])
+
+        then: "no query is idle for too long"
+        partition.queryCount() == 3
+
+        when: "starting another query after second one is idle for over a second"
+        now += 500_000_000L
+        partition.deliver("fourth", [A: 0])
+
+        then: "second query is evicted while accessed ones are kept"
+        partition.queryCount() == 3
+        partition.reached("first", Integer.MAX_VALUE) == ["A"]
+    }
+}
@@ -0,0 +1,54 @@
+package com.collibra.codechallenge.graph
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class FindingShortestPathWithBidirectionalDijkstraAlgorithmTest extends Specification {
+
+    def store = new CompactGraphStore()
+
+    @Unroll
+    def "should resolve same results as reference Dijkstra algorithm with #landmarks landmarks on random graph with seed #seed"() {
+
+        given: "random graph with parallel edges, self loops and zero weights"
+        def resolver = new BidirectionalDijkstraShortestPathResolver(store, landmarks)
+        def graph = new CompactDirectedWeightedGraph(store, resolver)
+        def reference = new CompactDirectedWeightedGraph(store, new CompressedSparseRowDijkstraShortestPathResolver(store))
+        def random = new Random(seed)
+        200.times { graph.addNode("node$it".toString()) }
+        400.times { graph.addEdge("node${random.nextInt(200)}".toString(), "node${random.nextInt(200)}".toString(), random.nextInt(20)) }
+        graph.removeNode("node7")
+
+        when: "landmarks are selected for current graph version"
+        resolver.refreshLandmarks()
+
+        then: "all shortest paths are same as reference ones"
+        (0..<200).findAll { it != 7 }.every { initial ->
+            (0..<200).findAll { it != 7 }.every { terminal ->
+                graph.shortestPath("node$initial".toString(), "node$terminal".toString()) ==
+                        reference.shortestPath("node$initial".toString(), "node$terminal".toString())
+            }
+        }
+
+        where:
+        [seed, landmarks] << [[1L, 2L, 3L], [0, 1, 8]].combinations()
+    }
+
+    def "should not use landmarks selected for older graph version"() {
+
+        given: "graph with landmarks selected"
+        def resolver = new BidirectionalDijkstraShortestPathResolver(store, 2)
+        def graph = new CompactDirectedWeightedGraph(store, resolver)
+        ["A", "B", "C"].each { graph.addNode(it) }
+        graph.addEdge("A", "B", 10)
+        graph.addEdge("B", "C", 10)
+        resolver.refreshLandmarks()
+
+        when: "adding shortcut edge"
+        graph.addEdge("A", "C", 1)
+
+        then: "shortcut is used"
+        graph.shortestPath("A", "C") == 1
+        graph.shortestPath("C", "A") == Integer.MAX_VALUE
+    }
+}
@@ -0,0 +1,53 @@
+package com.collibra.codechallenge.graph
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class FindingShortestPathWithDeltaSteppingAlgorithmTest extends Specification {
+
+    def store = new CompactGraphStore()
+
+    @Unroll
+    def "should resolve same results as Dijkstra algorithm with delta #delta and parallel frontier #parallelFrontier on random graph with seed #seed"() {
+
+        given: "same random graph with parallel edges, self loops and zero weights in both graphs"
+        def graph = new CompactDirectedWeightedGraph(store, new DeltaSteppingShortestPathResolver(store, 0, delta, parallelFrontier))
+        def nodes = [:]
+        def reference = new DirectedWeightedGraph(nodes, new DijkstraAlgorithmShortestPathResolver(nodes))
+        def random = new Random(seed)
+        120.times { node -> [graph, reference].each { it.addNode("node$node".toString()) } }
+        300.times {
+            def initial = "node${random.nextInt(120)}".toString()
+            def terminal = "node${random.nextInt(120)}".toString()
+            def weight = random.nextInt(20)
+            [graph, reference].each { it.addEdge(initial, terminal, weight) }
+        }
+        store.compact()
+        [graph, reference].each { it.removeNode("node7") }
+
+        expect: "all shortest paths from sampled nodes are same as reference ones"
+        (0..<30).findAll { it != 7 }.every { initial ->
+            (0..<120).findAll { it != 7 }.every { terminal ->
+                graph.shortestPath("node$initial".toString(), "node$terminal".toString()) ==
+                        reference.shortestPath("node$initial".toString(), "node$terminal".toString())
+            }
+        }
+
+        where:
+        [seed, delta, parallelFrontier] << [[1L, 2L], [0, 1, 7, 100], [1, 1024]].combinations()
+    }
+
+    def "should use sequential Dijkstra below threshold"() {
+
+        given: "graph smaller than threshold"
+        def graph = new CompactDirectedWeightedGraph(store, new DeltaSteppingShortestPathResolver(store, 10, 1, 1))
+        ["A", "B", "C"].each { graph.addNode(it) }
+        graph.addEdge("A", "B", 2)
+        graph.addEdge("B", "C", 3)
+        graph.addEdge("A", "C", 9)
+
+        expect: "shortest paths are resolved"
+        graph.shortestPath("A", "C") == 5
+        graph.shortestPath("C", "A") == Integer.MAX_VALUE
+    }
+}
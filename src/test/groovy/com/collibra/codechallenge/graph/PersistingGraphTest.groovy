@@ -0,0 +1,162 @@
+package com.collibra.codechallenge.graph
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.nio.file.Files
+import java.nio.file.Path
+
+class PersistingGraphTest extends Specification {
+
+    Path directory = Files.createTempDirectory("graph")
+
+    def cleanup() {
+        directory.toFile().deleteDir()
+    }
+
+    @Unroll
+    def "should recover #backend graph from write-ahead log after restart"() {
+
+        given: "durable graph with mutations"
+        def graph = durableGraph(backend)
+        mutate(graph)
+
+        when: "restarting graph"
+        graph.close()
+        def restarted = durableGraph(backend)
+
+        then: "graph is recovered"
+        restarted.nodes() == expectedNodes()
+        restarted.shortestPath("A", "C") == 5
+
+        cleanup:
+        restarted.close()
+
+        where:
+        backend << ["compact", "map"]
+    }
+
+    @Unroll
+    def "should recover #backend graph from snapshot and write-ahead log tail"() {
+
+        given: "durable graph snapshotted in the middle of mutations"
+        def graph = durableGraph(backend)
+        ["A", "B", "C", "D"].each { graph.addNode(it) }
+        graph.addEdge("A", "B", 2)
+        graph.snapshot()
+        graph.addEdge("B", "C", 3)
+        graph.addEdge("A", "C", 9)
+        graph.addEdge("A", "D", 1)
+        graph.removeEdges("A", "D")
+        graph.removeNode("D")
+
+        when: "restarting graph"
+        graph.close()
+        def restarted = durableGraph(backend)
+
+        then: "only log tail is kept and graph is recovered"
+        Files.list(directory).count() == 2
+        restarted.nodes() == expectedNodes()
+        restarted.shortestPath("A", "C") == 5
+
+        cleanup:
+        restarted.close()
+
+        where:
+        backend << ["compact", "map"]
+    }
+
+    def "should refuse mutations without applying them once write-ahead log failed"() {
+
+        given: "durable graph whose write-ahead log segment failed"
+        def graph = durableGraph("compact")
+        graph.addNode("A")
+        while (graph.writeAheadLog.committedPosition < graph.writeAheadLog.nextPosition) {
+            sleep(10)
+        }
+        graph.writeAheadLog.segment.close()
+        def position = graph.writeAheadLog.append(GraphMutation.addNode("X"))
+        while (graph.writeAheadLog.failure == null) {
+            sleep(10)
+        }
+
+        when: "adding node"
+        graph.addNode("B")
+
+        then: "mutation is refused and not applied"
+        thrown(UncheckedIOException)
+        graph.nodes().keySet() == ["A"] as Set
+
+        when: "awaiting commit of record appended before failure"
+        graph.writeAheadLog.awaitCommit(position)
+
+        then: "failure is thrown rather than commit acknowledged"
+        thrown(UncheckedIOException)
+
+        cleanup:
+        graph.snapshots.shutdown()
+    }
+
+    def "should truncate torn write-ahead log tail"() {
+
+        given: "durable graph with partially written last record"
+        def graph = durableGraph("compact")
+        mutate(graph)
+        graph.close()
+        def segment = Files.list(directory).find { it.toString().endsWith(".wal") }
+        segment.toFile().append([0, 0, 0, 20, 1, 2, 3, 4, 0, 0] as byte[])
+
+        when: "restarting graph and mutating it further"
+        def restarted = durableGraph("compact")
+        restarted.addNode("E")
+        restarted.close()
+        restarted = durableGraph("compact")
+
+        then: "complete records are recovered together with later mutations"
+        restarted.nodes() == expectedNodes() + ["E": [:]]
+
+        cleanup:
+        restarted.close()
+    }
+
+    def "should write and read graph image file"() {
+
+        given: "graph image"
+        def image = new GraphImage(["A", "B", "ç"] as String[], [0, 2, 2, 3] as int[], [1, 2, 0] as int[], [4, 5, 6] as int[])
+        def path = directory.resolve("image")
+
+        when: "writing and reading image"
+        GraphImageFile.write(path, image, 42L)
+        def read = GraphImageFile.read(path)
+
+        then: "image and log position are read back"
+        read._1 == 42L
+        read._2.names() == image.names()
+        read._2.offsets() == image.offsets()
+        read._2.targets() == image.targets()
+        read._2.weights() == image.weights()
+    }
+
+    private DurableGraph durableGraph(String backend) {
+        if (backend == "compact") {
+            def store = new CompactGraphStore()
+            return new DurableGraph(new CompactDirectedWeightedGraph(store, new CompressedSparseRowDijkstraShortestPathResolver(store)), directory.toString())
+        }
+        def nodes = [:]
+        return new DurableGraph(new DirectedWeightedGraph(nodes, new BinaryHeapDijkstraShortestPathResolver(nodes)), directory.toString())
+    }
+
+    private static void mutate(Graph<String> graph) {
+        ["A", "B", "C", "D"].each { graph.addNode(it) }
+        graph.addEdge("A", "B", 2)
+        graph.addEdge("B", "C", 3)
+        graph.addEdge("A", "C", 9)
+        graph.addEdge("A", "D", 1)
+        graph.removeEdges("A", "D")
+        graph.removeNode("D")
+    }
+
+    private static Map expectedNodes() {
+        ["A": ["B": [2], "C": [9]], "B": ["C": [3]], "C": [:]]
+    }
+}
@@ -0,0 +1,65 @@
+package com.collibra.codechallenge.graph
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.concurrent.ConcurrentHashMap
+
+class RunningBatchQueriesTest extends Specification {
+
+    def store = new CompactGraphStore()
+    def graph = new CompactDirectedWeightedGraph(store, new CompressedSparseRowDijkstraShortestPathResolver(store))
+
+    @Unroll
+    def "should resolve same nodes closer than #radius from all nodes as single queries on random graph with seed #seed"() {
+
+        given: "random graph with edges in compacted base and in delta"
+        def random = new Random(seed)
+        300.times { graph.addNode("node$it".toString()) }
+        600.times { graph.addEdge("node${random.nextInt(300)}".toString(), "node${random.nextInt(300)}".toString(), random.nextInt(10)) }
+        store.compact()
+        100.times { graph.addEdge("node${random.nextInt(300)}".toString(), "node${random.nextInt(300)}".toString(), random.nextInt(10)) }
+        graph.removeNode("node7")
+
+        when: "running batch query from all nodes twice, reusing worker labels"
+        def results = new ConcurrentHashMap()
+        graph.closerThanFromAll(radius) { initial, nodes -> results.put(initial, nodes) }
+        graph.closerThanFromAll(radius) { initial, nodes -> assert results[initial] == nodes }
+
+        then: "each node has the same result as single query"
+        results.size() == 299
+        results.every { initial, nodes -> graph.closerThan(initial, radius) == nodes }
+
+        where:
+        [seed, radius] << [[1L, 2L], [0, 5, 20]].combinations()
+    }
+
+    def "should resolve batch of listed nodes including repeated ones"() {
+
+        given: "path graph"
+        ["A", "B", "C"].each { graph.addNode(it) }
+        graph.addEdge("A", "B", 1)
+        graph.addEdge("B", "C", 1)
+
+        when: "running batch query"
+        def results = Collections.synchronizedList([])
+        graph.closerThan(["A", "C", "A"], 2) { initial, nodes -> results << "$initial:$nodes".toString() }
+
+        then: "every listed node is answered"
+        results.sort() == ["A:B", "A:B", "C:"]
+    }
+
+    def "should fail before any result when listed node does not exist"() {
+
+        given: "single node"
+        graph.addNode("A")
+        def results = []
+
+        when: "running batch query with missing node"
+        graph.closerThan(["A", "X"], 2) { initial, nodes -> results << initial }
+
+        then: "NodeNotFoundException is thrown and nothing is resolved"
+        thrown(Graph.NodeNotFoundException)
+        results.isEmpty()
+    }
+}
@@ -0,0 +1,56 @@
+package com.collibra.codechallenge.graph
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class SelectingImplementationsTest extends Specification {
+
+    @Unroll
+    def "should construct #name for compact graph by its name"() {
+
+        given: "compact graph with resolver selected by name"
+        def store = new CompactGraphStore()
+        def resolver = GraphImplementations.compactShortestPathResolver(name).apply(store)
+        def graph = GraphImplementations.compactDirectedWeightedGraph(store, resolver)
+        ["A", "B"].each { graph.addNode(it) }
+        graph.addEdge("A", "B", 3)
+
+        expect: "resolver of selected class answers queries"
+        resolver.class.simpleName == name
+        graph.shortestPath("A", "B") == 3
+
+        where:
+        name << ["CompressedSparseRowDijkstraShortestPathResolver", "CachedShortestPathTreeResolver",
+                 "BidirectionalDijkstraShortestPathResolver", "DeltaSteppingShortestPathResolver"]
+    }
+
+    @Unroll
+    def "should construct #name for map based graph by its name"() {
+
+        given: "map based graph with resolver selected by name"
+        def nodes = [:]
+        def resolver = GraphImplementations.shortestPathResolver(name).apply(nodes)
+        def graph = GraphImplementations.directedWeightedGraph(nodes, resolver)
+        ["A", "B"].each { graph.addNode(it) }
+        graph.addEdge("A", "B", 3)
+
+        expect: "resolver of selected class answers queries"
+        resolver.class.simpleName == name
+        graph.shortestPath("A", "B") == 3
+
+        where:
+        name << ["DijkstraAlgorithmShortestPathResolver", "BinaryHeapDijkstraShortestPathResolver"]
+    }
+
+    def "should reject unknown implementation name"() {
+
+        when: "selecting resolver which does not exist for compact graph"
+        GraphImplementations.compactShortestPathResolver("BinaryHeapDijkstraShortestPathResolver")
+
+        then: "IllegalArgumentException is thrown"
+        def exception = thrown(IllegalArgumentException)
+        exception.message == "There is no implementation for: BinaryHeapDijkstraShortestPathResolver, expected one of: " +
+                "CompressedSparseRowDijkstraShortestPathResolver, CachedShortestPathTreeResolver, " +
+                "BidirectionalDijkstraShortestPathResolver, DeltaSteppingShortestPathResolver"
+    }
+}
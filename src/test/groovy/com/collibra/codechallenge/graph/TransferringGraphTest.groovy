@@ -0,0 +1,146 @@
+package com.collibra.codechallenge.graph
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.concurrent.ConcurrentHashMap
+
+class TransferringGraphTest extends Specification {
+
+    Path directory = Files.createTempDirectory("transfer")
+
+    def cleanup() {
+        directory.toFile().deleteDir()
+    }
+
+    @Unroll
+    def "should import text edge list into #backend graph"() {
+
+        given: "graph with existing node and edge list file"
+        def graph = newGraph(backend)
+        graph.addNode("A")
+        def file = directory.resolve("graph.edges")
+        file.text = "# comment\nA B 2\r\nB\tC  3\n\nA C 9\nD\nA B 4"
+
+        when: "importing edge list"
+        def edges = new GraphTransfer(graph).importGraph(file.toString())
+
+        then: "nodes and edges are merged into graph"
+        edges == 4
+        graph.nodes() == ["A": ["B": [2], "C": [9]], "B": ["C": [3]], "C": [:], "D": [:]]
+        graph.shortestPath("A", "C") == 5
+
+        where:
+        backend << ["compact", "map"]
+    }
+
+    @Unroll
+    def "should export and import graph in #format format"() {
+
+        given: "graph with nodes and edges"
+        def graph = newGraph("compact")
+        ["A", "B", "C", "D"].each { graph.addNode(it) }
+        graph.addEdge("A", "B", 2)
+        graph.addEdge("A", "B", 7)
+        graph.addEdge("B", "C", 3)
+        def file = directory.resolve("graph" + suffix)
+
+        when: "exporting graph and importing it into empty graph"
+        new GraphTransfer(graph).exportGraph(file.toString())
+        def imported = newGraph("map")
+        new GraphTransfer(imported).importGraph(file.toString())
+
+        then: "imported graph equals exported one"
+        imported.nodes() == graph.nodes()
+
+        where:
+        format   | suffix
+        "text"   | ".edges"
+        "binary" | GraphTransfer.BINARY_SUFFIX
+    }
+
+    def "should reject malformed edge list"() {
+
+        given: "edge list with malformed line"
+        def file = directory.resolve("graph.edges")
+        file.text = "A B 2\n" + line + "\n"
+
+        when: "importing edge list"
+        new GraphTransfer(newGraph("compact")).importGraph(file.toString())
+
+        then: "import fails naming malformed line"
+        def exception = thrown(IllegalArgumentException)
+        exception.message.endsWith(": " + line)
+
+        where:
+        line << ["A B", "A B x", "A B 99999999999", "A B 1 2", "A B -1", "A B -", "A_B C 1", "A B.C 1", "A%B", "A:B"]
+    }
+
+    def "should snapshot imported graph of durable graph"() {
+
+        given: "durable graph and edge list file"
+        def data = directory.resolve("data")
+        def graph = new DurableGraph(newGraph("compact"), data.toString())
+        def file = directory.resolve("graph.edges")
+        file.text = "A B 2\nB C 3\n"
+
+        when: "importing edge list, mutating graph and restarting it"
+        new GraphTransfer(graph).importGraph(file.toString())
+        graph.addEdge("C", "A", 1)
+        graph.close()
+        def restarted = new DurableGraph(newGraph("compact"), data.toString())
+
+        then: "imported nodes and later mutations are recovered"
+        restarted.nodes() == ["A": ["B": [2]], "B": ["C": [3]], "C": ["A": [1]]]
+
+        cleanup:
+        restarted.close()
+    }
+
+    @Unroll
+    def "should export consistent images of #backend graph mutated concurrently"() {
+
+        given: "graph mutated by another thread"
+        def graph = newGraph(backend)
+        graph.addNode("node0")
+        def mutator = Thread.start {
+            (1..<20000).each { node ->
+                graph.addNode("node$node".toString())
+                graph.addEdge("node${node - 1}".toString(), "node$node".toString(), node % 10)
+                graph.addEdge("node$node".toString(), "node${node.intdiv(2)}".toString(), 1)
+            }
+        }
+
+        when: "exporting graph repeatedly while it is mutated"
+        def images = []
+        while (mutator.alive || images.isEmpty()) {
+            def file = directory.resolve("graph${images.size()}" + suffix)
+            new GraphTransfer(graph).exportGraph(file.toString())
+            images << file
+        }
+        mutator.join()
+
+        then: "every image has terminals of all its edges and grows with graph"
+        def imported = images.collect { file ->
+            def copy = newGraph(backend)
+            new GraphTransfer(copy).importGraph(file.toString())
+            copy.nodes()
+        }
+        imported.every { nodes -> nodes.values().every { nodes.keySet().containsAll(it.keySet()) } }
+        imported*.size() == imported*.size().sort(false)
+
+        where:
+        [backend, suffix] << [["compact", "map"], [GraphTransfer.BINARY_SUFFIX, ".edges"]].combinations()
+    }
+
+    private static Graph<String> newGraph(String backend) {
+        if (backend == "compact") {
+            def store = new CompactGraphStore()
+            return new CompactDirectedWeightedGraph(store, new CompressedSparseRowDijkstraShortestPathResolver(store))
+        }
+        def nodes = new ConcurrentHashMap()
+        return new DirectedWeightedGraph(nodes, new BinaryHeapDijkstraShortestPathResolver(nodes))
+    }
+}
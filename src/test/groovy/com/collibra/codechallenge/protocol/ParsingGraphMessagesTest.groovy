@@ -0,0 +1,158 @@
+package com.collibra.codechallenge.protocol
+
+import com.collibra.codechallenge.ioc.Configuration
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.function.Consumer
+
+class ParsingGraphMessagesTest extends Specification {
+
+    static final String NEW_LINE = System.lineSeparator()
+
+    def protocol
+
+    def setup() {
+        def nodes = [:]
+        def graph = Configuration.directedWeightedGraph(nodes, Configuration.shortestPathResolver(nodes))
+        protocol = new GraphMessagesProtocol(graph)
+        ["ADD NODE A", "ADD NODE B", "ADD NODE C/1", "ADD EDGE A B 3", "ADD EDGE B C/1 4"].each {
+            protocol.processMessage(it, "0")
+        }
+    }
+
+    @Unroll
+    def "should reply '#reply' to '#message'"() {
+
+        when: "processing message"
+        def response = protocol.processMessage(message, "15")
+
+        then: "reply is the same as with the regex based parser"
+        response == reply + NEW_LINE
+
+        where:
+        message                      || reply
+        "HI, I AM client-1"          || "HI client-1"
+        "BYE MATE!"                  || "BYE null, WE SPOKE FOR 15 MS"
+        "ADD NODE D"                 || "NODE ADDED"
+        "REMOVE NODE A"              || "NODE REMOVED"
+        "ADD EDGE C/1 A 0007"        || "EDGE ADDED"
+        "REMOVE EDGE A B"            || "EDGE REMOVED"
+        "SHORTEST PATH A C/1"        || "7"
+        "CLOSER THAN 4 A"            || "B"
+        "CLOSER THAN 8 A"            || "B,C/1"
+        "BATCH CLOSER THAN 8 C/1,A"  || "C/1:" + NEW_LINE + "A:B,C/1" + NEW_LINE + "END OF BATCH"
+        "BATCH CLOSER THAN 5 *"      || "A:B" + NEW_LINE + "B:C/1" + NEW_LINE + "C/1:" + NEW_LINE + "END OF BATCH"
+        "USE GRAPH default"          || "GRAPH SELECTED"
+        "HI, I AM "                  || "SORRY, I DID NOT UNDERSTAND THAT"
+        "HI, I AM client 1"          || "SORRY, I DID NOT UNDERSTAND THAT"
+        "hi, i am client"            || "SORRY, I DID NOT UNDERSTAND THAT"
+        "BYE MATE! "                 || "SORRY, I DID NOT UNDERSTAND THAT"
+        "ADD NODE D_1"               || "SORRY, I DID NOT UNDERSTAND THAT"
+        "ADD EDGE A B"               || "SORRY, I DID NOT UNDERSTAND THAT"
+        "ADD EDGE A B -3"            || "SORRY, I DID NOT UNDERSTAND THAT"
+        "ADD EDGE A  B 3"            || "SORRY, I DID NOT UNDERSTAND THAT"
+        "SHORTEST PATH A"            || "SORRY, I DID NOT UNDERSTAND THAT"
+        "CLOSER THAN A 4"            || "SORRY, I DID NOT UNDERSTAND THAT"
+        "REMOVE EDGE A B C"          || "SORRY, I DID NOT UNDERSTAND THAT"
+        "BATCH CLOSER THAN 8 A,,B"   || "SORRY, I DID NOT UNDERSTAND THAT"
+        "BATCH CLOSER THAN 8 A,"     || "SORRY, I DID NOT UNDERSTAND THAT"
+        "BATCH CLOSER THAN 8 *,A"    || "SORRY, I DID NOT UNDERSTAND THAT"
+        "USE GRAPH g 1"              || "SORRY, I DID NOT UNDERSTAND THAT"
+        "BATCH CLOSER THAN 8 A B"    || "SORRY, I DID NOT UNDERSTAND THAT"
+        ""                           || "SORRY, I DID NOT UNDERSTAND THAT"
+    }
+
+    def "should remember client name for bye message"() {
+
+        given: "introduced client"
+        protocol.processMessage("HI, I AM client-1", "0")
+
+        when: "saying goodbye"
+        def response = protocol.processMessage("BYE MATE!", "42")
+
+        then: "client name is used"
+        response == "BYE client-1, WE SPOKE FOR 42 MS" + NEW_LINE
+    }
+
+    def "should not understand frame still containing line separator"() {
+
+        when: "processing frame with line separator"
+        def response = protocol.processMessage("ADD NODE D" + NEW_LINE, "0")
+
+        then: "message is not understood"
+        response == "SORRY, I DID NOT UNDERSTAND THAT" + NEW_LINE
+    }
+
+    def "should fail like Integer.valueOf when weight overflows"() {
+
+        when: "adding edge with weight larger than integer"
+        protocol.processMessage("ADD EDGE A B 2147483648", "0")
+
+        then: "NumberFormatException was thrown"
+        def exception = thrown(NumberFormatException)
+        exception.message == 'For input string: "2147483648"'
+    }
+
+    def "should accept maximum integer weight"() {
+
+        when: "adding edge with maximum integer weight"
+        def response = protocol.processMessage("ADD EDGE A B 2147483647", "0")
+
+        then: "edge added"
+        response == "EDGE ADDED" + NEW_LINE
+    }
+
+    def "should parse query once and take its arguments before message is released"() {
+
+        given: "query message counting reads of its first character"
+        def message = new ReadCountingMessage(text: "SHORTEST PATH A C/1")
+        def replies = []
+
+        when: "telling message is a query and preparing it"
+        protocol.isQuery(message)
+        def reads = message.firstCharacterReads
+        def query = protocol.processMessage(message, "0", { replies << it } as Consumer<String>)
+        message.text = ""
+
+        then: "message is not parsed again"
+        reads > 0
+        message.firstCharacterReads == reads
+
+        when: "resolving query once message was released"
+        def more = query.getAsBoolean()
+
+        then: "reply is resolved from arguments taken before"
+        !more
+        replies == ["7" + NEW_LINE]
+    }
+
+    static class ReadCountingMessage implements CharSequence {
+
+        String text
+        int firstCharacterReads
+
+        @Override
+        int length() {
+            text.length()
+        }
+
+        @Override
+        char charAt(int index) {
+            if (index == 0) {
+                firstCharacterReads++
+            }
+            text.charAt(index)
+        }
+
+        @Override
+        CharSequence subSequence(int start, int end) {
+            text.subSequence(start, end)
+        }
+
+        @Override
+        String toString() {
+            text
+        }
+    }
+}
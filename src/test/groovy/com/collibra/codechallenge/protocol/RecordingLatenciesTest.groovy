@@ -0,0 +1,65 @@
+package com.collibra.codechallenge.protocol
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class RecordingLatenciesTest extends Specification {
+
+    def histogram = new LatencyHistogram()
+
+    @Unroll
+    def "should map #value into bucket whose highest value is within 1/64 above it"() {
+
+        expect: "value fits its bucket and bucket is at most 1/64 of value wide"
+        def index = LatencyHistogram.index(value)
+        def highest = LatencyHistogram.highestEquivalentValue(index)
+        highest >= value
+        highest - value <= value / 64
+        index == 0 || LatencyHistogram.highestEquivalentValue(index - 1) < value
+
+        where:
+        value << [0L, 1L, 127L, 128L, 129L, 255L, 256L, 1000L, 123_456_789L, Long.MAX_VALUE >> 1, Long.MAX_VALUE]
+    }
+
+    def "should report percentiles within precision of recorded values"() {
+
+        given: "latencies from 1 to 100000 nanoseconds"
+        (1..100_000).each { histogram.record(it) }
+
+        when: "taking snapshot"
+        def snapshot = histogram.snapshot()
+
+        then: "percentiles are close to exact ones and maximum is exact"
+        snapshot.count() == 100_000
+        snapshot.mean() == 50_000.5d
+        snapshot.percentile(0.5) in 50_000L..50_000L + 50_000.intdiv(64)
+        snapshot.percentile(0.99) in 99_000L..99_000L + 99_000.intdiv(64)
+        snapshot.percentile(1.0) == 100_000
+        snapshot.max() == 100_000
+    }
+
+    def "should record from concurrent threads without losing values"() {
+
+        when: "recording from several threads"
+        def threads = (1..4).collect { thread -> Thread.start { 10_000.times { histogram.record(thread * 1000 + it % 7) } } }
+        threads*.join()
+
+        then: "all values are counted"
+        def snapshot = histogram.snapshot()
+        snapshot.count() == 40_000
+        snapshot.max() == 4006
+        snapshot.percentile(0.0) in 1000L..1000L + 1000.intdiv(64)
+    }
+
+    def "should ignore negative values and report zeros when empty"() {
+
+        when: "recording negative value"
+        histogram.record(-1)
+
+        then: "nothing is recorded"
+        def snapshot = histogram.snapshot()
+        snapshot.count() == 0
+        snapshot.percentile(0.99) == 0
+        snapshot.mean() == 0
+    }
+}
@@ -0,0 +1,89 @@
+package com.collibra.codechallenge.server
+
+import com.collibra.codechallenge.ioc.Configuration
+import com.google.common.util.concurrent.MoreExecutors
+import io.netty.buffer.Unpooled
+import io.netty.channel.embedded.EmbeddedChannel
+import io.netty.handler.timeout.IdleStateEvent
+import io.netty.handler.timeout.IdleStateHandler
+import io.netty.util.CharsetUtil
+import spock.lang.Specification
+
+class ExpiringIdleSessionsTest extends Specification {
+
+    static final String NEW_LINE = System.lineSeparator()
+
+    def channel
+
+    def setup() {
+        def nodes = [:]
+        def graph = Configuration.directedWeightedGraph(nodes, Configuration.shortestPathResolver(nodes))
+        channel = new EmbeddedChannel(new ServerChannelInitializer(graph, MoreExecutors.directExecutor()))
+        channel.readOutbound().release()
+    }
+
+    def cleanup() {
+        channel.finishAndReleaseAll()
+    }
+
+    def "should expire session after 30 seconds without messages"() {
+
+        expect: "reader idle state handler in pipeline"
+        def idleStateHandler = channel.pipeline().get(IdleStateHandler)
+        idleStateHandler.readerIdleTimeInMillis == 30000L
+        idleStateHandler.allIdleTimeInMillis == 0L
+    }
+
+    def "should say bye and close channel when session is idle"() {
+
+        given: "introduced client"
+        channel.writeInbound(Unpooled.copiedBuffer("HI, I AM client-1" + NEW_LINE, CharsetUtil.US_ASCII))
+        channel.readOutbound().release()
+
+        when: "session becomes idle"
+        channel.pipeline().fireUserEventTriggered(IdleStateEvent.READER_IDLE_STATE_EVENT)
+
+        then: "bye message is sent and channel closed"
+        def bye = channel.readOutbound()
+        bye.toString(CharsetUtil.UTF_8) ==~ /BYE client-1, WE SPOKE FOR \d+ MS${NEW_LINE}/
+        bye.release()
+        !channel.open
+    }
+
+    def "should not expire session waiting for reply of query"() {
+
+        given: "session with query held on query executor"
+        def queries = new OffloadingQueriesTest.HeldQueries()
+        def nodes = [:]
+        def graph = Configuration.directedWeightedGraph(nodes, Configuration.shortestPathResolver(nodes))
+        def querying = new EmbeddedChannel(new ServerChannelInitializer(graph, queries))
+        querying.readOutbound().release()
+        graph.addNode("A")
+        querying.writeInbound(Unpooled.copiedBuffer("CLOSER THAN 5 A" + NEW_LINE, CharsetUtil.US_ASCII))
+        def idleStateHandler = querying.pipeline().get(IdleStateHandler)
+
+        when: "session becomes idle while query runs"
+        querying.pipeline().fireUserEventTriggered(IdleStateEvent.READER_IDLE_STATE_EVENT)
+
+        then: "session stays open and its expiration restarts"
+        querying.open
+        querying.readOutbound() == null
+        querying.pipeline().get(IdleStateHandler) != idleStateHandler
+        querying.pipeline().get(IdleStateHandler).readerIdleTimeInMillis == 30000L
+
+        when: "query completes and session becomes idle right after"
+        queries.runAll()
+        querying.runPendingTasks()
+        def reply = querying.readOutbound()
+        querying.pipeline().fireUserEventTriggered(IdleStateEvent.READER_IDLE_STATE_EVENT)
+
+        then: "reply is sent and session is not expired before full expiration time after the reply"
+        reply.toString(CharsetUtil.UTF_8) == NEW_LINE
+        reply.release()
+        querying.open
+        querying.readOutbound() == null
+
+        cleanup:
+        querying.finishAndReleaseAll()
+    }
+}
@@ -0,0 +1,114 @@
+package com.collibra.codechallenge.server
+
+import com.collibra.codechallenge.graph.GraphNamespaces
+import com.collibra.codechallenge.ioc.Configuration
+import com.collibra.codechallenge.protocol.CommandMetrics
+import com.google.common.util.concurrent.MoreExecutors
+import io.netty.buffer.Unpooled
+import io.netty.channel.embedded.EmbeddedChannel
+import io.netty.util.CharsetUtil
+import spock.lang.Specification
+
+class ExposingMetricsTest extends Specification {
+
+    static final String NEW_LINE = System.lineSeparator()
+
+    def graph
+    def metrics
+
+    def setup() {
+        def nodes = [:]
+        graph = Configuration.directedWeightedGraph(nodes, Configuration.shortestPathResolver(nodes))
+        metrics = new ServerMetrics(GraphNamespaces.of(graph))
+    }
+
+    def "should count commands, errors, not understood messages and search work of sessions"() {
+
+        given: "metrics before session"
+        def latencies = countsByCommand()
+        def errors = metrics.errorCount
+        def sorryReplies = metrics.sorryReplyCount
+        def nodesSettled = metrics.nodesSettledCount
+        def edgesRelaxed = metrics.edgesRelaxedCount
+        def activeSessions = metrics.activeSessions
+
+        when: "session builds path graph, queries it and sends failing and unknown messages"
+        def channel = new EmbeddedChannel(new ServerChannelInitializer(graph, MoreExecutors.directExecutor()))
+        ["ADD NODE A", "ADD NODE B", "ADD NODE C", "ADD EDGE A B 1", "ADD EDGE B C 2", "ADD EDGE A B 5",
+         "SHORTEST PATH A C", "REMOVE NODE X", "HELLO"].each { write(channel, it) }
+
+        then: "each command is timed and errors, replies and search work are counted"
+        def counts = countsByCommand()
+        counts.ADD_NODE - latencies.ADD_NODE == 3
+        counts.ADD_EDGE - latencies.ADD_EDGE == 3
+        counts.SHORTEST_PATH - latencies.SHORTEST_PATH == 1
+        counts.REMOVE_NODE - latencies.REMOVE_NODE == 1
+        metrics.errorCount - errors == 1
+        metrics.sorryReplyCount - sorryReplies == 1
+        metrics.nodesSettledCount - nodesSettled == 3
+        metrics.edgesRelaxedCount - edgesRelaxed == 2
+        metrics.activeSessions - activeSessions == 1
+
+        and: "graph size gauges count collapsed parallel edges once"
+        metrics.nodeCount == 3
+        metrics.edgeCount == 2
+
+        when: "session is closed"
+        channel.finishAndReleaseAll()
+
+        then: "it is no longer active"
+        metrics.activeSessions == activeSessions
+    }
+
+    def "should scrape metrics as text over http on loopback interface"() {
+
+        given: "graph with one node and endpoint on ephemeral port"
+        graph.addNode("A")
+        def endpoint = new MetricsEndpoint(metrics, 0)
+        endpoint.start()
+
+        when: "scraping endpoint"
+        def connection = new URL("http://127.0.0.1:${endpoint.port()}/metrics").openConnection() as HttpURLConnection
+        def text = connection.inputStream.getText("UTF-8")
+
+        then: "latency summaries, counters and gauges are listed"
+        connection.responseCode == 200
+        connection.contentType.startsWith("text/plain")
+        text.contains('graph_command_latency_seconds{command="SHORTEST_PATH",quantile="0.99"} ')
+        text.contains('graph_command_latency_seconds_count{command="ADD_NODE"} ')
+        text.contains("# TYPE graph_sorry_replies_total counter\n")
+        text.contains("graph_search_edges_relaxed_total ")
+        text.contains('graph_nodes{graph="default"} 1\n')
+        text.contains('graph_edges{graph="default"} 0\n')
+
+        cleanup:
+        endpoint.stop()
+    }
+
+    def "should expose command latencies as composite data through JMX"() {
+
+        given: "metrics registered in MBean server"
+        def server = java.lang.management.ManagementFactory.platformMBeanServer
+        def name = new javax.management.ObjectName("com.collibra.codechallenge:type=ServerMetricsTest")
+        server.registerMBean(metrics, name)
+
+        when: "reading latencies attribute"
+        def latencies = server.getAttribute(name, "CommandLatencies")
+
+        then: "there is one entry per command"
+        latencies*.get("command").containsAll(["ADD_NODE", "SHORTEST_PATH", "BATCH_CLOSER_THAN"])
+        latencies.every { it.get("p99Micros") >= 0 }
+
+        cleanup:
+        server.unregisterMBean(name)
+    }
+
+    private static Map<String, Long> countsByCommand() {
+        CommandMetrics.latencies().collectEntries { command, histogram -> [command, histogram.snapshot().count()] }
+    }
+
+    private static void write(EmbeddedChannel channel, String message) {
+        channel.writeInbound(Unpooled.copiedBuffer(message + NEW_LINE, CharsetUtil.US_ASCII))
+        channel.runPendingTasks()
+    }
+}
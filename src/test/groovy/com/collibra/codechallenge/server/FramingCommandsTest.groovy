@@ -0,0 +1,106 @@
+package com.collibra.codechallenge.server
+
+import com.collibra.codechallenge.ioc.Configuration
+import com.google.common.util.concurrent.MoreExecutors
+import io.netty.buffer.ByteBuf
+import io.netty.buffer.Unpooled
+import io.netty.channel.embedded.EmbeddedChannel
+import io.netty.util.CharsetUtil
+import spock.lang.Specification
+
+class FramingCommandsTest extends Specification {
+
+    static final String NEW_LINE = System.lineSeparator()
+
+    def channel
+
+    def setup() {
+        def nodes = [:]
+        def graph = Configuration.directedWeightedGraph(nodes, Configuration.shortestPathResolver(nodes))
+        channel = new EmbeddedChannel(new ServerChannelInitializer(graph, MoreExecutors.directExecutor()))
+        assert readReply().startsWith("HI, I AM ")
+    }
+
+    def cleanup() {
+        channel.finishAndReleaseAll()
+    }
+
+    def "should process every command carried by a single read"() {
+
+        when: "writing several commands at once"
+        write("ADD NODE A" + NEW_LINE + "ADD NODE B" + NEW_LINE + "ADD EDGE A B 3" + NEW_LINE + "SHORTEST PATH A B" + NEW_LINE)
+
+        then: "every command is answered in order"
+        readReplies() == ["NODE ADDED", "NODE ADDED", "EDGE ADDED", "3"]
+    }
+
+    def "should reassemble command split across reads"() {
+
+        when: "writing command in fragments"
+        write("ADD ")
+        write("NO")
+        write("DE A" + NEW_LINE + "ADD NODE")
+
+        then: "only complete command is answered"
+        readReplies() == ["NODE ADDED"]
+
+        when: "completing second command"
+        write(" B" + NEW_LINE)
+
+        then: "second command is answered"
+        readReplies() == ["NODE ADDED"]
+    }
+
+    def "should not understand too long frame and keep processing following commands"() {
+
+        when: "writing frame longer than maximum frame length"
+        write("ADD NODE " + "A" * 5000 + NEW_LINE + "ADD NODE A" + NEW_LINE)
+
+        then: "too long frame is not understood and next command is processed"
+        readReplies() == ["SORRY, I DID NOT UNDERSTAND THAT", "NODE ADDED"]
+    }
+
+    def "should discard too long frame arriving in fragments"() {
+
+        when: "writing too long frame in fragments"
+        10.times { write("A" * 1000) }
+        write(NEW_LINE + "ADD NODE A" + NEW_LINE)
+
+        then: "too long frame is not understood and next command is processed"
+        readReplies() == ["SORRY, I DID NOT UNDERSTAND THAT", "NODE ADDED"]
+    }
+
+    def "should frame command written byte by byte"() {
+
+        when: "writing command one byte at a time"
+        ("ADD NODE A" + NEW_LINE).each { write(it) }
+
+        then: "command is answered once"
+        readReplies() == ["NODE ADDED"]
+    }
+
+    private void write(String data) {
+        channel.writeInbound(Unpooled.copiedBuffer(data, CharsetUtil.US_ASCII))
+    }
+
+    private List<String> readReplies() {
+        def replies = []
+        def reply
+        while ((reply = readReply()) != null) {
+            replies.addAll(reply.split(NEW_LINE))
+        }
+        replies
+    }
+
+    private String readReply() {
+        ByteBuf buffer = channel.readOutbound()
+        if (buffer == null) {
+            return null
+        }
+        try {
+            buffer.toString(CharsetUtil.UTF_8)
+        } finally {
+            buffer.release()
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.collibra.codechallenge.server
+
+import com.collibra.codechallenge.graph.Graph
+import io.netty.bootstrap.ServerBootstrap
+import io.netty.channel.ChannelOption
+import io.netty.channel.WriteBufferWaterMark
+import io.netty.channel.nio.NioEventLoopGroup
+import io.netty.channel.socket.nio.NioServerSocketChannel
+import spock.lang.Specification
+
+import java.nio.charset.StandardCharsets
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.function.BiConsumer
+
+class HoldingBackRepliesTest extends Specification {
+
+    static final String NEW_LINE = System.lineSeparator()
+
+    static final int INITIALS = 20000
+
+    def produced = new AtomicInteger()
+    def graph = [
+            nodeNames  : { (0..<INITIALS).collect { "node$it".toString() } },
+            closerThan : { Collection<String> initials, Integer distance, BiConsumer<String, String> results ->
+                initials.each {
+                    results.accept(it, "X" * 1000)
+                    produced.incrementAndGet()
+                }
+            }
+    ] as Graph<String>
+    def group = new NioEventLoopGroup(1)
+    def queries = Executors.newSingleThreadExecutor()
+    def server
+    def client = new Socket()
+
+    def setup() {
+        server = new ServerBootstrap()
+                .group(group)
+                .channel(NioServerSocketChannel)
+                .childOption(ChannelOption.SO_SNDBUF, 8 * 1024)
+                .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(8 * 1024, 16 * 1024))
+                .childHandler(new ServerChannelInitializer(graph, queries))
+                .bind(InetAddress.loopbackAddress, 0).syncUninterruptibly().channel()
+        client.receiveBufferSize = 8 * 1024
+        client.connect(server.localAddress())
+    }
+
+    def cleanup() {
+        client.close()
+        server.close().syncUninterruptibly()
+        group.shutdownGracefully().syncUninterruptibly()
+        queries.shutdownNow()
+    }
+
+    def "should hold back batch query while client does not read its replies"() {
+
+        when: "client sends batch query and does not read"
+        client.outputStream.write(("BATCH CLOSER THAN 5 *" + NEW_LINE).getBytes(StandardCharsets.US_ASCII))
+        client.outputStream.flush()
+        sleep(1000)
+        def stalled = produced.get()
+        sleep(500)
+        def executorFree = queries.invokeAny([{ true } as Callable<Boolean>], 1, TimeUnit.SECONDS)
+
+        then: "query pauses once buffers are full, without holding thread of query executor"
+        stalled > 0
+        stalled < 2000
+        produced.get() == stalled
+        executorFree
+
+        when: "client reads replies"
+        def lines = new BufferedReader(new InputStreamReader(client.inputStream, StandardCharsets.US_ASCII))
+        def greeting = lines.readLine()
+        def replies = 0
+        def line
+        while ((line = lines.readLine()).startsWith("node")) {
+            replies++
+        }
+
+        then: "every reply is sent, followed by end of batch"
+        greeting.startsWith("HI, I AM")
+        replies == INITIALS
+        line == "END OF BATCH"
+        produced.get() == INITIALS
+    }
+}
@@ -0,0 +1,140 @@
+package com.collibra.codechallenge.server
+
+import com.collibra.codechallenge.ioc.Configuration
+import io.netty.buffer.ByteBuf
+import io.netty.buffer.Unpooled
+import io.netty.channel.embedded.EmbeddedChannel
+import io.netty.util.CharsetUtil
+import spock.lang.Specification
+
+import java.util.concurrent.Executor
+import java.util.concurrent.RejectedExecutionException
+
+class OffloadingQueriesTest extends Specification {
+
+    static final String NEW_LINE = System.lineSeparator()
+
+    def queries = new HeldQueries()
+    def channel
+
+    def setup() {
+        def nodes = [:]
+        def graph = Configuration.directedWeightedGraph(nodes, Configuration.shortestPathResolver(nodes))
+        channel = new EmbeddedChannel(new ServerChannelInitializer(graph, queries))
+        channel.readOutbound().release()
+        write("ADD NODE A" + NEW_LINE + "ADD NODE B" + NEW_LINE + "ADD EDGE A B 3" + NEW_LINE)
+        readReplies()
+    }
+
+    def cleanup() {
+        channel.finishAndReleaseAll()
+    }
+
+    def "should run queries on query executor and keep replies in order"() {
+
+        when: "writing query followed by cheap commands"
+        write("SHORTEST PATH A B" + NEW_LINE + "ADD NODE C" + NEW_LINE + "CLOSER THAN 5 A" + NEW_LINE + "ADD NODE D" + NEW_LINE)
+
+        then: "nothing is answered while query is running and reading is suspended"
+        queries.held.size() == 1
+        readReplies() == []
+        !channel.config().autoRead
+
+        when: "first query completes"
+        queries.runAll()
+        channel.runPendingTasks()
+
+        then: "its reply and following command reply are sent, second query is running"
+        readReplies() == ["3", "NODE ADDED"]
+        queries.held.size() == 1
+
+        when: "second query completes"
+        queries.runAll()
+        channel.runPendingTasks()
+
+        then: "remaining replies are sent in order and reading is resumed"
+        readReplies() == ["B", "NODE ADDED"]
+        channel.config().autoRead
+    }
+
+    def "should reply with query error in order"() {
+
+        when: "writing query for missing node followed by cheap command"
+        write("SHORTEST PATH A X" + NEW_LINE + "ADD NODE C" + NEW_LINE)
+        queries.runAll()
+        channel.runPendingTasks()
+
+        then: "error reply precedes next reply"
+        readReplies() == ["ERROR: NODE NOT FOUND", "NODE ADDED"]
+    }
+
+    def "should stream reply of each initial node of batch query in order with next replies"() {
+
+        when: "writing batch query followed by cheap command"
+        write("BATCH CLOSER THAN 5 A,B" + NEW_LINE + "ADD NODE C" + NEW_LINE)
+        queries.runAll()
+        channel.runPendingTasks()
+
+        then: "reply of each initial node is sent, followed by end of batch and next reply"
+        readReplies() == ["A:B", "B:", "END OF BATCH", "NODE ADDED"]
+        channel.config().autoRead
+    }
+
+    def "should not stream anything when batch query names missing node"() {
+
+        when: "writing batch query naming missing node"
+        write("BATCH CLOSER THAN 5 A,X" + NEW_LINE)
+        queries.runAll()
+        channel.runPendingTasks()
+
+        then: "only error is sent"
+        readReplies() == ["ERROR: NODE NOT FOUND"]
+    }
+
+    def "should reply busy when query executor is saturated"() {
+
+        given: "saturated query executor"
+        queries.saturated = true
+
+        when: "writing query followed by cheap command"
+        write("SHORTEST PATH A B" + NEW_LINE + "ADD NODE C" + NEW_LINE)
+
+        then: "query is rejected with busy reply and next command is processed"
+        readReplies() == ["ERROR: SERVER BUSY", "NODE ADDED"]
+        channel.config().autoRead
+    }
+
+    private void write(String data) {
+        channel.writeInbound(Unpooled.copiedBuffer(data, CharsetUtil.US_ASCII))
+    }
+
+    private List<String> readReplies() {
+        def replies = []
+        ByteBuf buffer
+        while ((buffer = channel.readOutbound()) != null) {
+            replies.addAll(buffer.toString(CharsetUtil.UTF_8).split(NEW_LINE))
+            buffer.release()
+        }
+        replies
+    }
+
+    static class HeldQueries implements Executor {
+
+        List<Runnable> held = []
+        boolean saturated
+
+        @Override
+        void execute(Runnable query) {
+            if (saturated) {
+                throw new RejectedExecutionException()
+            }
+            held << query
+        }
+
+        void runAll() {
+            def running = held
+            held = []
+            running*.run()
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.collibra.codechallenge.server
+
+import com.collibra.codechallenge.ioc.Configuration
+import com.google.common.util.concurrent.MoreExecutors
+import io.netty.buffer.ByteBuf
+import io.netty.buffer.Unpooled
+import io.netty.channel.ChannelHandlerContext
+import io.netty.channel.ChannelOutboundHandlerAdapter
+import io.netty.channel.WriteBufferWaterMark
+import io.netty.channel.embedded.EmbeddedChannel
+import io.netty.util.CharsetUtil
+import spock.lang.Specification
+
+class PipeliningCommandsTest extends Specification {
+
+    static final String NEW_LINE = System.lineSeparator()
+
+    def flushes = new FlushGate()
+    def channel
+
+    def setup() {
+        def nodes = [:]
+        def graph = Configuration.directedWeightedGraph(nodes, Configuration.shortestPathResolver(nodes))
+        channel = new EmbeddedChannel(flushes, new ServerChannelInitializer(graph, MoreExecutors.directExecutor()))
+        channel.readOutbound().release()
+        flushes.count = 0
+    }
+
+    def cleanup() {
+        channel.finishAndReleaseAll()
+    }
+
+    def "should flush replies to pipelined commands once per read"() {
+
+        when: "writing many commands in one read"
+        write((0..<100).collect { "ADD NODE node" + it + NEW_LINE }.join())
+
+        then: "all replies are written with single flush"
+        flushes.count == 1
+        readReplies().size() == 100
+    }
+
+    def "should flush error replies together with other replies"() {
+
+        when: "writing commands failing in the middle of the read"
+        write("ADD NODE A" + NEW_LINE + "ADD NODE A" + NEW_LINE + "ADD NODE B" + NEW_LINE)
+
+        then: "error reply is written in order and flushed once"
+        flushes.count == 1
+        readReplies() == ["NODE ADDED", "ERROR: NODE ALREADY EXISTS", "NODE ADDED"]
+    }
+
+    def "should stop reading while replies are not written and resume when they are"() {
+
+        given: "small write buffer and client not reading replies"
+        channel.config().setWriteBufferWaterMark(new WriteBufferWaterMark(8, 16))
+        flushes.open = false
+
+        when: "writing more replies than write buffer holds"
+        write((0..<10).collect { "ADD NODE node" + it + NEW_LINE }.join())
+
+        then: "reading is suspended"
+        !channel.writable
+        !channel.config().autoRead
+
+        when: "client reads replies"
+        flushes.open = true
+        channel.flush()
+
+        then: "reading is resumed"
+        channel.writable
+        channel.config().autoRead
+        readReplies().size() == 10
+    }
+
+    private void write(String data) {
+        channel.writeInbound(Unpooled.copiedBuffer(data, CharsetUtil.US_ASCII))
+    }
+
+    private List<String> readReplies() {
+        def replies = []
+        ByteBuf buffer
+        while ((buffer = channel.readOutbound()) != null) {
+            replies.addAll(buffer.toString(CharsetUtil.UTF_8).split(NEW_LINE))
+            buffer.release()
+        }
+        replies
+    }
+
+    static class FlushGate extends ChannelOutboundHandlerAdapter {
+
+        int count
+        boolean open = true
+
+        @Override
+        void flush(ChannelHandlerContext ctx) {
+            count++
+            if (open) {
+                ctx.flush()
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.collibra.codechallenge.server
+
+import com.collibra.codechallenge.graph.GraphImplementations
+import com.collibra.codechallenge.graph.GraphNamespaces
+import com.collibra.codechallenge.ioc.Configuration
+import com.google.common.util.concurrent.MoreExecutors
+import io.netty.buffer.ByteBuf
+import io.netty.buffer.Unpooled
+import io.netty.channel.embedded.EmbeddedChannel
+import io.netty.util.CharsetUtil
+import spock.lang.Specification
+
+class SelectingGraphsTest extends Specification {
+
+    static final String NEW_LINE = System.lineSeparator()
+
+    static final int NODE_BYTES = 100
+
+    def graphNamespaces = new GraphNamespaces(newGraph(0), { newGraph(3 * NODE_BYTES) }, 3)
+
+    def "should keep graphs of sessions isolated"() {
+
+        given: "two sessions"
+        def first = newChannel()
+        def second = newChannel()
+
+        when: "first session builds graph g1 and second one works with default graph"
+        def firstReplies = send(first, "USE GRAPH g1", "ADD NODE A", "ADD NODE B", "ADD EDGE A B 4", "SHORTEST PATH A B")
+        def secondReplies = send(second, "ADD NODE A", "SHORTEST PATH A B")
+
+        then: "nodes of g1 are not visible in default graph"
+        firstReplies == ["GRAPH SELECTED", "NODE ADDED", "NODE ADDED", "EDGE ADDED", "4"]
+        secondReplies == ["NODE ADDED", "ERROR: NODE NOT FOUND"]
+
+        when: "second session selects g1 and then default graph again"
+        secondReplies = send(second, "USE GRAPH g1", "SHORTEST PATH A B", "USE GRAPH default", "SHORTEST PATH A B")
+
+        then: "it shares g1 with first session"
+        secondReplies == ["GRAPH SELECTED", "4", "GRAPH SELECTED", "ERROR: NODE NOT FOUND"]
+        graphNamespaces.graphs().keySet() == ["default", "g1"] as Set
+
+        cleanup:
+        [first, second]*.finishAndReleaseAll()
+    }
+
+    def "should refuse graphs over maximum and mutations over memory limit of selected graph"() {
+
+        given: "session"
+        def channel = newChannel()
+
+        when: "creating graphs over maximum"
+        def replies = send(channel, "USE GRAPH g1", "USE GRAPH g2", "USE GRAPH g3")
+
+        then: "last one is refused and session stays in previous graph"
+        replies == ["GRAPH SELECTED", "GRAPH SELECTED", "ERROR: TOO MANY GRAPHS"]
+
+        when: "adding nodes over memory limit of g2"
+        replies = send(channel, "ADD NODE A", "ADD NODE B", "ADD NODE C", "ADD NODE D", "REMOVE NODE C", "ADD NODE D")
+
+        then: "node over limit is refused until another one is removed"
+        replies == ["NODE ADDED", "NODE ADDED", "NODE ADDED", "ERROR: GRAPH MEMORY LIMIT EXCEEDED", "NODE REMOVED", "NODE ADDED"]
+        graphNamespaces.estimatedBytes == [default: 0L, g1: 0L, g2: 3L * NODE_BYTES]
+
+        when: "adding the same nodes to default graph without limit"
+        replies = send(channel, "USE GRAPH default", "ADD NODE A", "ADD NODE B", "ADD NODE C", "ADD NODE D")
+
+        then: "they are accepted"
+        replies == ["GRAPH SELECTED", "NODE ADDED", "NODE ADDED", "NODE ADDED", "NODE ADDED"]
+
+        cleanup:
+        channel.finishAndReleaseAll()
+    }
+
+    def "should refuse named graphs which cannot be created and stay in default graph"() {
+
+        given: "session of namespaces refusing named graphs, as in cluster"
+        graphNamespaces = new GraphNamespaces(newGraph(0), { throw new GraphNamespaces.NamedGraphsUnavailableException() }, 3)
+        def channel = newChannel()
+
+        when: "selecting named graph"
+        def replies = send(channel, "USE GRAPH g1", "ADD NODE A", "USE GRAPH default")
+
+        then: "it is refused and session keeps working with default graph"
+        replies == ["ERROR: NAMED GRAPHS UNAVAILABLE IN CLUSTER", "NODE ADDED", "GRAPH SELECTED"]
+        graphNamespaces.graphs().keySet() == ["default"] as Set
+        graphNamespaces.defaultGraph().nodes().keySet() == ["A"] as Set
+
+        cleanup:
+        channel.finishAndReleaseAll()
+    }
+
+    private static newGraph(long memoryLimit) {
+        def nodes = [:]
+        GraphImplementations.memoryBoundedGraph(
+                Configuration.directedWeightedGraph(nodes, Configuration.shortestPathResolver(nodes)), memoryLimit, NODE_BYTES, 10)
+    }
+
+    private EmbeddedChannel newChannel() {
+        def channel = new EmbeddedChannel(new ServerChannelInitializer(graphNamespaces, MoreExecutors.directExecutor()))
+        channel.readOutbound().release()
+        channel
+    }
+
+    private static List<String> send(EmbeddedChannel channel, String... messages) {
+        channel.writeInbound(Unpooled.copiedBuffer(messages.collect { it + NEW_LINE }.join(), CharsetUtil.US_ASCII))
+        channel.runPendingTasks()
+        def replies = new StringBuilder()
+        ByteBuf reply
+        while ((reply = channel.readOutbound()) != null) {
+            replies.append(reply.toString(CharsetUtil.US_ASCII))
+            reply.release()
+        }
+        replies.toString().split(NEW_LINE).findAll { it } as List
+    }
+}
@@ -0,0 +1,129 @@
+package com.collibra.codechallenge.server
+
+import com.collibra.codechallenge.ioc.Configuration
+import com.google.common.util.concurrent.MoreExecutors
+import io.netty.buffer.Unpooled
+import io.netty.channel.embedded.EmbeddedChannel
+import io.netty.util.CharsetUtil
+import org.apache.log4j.AppenderSkeleton
+import org.apache.log4j.Logger
+import org.apache.log4j.MDC
+import org.apache.log4j.spi.LoggingEvent
+import spock.lang.Specification
+
+class TracingMessagesTest extends Specification {
+
+    static final String NEW_LINE = System.lineSeparator()
+
+    def events = new CapturedEvents()
+    def tracing = new MessageTracing()
+    def graph
+
+    def setup() {
+        def nodes = [:]
+        graph = Configuration.directedWeightedGraph(nodes, Configuration.shortestPathResolver(nodes))
+        Logger.getLogger(ChannelHandler).addAppender(events)
+    }
+
+    def cleanup() {
+        Logger.getLogger(ChannelHandler).removeAppender(events)
+        tracing.messageTracing = false
+    }
+
+    def "should tag messages of sessions sharing one thread with their own session id"() {
+
+        given: "message tracing enabled and two sessions served by the same thread"
+        tracing.messageTracing = true
+        def first = newChannel()
+        def second = newChannel()
+
+        when: "both sessions send messages"
+        write(first, "ADD NODE A")
+        write(second, "ADD NODE B")
+        write(first, "ADD NODE C")
+
+        then: "each received message is tagged with session id of its channel"
+        def received = events.captured.findAll { it.renderedMessage.startsWith("Message received") }
+        received*.renderedMessage == ["Message received: ADD NODE A", "Message received: ADD NODE B", "Message received: ADD NODE C"]
+        received[0].getMDC("Session-Id") == received[2].getMDC("Session-Id")
+        received[0].getMDC("Session-Id") != received[1].getMDC("Session-Id")
+        MDC.get("Session-Id") == null
+
+        cleanup:
+        [first, second]*.finishAndReleaseAll()
+    }
+
+    def "should switch message tracing at runtime"() {
+
+        given: "open session"
+        def channel = newChannel()
+
+        when: "sending message with tracing disabled"
+        write(channel, "ADD NODE A")
+
+        then: "only session creation is logged"
+        !tracing.messageTracing
+        events.captured*.renderedMessage == ["Session created"]
+
+        when: "enabling tracing and sending message"
+        tracing.messageTracing = true
+        write(channel, "ADD NODE B")
+
+        then: "received and sent messages are traced"
+        tracing.messageTracing
+        events.captured*.renderedMessage.drop(1) == ["Message received: ADD NODE B", "Message sent: NODE ADDED" + NEW_LINE]
+
+        cleanup:
+        channel.finishAndReleaseAll()
+    }
+
+    def "should log caught exception with its stack trace and session id"() {
+
+        given: "open session"
+        def channel = newChannel()
+        def exception = new IllegalStateException("failure")
+
+        when: "exception is caught in session"
+        channel.pipeline().fireExceptionCaught(exception)
+
+        then: "error is logged with the exception itself"
+        def error = events.captured.find { it.level.toString() == "ERROR" }
+        error.renderedMessage == exception.toString()
+        error.throwableInformation.throwable.is(exception)
+        error.getMDC("Session-Id") != null
+
+        cleanup:
+        channel.finishAndReleaseAll()
+    }
+
+    private EmbeddedChannel newChannel() {
+        def channel = new EmbeddedChannel(new ServerChannelInitializer(graph, MoreExecutors.directExecutor()))
+        channel.readOutbound().release()
+        channel
+    }
+
+    private static void write(EmbeddedChannel channel, String message) {
+        channel.writeInbound(Unpooled.copiedBuffer(message + NEW_LINE, CharsetUtil.US_ASCII))
+        channel.runPendingTasks()
+    }
+
+    static class CapturedEvents extends AppenderSkeleton {
+
+        List<LoggingEvent> captured = []
+
+        @Override
+        protected void append(LoggingEvent event) {
+            event.getMDCCopy()
+            captured << event
+        }
+
+        @Override
+        void close() {
+        }
+
+        @Override
+        boolean requiresLayout() {
+            false
+        }
+    }
+}